@@ -0,0 +1,284 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.opensearch.Version;
+import org.opensearch.cluster.metadata.IndexMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.index.IndexSettings;
+import org.opensearch.index.query.QueryShardContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import querqy.lucene.LuceneSearchEngineRequestAdapter;
+import querqy.opensearch.RewriterShardContext.RewriterFactoryAndLogging;
+import querqy.opensearch.query.BoostingQueries;
+import querqy.opensearch.query.MatchingQuery;
+import querqy.opensearch.query.PhraseBoostDefinition;
+import querqy.opensearch.query.PhraseBoosts;
+import querqy.opensearch.query.QuerqyQueryBuilder;
+import querqy.opensearch.query.Rewriter;
+import querqy.opensearch.rewriter.ReplaceRewriterFactory;
+import querqy.opensearch.rewriter.SimpleCommonRulesRewriterFactory;
+import querqy.opensearch.rewriter.WordBreakCompoundRewriterFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Measures {@link QuerqyProcessor#parseQuery(QuerqyQueryBuilder, QueryShardContext)} against an in-memory shard.
+ * </p>
+ *
+ * <p>The rewriters are bound to the shard context directly, so that neither a rewriter index nor a node is needed.
+ * The shard context shares a standard analyzer across all query fields. The {@link QueryShardContext} is a stub that
+ * only provides the index settings and a searcher over a small in-memory index, which serves as the dictionary of the
+ * word break rewriter.</p>
+ *
+ * <p>Run with <code>./gradlew jmh -Pjmh.args="QuerqyProcessorBenchmark"</code>. The GC profiler is enabled by
+ * default and reports the allocation rate per operation.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class QuerqyProcessorBenchmark {
+
+    static final String COMMON_RULES = "common_rules";
+    static final String REPLACE = "replace";
+    static final String WORD_BREAK = "word_break";
+
+    static final int NUM_REPLACE_RULES = 1000;
+    static final String DICTIONARY_FIELD = "dictionary";
+
+    /**
+     * The number of rules of the common rules rewriter
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int numRules;
+
+    /**
+     * The number of terms in the user query. The last term is a compound that the word break rewriter can split.
+     */
+    @Param({"2", "8"})
+    public int numQueryTerms;
+
+    @Param({"1", "10"})
+    public int numQueryFields;
+
+    /**
+     * The rewrite chain as a comma-separated list of rewriter IDs, or 'none'
+     */
+    @Param({"none", "common_rules", "common_rules,replace", "common_rules,replace,word_break"})
+    public String rewriters;
+
+    @Param({"false", "true"})
+    public boolean phraseBoosts;
+
+    private Directory directory;
+    private DirectoryReader indexReader;
+    private QuerqyProcessor querqyProcessor;
+    private QueryShardContext queryShardContext;
+    private QuerqyQueryBuilder queryBuilder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        final List<String> rewriterIds = "none".equals(rewriters)
+                ? Collections.emptyList() : Arrays.asList(rewriters.split(","));
+
+        directory = new ByteBuffersDirectory();
+        indexDictionary(directory);
+        indexReader = DirectoryReader.open(directory);
+
+        final Analyzer analyzer = new StandardAnalyzer();
+        final RewriterShardContext shardContext = new RewriterShardContext(new ShardId("bench", "_na_", 0), null,
+                Settings.EMPTY, new RewriterRegistry(Settings.EMPTY)) {
+            @Override
+            public Analyzer getQueryAnalyzer(final long mappingVersion) {
+                return analyzer;
+            }
+        };
+        for (final String rewriterId : rewriterIds) {
+            final OpenSearchRewriterFactory factory = createRewriterFactory(rewriterId);
+            shardContext.factories.put(rewriterId,
+                    new RewriterFactoryAndLogging(factory.createRewriterFactory(null), false));
+        }
+
+        final RewriterShardContexts rewriterShardContexts = new RewriterShardContexts(Settings.EMPTY) {
+            @Override
+            public RewriterShardContext getShardContext(final QueryShardContext context) {
+                return shardContext;
+            }
+        };
+        querqyProcessor = new QuerqyProcessor(rewriterShardContexts, null);
+
+        final IndexMetadata indexMetadata = IndexMetadata.builder("bench")
+                .settings(Settings.builder().put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT))
+                .numberOfShards(1)
+                .numberOfReplicas(0)
+                .build();
+        final IndexSettings indexSettings = new IndexSettings(indexMetadata, Settings.EMPTY);
+        final IndexSearcher searcher = new IndexSearcher(indexReader);
+
+        // A stub doesn't record invocations, which would distort the allocation rate
+        queryShardContext = mock(QueryShardContext.class, withSettings().stubOnly());
+        when(queryShardContext.getIndexSettings()).thenReturn(indexSettings);
+        when(queryShardContext.searcher()).thenReturn(searcher);
+        when(queryShardContext.getIndexReader()).thenReturn(indexReader);
+        when(queryShardContext.isCacheable()).thenReturn(true);
+
+        queryBuilder = createQueryBuilder(rewriterIds);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        indexReader.close();
+        directory.close();
+    }
+
+    @Benchmark
+    public Query parseQuery() throws LuceneSearchEngineRequestAdapter.SyntaxException {
+        return querqyProcessor.parseQuery(queryBuilder, queryShardContext);
+    }
+
+    private QuerqyQueryBuilder createQueryBuilder(final List<String> rewriterIds) {
+
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder(querqyProcessor);
+
+        final StringBuilder query = new StringBuilder();
+        for (int i = 0; i < numQueryTerms - 1; i++) {
+            // Every other term matches a common rule
+            query.append(i % 2 == 0 ? "w" + ((i * 7919) % numRules) : "x" + i).append(' ');
+        }
+        query.append("laptopbag");
+        builder.setMatchingQuery(new MatchingQuery(query.toString()));
+
+        final List<String> queryFields = new ArrayList<>(numQueryFields);
+        for (int i = 0; i < numQueryFields; i++) {
+            queryFields.add("f" + i + "^" + (numQueryFields - i));
+        }
+        builder.setQueryFieldsAndBoostings(queryFields);
+
+        if (phraseBoosts) {
+            final PhraseBoosts boosts = new PhraseBoosts();
+            boosts.setFull(new PhraseBoostDefinition(0, queryFields.subList(0, 1)));
+            boosts.setBigram(new PhraseBoostDefinition(1, queryFields.subList(0, Math.min(2, numQueryFields))));
+            final BoostingQueries boostingQueries = new BoostingQueries();
+            boostingQueries.setPhraseBoosts(boosts);
+            builder.setBoostingQueries(boostingQueries);
+        }
+
+        final List<Rewriter> rewriterList = new ArrayList<>(rewriterIds.size());
+        for (final String rewriterId : rewriterIds) {
+            rewriterList.add(new Rewriter(rewriterId));
+        }
+        builder.setRewriters(rewriterList);
+
+        return builder;
+    }
+
+    private OpenSearchRewriterFactory createRewriterFactory(final String rewriterId) {
+
+        final OpenSearchRewriterFactory factory;
+        final Map<String, Object> config = new HashMap<>();
+
+        switch (rewriterId) {
+            case COMMON_RULES:
+                factory = new SimpleCommonRulesRewriterFactory(rewriterId);
+                config.put("rules", commonRules(numRules));
+                break;
+            case REPLACE:
+                factory = new ReplaceRewriterFactory(rewriterId);
+                config.put("rules", replaceRules(NUM_REPLACE_RULES));
+                break;
+            case WORD_BREAK:
+                factory = new WordBreakCompoundRewriterFactory(rewriterId);
+                config.put("dictionaryField", DICTIONARY_FIELD);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown rewriter: " + rewriterId);
+        }
+
+        factory.configure(config);
+        return factory;
+    }
+
+    static String commonRules(final int numRules) {
+        final StringBuilder rules = new StringBuilder(numRules * 48);
+        for (int i = 0; i < numRules; i++) {
+            rules.append('w').append(i).append(" =>\n")
+                    .append("SYNONYM: s").append(i).append('\n')
+                    .append("UP(10): b").append(i).append('\n');
+        }
+        return rules.toString();
+    }
+
+    static String replaceRules(final int numRules) {
+        final StringBuilder rules = new StringBuilder(numRules * 16);
+        for (int i = 0; i < numRules; i++) {
+            rules.append('x').append(i).append(" => y").append(i).append('\n');
+        }
+        return rules.toString();
+    }
+
+    private static void indexDictionary(final Directory directory) throws IOException {
+        try (final IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (final String text : Arrays.asList("laptop bag", "laptop sleeve", "shoulder bag", "laptop stand")) {
+                final Document doc = new Document();
+                doc.add(new TextField(DICTIONARY_FIELD, text, Field.Store.NO));
+                writer.addDocument(doc);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.query;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import querqy.opensearch.QuerqyProcessor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compact transport format of {@link QuerqyQueryBuilder} with the original format that is used while
+ * not all nodes support the compact format. The serialized size is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuerqyQueryBuilderSerializationBenchmark {
+
+    @Param({"compact", "legacy"})
+    public String format;
+
+    @Param({"5", "50"})
+    public int numQueryFields;
+
+    @Param({"1", "10"})
+    public int numRewriters;
+
+    private QuerqyQueryBuilder queryBuilder;
+    private boolean compact;
+    private BytesReference bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        compact = "compact".equals(format);
+
+        final QuerqyProcessor querqyProcessor = new QuerqyProcessor(null, null);
+        querqyProcessor.setCompactWireFormatSupported(compact);
+
+        queryBuilder = new QuerqyQueryBuilder(querqyProcessor);
+        queryBuilder.setMatchingQuery(new MatchingQuery("apple iphone 15 pro max case"));
+
+        final List<String> queryFields = new ArrayList<>(numQueryFields);
+        for (int i = 0; i < numQueryFields; i++) {
+            queryFields.add(i % 2 == 0 ? "field_" + i : "field_" + i + "^" + (1f + i / 10f));
+        }
+        queryBuilder.setQueryFieldsAndBoostings(queryFields);
+
+        final List<Rewriter> rewriters = new ArrayList<>(numRewriters);
+        for (int i = 0; i < numRewriters; i++) {
+            final Map<String, Object> criteria = new HashMap<>();
+            criteria.put("sort", "prio desc");
+            criteria.put("limit", 1);
+            criteria.put("filter", Arrays.asList("$[?(@.lang == 'en')]", "$[?(@.enabled == true)]"));
+            final Map<String, Object> params = new HashMap<>();
+            params.put("criteria", criteria);
+            rewriters.add(new Rewriter("common_rules_" + i, params));
+        }
+        queryBuilder.setRewriters(rewriters);
+
+        bytes = serialize();
+        System.out.printf("%n%s format, %d query fields, %d rewriters: %d bytes%n", format, numQueryFields,
+                numRewriters, bytes.length());
+    }
+
+    @Benchmark
+    public BytesReference serialize() throws IOException {
+        try (final BytesStreamOutput out = new BytesStreamOutput()) {
+            queryBuilder.writeTo(out);
+            return out.bytes();
+        }
+    }
+
+    @Benchmark
+    public QuerqyQueryBuilder deserialize() throws IOException {
+        try (final StreamInput in = bytes.streamInput()) {
+            return new QuerqyQueryBuilder(in, null, compact);
+        }
+    }
+}
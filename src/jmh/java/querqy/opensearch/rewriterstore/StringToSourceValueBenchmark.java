@@ -0,0 +1,104 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.apache.lucene.util.BytesRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures splitting a large rewriter config into keyword chunks by
+ * {@link RewriterConfigMapping#stringToSourceValue(String, int)}. The implementation that it replaced re-encoded the
+ * remaining config for every chunk. It can be run by -p implementation=legacy, but it is only practical for the
+ * smallest config size.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@State(Scope.Benchmark)
+public class StringToSourceValueBenchmark {
+
+    // See constraints in org.elasticsearch.index.mapper.KeywordFieldMapper.indexValue()
+    private static final int MAX_UTF_BYTE_LENGTH = 32766;
+
+    private static final String RULE = "kühlschrank a++ =>\n  SYNONYM: kühl-gefrier-kombination\n"
+            + "  UP(100): * brand:\"Größe & Co\"\n  DECORATE: {\"banner\": \"Kühlschränke – Angebote\"}\n";
+
+    @Param({"10", "100", "500"})
+    public int sizeInMb;
+
+    @Param({"linear"})
+    public String implementation;
+
+    private String config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final int length = sizeInMb * 1024 * 1024;
+        final StringBuilder sb = new StringBuilder(length + RULE.length());
+        while (sb.length() < length) {
+            sb.append(RULE);
+        }
+        config = sb.toString();
+    }
+
+    @Benchmark
+    public Object split() {
+        return "legacy".equals(implementation)
+                ? legacyStringToSourceValue(config, MAX_UTF_BYTE_LENGTH)
+                : RewriterConfigMapping.stringToSourceValue(config, MAX_UTF_BYTE_LENGTH);
+    }
+
+    private static Object legacyStringToSourceValue(final String string, final int maxUTFByteLength) {
+        final BytesRef binaryValue = new BytesRef(string);
+        if (binaryValue.length <= maxUTFByteLength) {
+            return string;
+        }
+        final List<String> splits = new ArrayList<>();
+        String s = string;
+        while (new BytesRef(s).length > maxUTFByteLength) {
+            String split = s;
+            do {
+                int length = Math.max(1, Math.min((int) Math.floor(split.length() * 0.95), maxUTFByteLength));
+                split = split.substring(0, length);
+            } while (new BytesRef(split).length > maxUTFByteLength);
+            splits.add(split);
+            s = s.substring(split.length());
+        }
+        if (s.length() > 0) {
+            splits.add(s);
+        }
+        return splits.toArray(new String[0]);
+    }
+}
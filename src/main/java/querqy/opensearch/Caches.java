@@ -20,11 +20,26 @@ package querqy.opensearch;
 
 import org.opensearch.common.cache.Cache;
 import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.cache.RemovalListener;
 import org.opensearch.common.unit.TimeValue;
 
+import java.util.function.ToLongBiFunction;
+
 public class Caches {
 
     public static <K, V> Cache<K, V> buildCache(final TimeValue expireAfterWrite, final TimeValue expireAfterAccess) {
+        return buildCache(expireAfterWrite, expireAfterAccess, 0L, null, null);
+    }
+
+    /**
+     * @param maxWeight The maximum total weight of the entries, or 0 for no limit. The least recently used entries are
+     *                  evicted if the limit is exceeded.
+     * @param weigher The weight of an entry, or null if all entries weigh 1
+     * @param removalListener Is notified when entries are evicted, replaced, invalidated or expire, or null
+     */
+    public static <K, V> Cache<K, V> buildCache(final TimeValue expireAfterWrite, final TimeValue expireAfterAccess,
+                                                final long maxWeight, final ToLongBiFunction<K, V> weigher,
+                                                final RemovalListener<K, V> removalListener) {
 
         final CacheBuilder<K, V> builder = CacheBuilder.builder();
         if (expireAfterWrite.nanos() > 0) {
@@ -33,6 +48,15 @@ public class Caches {
         if (expireAfterAccess.nanos() > 0) {
             builder.setExpireAfterAccess(expireAfterAccess);
         }
+        if (maxWeight > 0) {
+            builder.setMaximumWeight(maxWeight);
+        }
+        if (weigher != null) {
+            builder.weigher(weigher);
+        }
+        if (removalListener != null) {
+            builder.removalListener(removalListener);
+        }
         return builder.build();
     }
 
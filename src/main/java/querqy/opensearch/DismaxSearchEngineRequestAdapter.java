@@ -48,6 +48,7 @@ import querqy.lucene.PhraseBoosting.PhraseBoostFieldParams;
 import querqy.lucene.QuerySimilarityScoring;
 import querqy.lucene.rewrite.SearchFieldsAndBoosting;
 import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.model.ExpandedQuery;
 import querqy.model.QuerqyQuery;
 import querqy.model.RawQuery;
 import querqy.model.StringRawQuery;
@@ -60,12 +61,17 @@ import querqy.rewrite.RewriterFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 
@@ -74,18 +80,41 @@ import java.util.stream.Collectors;
  */
 public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineRequestAdapter, InfoLoggingSpecProvider {
 
+    private static final String[] EMPTY_STRING_ARRAY = new String[0];
+
     private final RewriteChain rewriteChain;
     private final QueryShardContext shardContext;
     final OpenSearchInfoLoggingContext infoLoggingContext;
     private final QuerqyQueryBuilder queryBuilder;
     private final Map<String, Object> context = new HashMap<>();
     private final RewriteLoggingConfig rewriteLoggingConfig;
+    private final TermQueryCache termQueryCache;
+    private Analyzer queryAnalyzer;
+    private Map<String, RequestParam> requestParams = null;
+    private List<Rewriter> requestParamsSource = null;
+    private QueryPhaseStats.Timer phaseTimer = null;
+    private ExpandedQuery rewrittenQuery = null;
 
     public DismaxSearchEngineRequestAdapter(final QuerqyQueryBuilder queryBuilder,
                                             final RewriteChain rewriteChain,
                                             final QueryShardContext shardContext,
                                             final InfoLogging infoLogging) {
+        this(queryBuilder, rewriteChain, shardContext, infoLogging, null, null);
+    }
+
+    /**
+     * @param termQueryCache The term query cache of the shard or null
+     * @param queryAnalyzer The query analyzer of the shard or null if an analyzer should be created for this request
+     */
+    public DismaxSearchEngineRequestAdapter(final QuerqyQueryBuilder queryBuilder,
+                                            final RewriteChain rewriteChain,
+                                            final QueryShardContext shardContext,
+                                            final InfoLogging infoLogging,
+                                            final TermQueryCache termQueryCache,
+                                            final Analyzer queryAnalyzer) {
         this.shardContext = shardContext;
+        this.termQueryCache = termQueryCache;
+        this.queryAnalyzer = queryAnalyzer;
         this.rewriteChain = rewriteChain;
         this.queryBuilder = queryBuilder;
         infoLoggingContext = (infoLogging != null) ? new OpenSearchInfoLoggingContext(infoLogging, this) : null;
@@ -139,9 +168,11 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Analyzer getQueryAnalyzer() {
-        return new MapperAnalyzerWrapper(mappedFieldType -> mappedFieldType.getTextSearchInfo().getSearchAnalyzer());
-
-
+        if (queryAnalyzer == null) {
+            queryAnalyzer = new MapperAnalyzerWrapper(shardContext::fieldMapper,
+                    () -> shardContext.getIndexAnalyzers().getDefaultSearchAnalyzer());
+        }
+        return queryAnalyzer;
     }
 
     /**
@@ -151,8 +182,7 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<TermQueryCache> getTermQueryCache() {
-        // TODO
-        return Optional.empty();
+        return Optional.ofNullable(termQueryCache);
     }
 
     /**
@@ -314,8 +344,12 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
                     return boosts;
                 }
 
+                final long start = phaseTimer == null ? 0L : System.nanoTime();
                 makePhraseFieldsBoostQuery(userQuery, phraseBoostFieldParams, phraseBoosts.getTieBreaker(),
                         getQueryAnalyzer()).ifPresent(boosts::add);
+                if (phaseTimer != null) {
+                    phaseTimer.add(QueryPhaseStats.Phase.PHRASE_BOOSTS, System.nanoTime() - start);
+                }
                 return boosts;
 
             }
@@ -353,6 +387,20 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
     @Override
     public Query rawQueryToQuery(final RawQuery rawQuery) throws SyntaxException {
 
+        if (phaseTimer == null) {
+            return parseRawQuery(rawQuery);
+        }
+
+        final long start = System.nanoTime();
+        try {
+            return parseRawQuery(rawQuery);
+        } finally {
+            phaseTimer.add(QueryPhaseStats.Phase.RAW_QUERY_PARSING, System.nanoTime() - start);
+        }
+    }
+
+    private Query parseRawQuery(final RawQuery rawQuery) throws SyntaxException {
+
         try {
             if (rawQuery instanceof QueryBuilderRawQuery) {
                 return ((QueryBuilderRawQuery) rawQuery).getQueryBuilder().toQuery(shardContext);
@@ -378,6 +426,31 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
         return queryBuilder.getFieldBoostModel();
     }
 
+    /**
+     * @param phaseTimer Times the phases of building the query, or null if the phases are not timed
+     */
+    void setPhaseTimer(final QueryPhaseStats.Timer phaseTimer) {
+        this.phaseTimer = phaseTimer;
+    }
+
+    QueryPhaseStats.Timer getPhaseTimer() {
+        return phaseTimer;
+    }
+
+    /**
+     * @param rewrittenQuery The query as it was rewritten by the rewrite chain, see {@link RewrittenQueryCapture}
+     */
+    void setRewrittenQuery(final ExpandedQuery rewrittenQuery) {
+        this.rewrittenQuery = rewrittenQuery;
+    }
+
+    /**
+     * @return The query as it was rewritten by the rewrite chain, or null if it wasn't captured
+     */
+    ExpandedQuery getRewrittenQuery() {
+        return rewrittenQuery;
+    }
+
     /**
      * <p>Get the rewrite chain to be applied to the user query.</p>
      *
@@ -406,47 +479,14 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<String> getRequestParam(final String name) {
-        return getParam(name);
-    }
-
-    <T> Optional<T> getParam(final String name) {
-
-        final String[] parts = name.split("\\.");
-        if (parts.length < 3 || !"querqy".equals(parts[0])) {
-            return Optional.empty();
-        }
-
-        final String rewriterId = parts[1];
-        for (final Rewriter rewriter : queryBuilder.getRewriters()) {
-            if (rewriterId.equals(rewriter.getName())) {
-                return getRewriterParam(rewriter, Arrays.copyOfRange(parts, 2, parts.length));
-            }
-        }
-
-        return Optional.empty();
-
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : param.asString();
     }
 
     @SuppressWarnings("unchecked")
-    <T> Optional<T> getRewriterParam(final Rewriter rewriter, final String[] path) {
-
-        final Map<String, Object> params = rewriter.getParams();
-        if (params == null) {
-            return Optional.empty();
-        }
-
-        Map<String, Object> current = params;
-        final int len = path.length - 1;
-        for (int i = 0; i < len; i++) {
-            current = (Map<String, Object>) current.get(path[i]);
-            if (current == null) {
-                return Optional.empty();
-            }
-        }
-
-        return Optional.ofNullable((T) current.get(path[len]));
-
-
+    <T> Optional<T> getParam(final String name) {
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : Optional.of((T) param.value);
     }
 
     /**
@@ -456,43 +496,9 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      * @return the parameter value String array (String[0] if not set)
      */
     @Override
-    @SuppressWarnings("unchecked")
     public String[] getRequestParams(final String name) {
-        final String[] parts = name.split("\\.");
-        if (parts.length < 3 || !"querqy".equals(parts[0])) {
-            return new String[0];
-        }
-
-        final String rewriterId = parts[1];
-        for (final Rewriter rewriter : queryBuilder.getRewriters()) {
-            if (rewriterId.equals(rewriter.getName())) {
-                final Map<String, Object> params = rewriter.getParams();
-                if (params == null) {
-                    return new String[0];
-                }
-
-                Map<String, Object> current = params;
-                final int len = parts.length - 1;
-                for (int i = 2; i < len; i++) {
-                    current = ( Map<String, Object>) current.get(parts[i]);
-                    if (current == null) {
-                        return new String[0];
-                    }
-                }
-                final Object obj = current.get(parts[len]);
-                if (obj == null) {
-                    return new String[0];
-                }
-                if (obj instanceof String) {
-                    return new String[] {obj.toString()};
-                } else {
-                    return (String[]) obj;
-                }
-            }
-        }
-
-        return new String[0];
-
+        final RequestParam param = lookupParam(name);
+        return param == null ? EMPTY_STRING_ARRAY : param.asStrings();
     }
 
     /**
@@ -503,7 +509,8 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<Boolean> getBooleanRequestParam(final String name) {
-        return getParam(name);
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : param.asBoolean();
     }
 
     /**
@@ -514,7 +521,8 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<Integer> getIntegerRequestParam(final String name) {
-        return getParam(name);
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : param.asInteger();
     }
 
     /**
@@ -525,7 +533,8 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<Float> getFloatRequestParam(final String name) {
-        return getParam(name);
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : param.asFloat();
     }
 
     /**
@@ -536,7 +545,64 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
      */
     @Override
     public Optional<Double> getDoubleRequestParam(final String name) {
-        return getParam(name);
+        final RequestParam param = lookupParam(name);
+        return param == null ? Optional.empty() : param.asDouble();
+    }
+
+    /**
+     * Look up a rewriter parameter by its full name 'querqy.&lt;rewriter id&gt;.&lt;path&gt;', where the path
+     * navigates nested parameter maps. The parameters of all rewriters are indexed on first access. The index is
+     * rebuilt if the rewriters of the query builder are replaced.
+     *
+     * @param name The full parameter name
+     * @return The parameter or null if it isn't set
+     */
+    RequestParam lookupParam(final String name) {
+        final List<Rewriter> rewriters = queryBuilder.getRewriters();
+        if (requestParams == null || requestParamsSource != rewriters) {
+            requestParams = indexRequestParams(rewriters);
+            requestParamsSource = rewriters;
+        }
+        return requestParams.get(name);
+    }
+
+    static Map<String, RequestParam> indexRequestParams(final List<Rewriter> rewriters) {
+
+        if (rewriters == null || rewriters.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, RequestParam> index = new HashMap<>();
+        final Set<String> indexedRewriters = new HashSet<>();
+
+        for (final Rewriter rewriter : rewriters) {
+            final String rewriterId = rewriter.getName();
+            // Parameter names are split at dots, so parameters of rewriters with a dot in their ID can't be addressed.
+            // Only the first rewriter with a given ID is used.
+            if (rewriterId != null && rewriterId.indexOf('.') < 0 && rewriter.getParams() != null
+                    && indexedRewriters.add(rewriterId)) {
+                indexRequestParams("querqy." + rewriterId + ".", rewriter.getParams(), index);
+            }
+        }
+
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void indexRequestParams(final String prefix, final Map<String, Object> params,
+                                           final Map<String, RequestParam> index) {
+        for (final Map.Entry<String, Object> entry : params.entrySet()) {
+            final String key = entry.getKey();
+            final Object value = entry.getValue();
+            if (key == null || key.isEmpty() || key.indexOf('.') >= 0 || value == null) {
+                continue;
+            }
+            final String name = prefix + key;
+            index.put(name, new RequestParam(value));
+            if (value instanceof Map) {
+                indexRequestParams(name + ".", (Map<String, Object>) value, index);
+            }
+        }
     }
 
     /**
@@ -609,26 +675,156 @@ public class DismaxSearchEngineRequestAdapter implements LuceneSearchEngineReque
         return builder.build();
     }
 
-    class MapperAnalyzerWrapper extends DelegatingAnalyzerWrapper {
+    /**
+     * Delegates to the search analyzer of the field. Instances don't depend on the request and can be shared across
+     * requests as long as the mapping doesn't change.
+     */
+    static class MapperAnalyzerWrapper extends DelegatingAnalyzerWrapper {
 
-        private final Function<MappedFieldType, Analyzer> analyzerProvider;
+        private final Function<String, MappedFieldType> fieldTypeLookup;
+        private final Supplier<Analyzer> defaultAnalyzer;
 
-        MapperAnalyzerWrapper(final Function<MappedFieldType, Analyzer> analyzerProvider) {
+        MapperAnalyzerWrapper(final Function<String, MappedFieldType> fieldTypeLookup,
+                              final Supplier<Analyzer> defaultAnalyzer) {
             super(Analyzer.PER_FIELD_REUSE_STRATEGY);
-            this.analyzerProvider = analyzerProvider;
+            this.fieldTypeLookup = fieldTypeLookup;
+            this.defaultAnalyzer = defaultAnalyzer;
         }
 
         @Override
         protected Analyzer getWrappedAnalyzer(final String fieldName) {
-            final MappedFieldType fieldType = shardContext.fieldMapper(fieldName);
+            final MappedFieldType fieldType = fieldTypeLookup.apply(fieldName);
             if (fieldType != null) {
-                final Analyzer analyzer = analyzerProvider.apply(fieldType);
+                final Analyzer analyzer = fieldType.getTextSearchInfo().getSearchAnalyzer();
                 if (analyzer != null) {
                     return analyzer;
                 }
             }
-            return shardContext.getIndexAnalyzers().getDefaultSearchAnalyzer();
+            return defaultAnalyzer.get();
+        }
+    }
+
+    /**
+     * A rewriter parameter. Conversions to the types that rewriters ask for are computed once. Values that can't be
+     * converted to the requested type are treated as if the parameter wasn't set.
+     */
+    static class RequestParam {
+
+        final Object value;
+
+        private Optional<String> stringValue;
+        private String[] stringValues;
+        private Optional<Boolean> booleanValue;
+        private Optional<Integer> integerValue;
+        private Optional<Float> floatValue;
+        private Optional<Double> doubleValue;
+
+        RequestParam(final Object value) {
+            this.value = value;
+        }
+
+        Optional<String> asString() {
+            if (stringValue == null) {
+                stringValue = (value instanceof String || value instanceof Number || value instanceof Boolean)
+                        ? Optional.of(value.toString()) : Optional.empty();
+            }
+            return stringValue;
+        }
+
+        String[] asStrings() {
+            if (stringValues == null) {
+                if (value instanceof String[]) {
+                    stringValues = (String[]) value;
+                } else if (value instanceof Collection) {
+                    stringValues = ((Collection<?>) value).stream()
+                            .filter(Objects::nonNull)
+                            .map(Object::toString)
+                            .toArray(String[]::new);
+                } else if (value instanceof Object[]) {
+                    stringValues = Arrays.stream((Object[]) value)
+                            .filter(Objects::nonNull)
+                            .map(Object::toString)
+                            .toArray(String[]::new);
+                } else {
+                    stringValues = asString().map(str -> new String[] {str}).orElse(EMPTY_STRING_ARRAY);
+                }
+            }
+            return stringValues;
+        }
+
+        Optional<Boolean> asBoolean() {
+            if (booleanValue == null) {
+                if (value instanceof Boolean) {
+                    booleanValue = Optional.of((Boolean) value);
+                } else if ("true".equalsIgnoreCase(String.valueOf(value))) {
+                    booleanValue = Optional.of(Boolean.TRUE);
+                } else if ("false".equalsIgnoreCase(String.valueOf(value))) {
+                    booleanValue = Optional.of(Boolean.FALSE);
+                } else {
+                    booleanValue = Optional.empty();
+                }
+            }
+            return booleanValue;
+        }
+
+        Optional<Integer> asInteger() {
+            if (integerValue == null) {
+                if (value instanceof Integer) {
+                    integerValue = Optional.of((Integer) value);
+                } else if (value instanceof Number) {
+                    final Number number = (Number) value;
+                    integerValue = number.doubleValue() == number.intValue()
+                            ? Optional.of(number.intValue()) : Optional.empty();
+                } else if (value instanceof String) {
+                    try {
+                        integerValue = Optional.of(Integer.parseInt(((String) value).trim()));
+                    } catch (final NumberFormatException e) {
+                        integerValue = Optional.empty();
+                    }
+                } else {
+                    integerValue = Optional.empty();
+                }
+            }
+            return integerValue;
+        }
+
+        Optional<Float> asFloat() {
+            if (floatValue == null) {
+                if (value instanceof Float) {
+                    floatValue = Optional.of((Float) value);
+                } else if (value instanceof Number) {
+                    floatValue = Optional.of(((Number) value).floatValue());
+                } else if (value instanceof String) {
+                    try {
+                        floatValue = Optional.of(Float.parseFloat(((String) value).trim()));
+                    } catch (final NumberFormatException e) {
+                        floatValue = Optional.empty();
+                    }
+                } else {
+                    floatValue = Optional.empty();
+                }
+            }
+            return floatValue;
+        }
+
+        Optional<Double> asDouble() {
+            if (doubleValue == null) {
+                if (value instanceof Double) {
+                    doubleValue = Optional.of((Double) value);
+                } else if (value instanceof Number) {
+                    doubleValue = Optional.of(((Number) value).doubleValue());
+                } else if (value instanceof String) {
+                    try {
+                        doubleValue = Optional.of(Double.parseDouble(((String) value).trim()));
+                    } catch (final NumberFormatException e) {
+                        doubleValue = Optional.empty();
+                    }
+                } else {
+                    doubleValue = Optional.empty();
+                }
+            }
+            return doubleValue;
         }
     }
 
-}
\ No newline at end of file
+}
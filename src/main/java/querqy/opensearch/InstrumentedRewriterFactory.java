@@ -0,0 +1,108 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import querqy.model.ExpandedQuery;
+import querqy.model.Term;
+import querqy.rewrite.QueryRewriter;
+import querqy.rewrite.RewriterFactory;
+import querqy.rewrite.RewriterOutput;
+import querqy.rewrite.SearchEngineRequestAdapter;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Records the time of sampled rewrites of a rewriter and whether they changed the query in the {@link RewriterStats},
+ * and adds the time to the rewrite chain phase of the queries whose phases are timed. Rewrites that are neither
+ * sampled nor timed are passed to the rewriter directly. Rewriters are only wrapped if rewrite or phase statistics are
+ * enabled.
+ */
+class InstrumentedRewriterFactory extends RewriterFactory {
+
+    private final RewriterFactory delegate;
+    private final RewriterStats.Counters counters;
+    private final BooleanSupplier rewriteSampler;
+
+    /**
+     * @param rewriteSampler Tells whether the current rewrite should be recorded in the counters
+     */
+    InstrumentedRewriterFactory(final RewriterFactory delegate, final RewriterStats.Counters counters,
+                                final BooleanSupplier rewriteSampler) {
+        super(delegate.getRewriterId());
+        this.delegate = delegate;
+        this.counters = counters;
+        this.rewriteSampler = rewriteSampler;
+    }
+
+    @Override
+    public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+        final QueryRewriter rewriter = delegate.createRewriter(searchEngineRequestAdapter);
+        return (query, requestAdapter) -> {
+            final QueryPhaseStats.Timer phaseTimer = requestAdapter instanceof DismaxSearchEngineRequestAdapter
+                    ? ((DismaxSearchEngineRequestAdapter) requestAdapter).getPhaseTimer()
+                    : null;
+            final boolean sampled = rewriteSampler.getAsBoolean();
+            if (!sampled && phaseTimer == null) {
+                return rewriter.rewrite(query, requestAdapter);
+            }
+
+            final long fingerprint = sampled ? fingerprint(query) : 0L;
+            final long start = System.nanoTime();
+            final RewriterOutput output = rewriter.rewrite(query, requestAdapter);
+            final long nanos = System.nanoTime() - start;
+            if (sampled) {
+                counters.recordRewrite(nanos, output.getExpandedQuery() != query
+                        || fingerprint(output.getExpandedQuery()) != fingerprint);
+            }
+            if (phaseTimer != null) {
+                phaseTimer.add(QueryPhaseStats.Phase.REWRITE_CHAIN, nanos);
+            }
+            return output;
+        };
+    }
+
+    @Override
+    public Set<Term> getGenerableTerms() {
+        return delegate.getGenerableTerms();
+    }
+
+    RewriterFactory getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Most rewriters change the query in place. We detect changes by the hash code of the user query and by the
+     * number of the boost and filter queries, which is cheap compared to the rewriting itself but can miss changes
+     * that don't affect these.
+     */
+    static long fingerprint(final ExpandedQuery query) {
+        long fingerprint = Objects.hashCode(query.getUserQuery());
+        fingerprint = 31 * fingerprint + size(query.getBoostUpQueries());
+        fingerprint = 31 * fingerprint + size(query.getBoostDownQueries());
+        fingerprint = 31 * fingerprint + size(query.getFilterQueries());
+        return fingerprint;
+    }
+
+    private static int size(final Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A lock-free histogram of durations in nanoseconds.</p>
+ *
+ * <p>Values are counted in buckets that grow exponentially, with four buckets per power of two. Percentiles are
+ * reported as the middle of the bucket that contains them, which is within 12.5% of the recorded value.</p>
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKETS = 4;
+    private static final int SUB_BUCKET_BITS = 2;
+
+    /**
+     * Values 0 to 3 get a bucket each, then four buckets for each power of two up to 2^62
+     */
+    static final int NUM_BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentiles The percentiles to compute, each between 0 and 100, in ascending order
+     * @return The estimated values at the percentiles. All values are 0 if nothing was recorded.
+     */
+    public long[] getPercentiles(final double... percentiles) {
+
+        final long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        final long[] values = new long[percentiles.length];
+        if (total == 0L) {
+            return values;
+        }
+
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int i = 0; i < percentiles.length; i++) {
+            final long rank = Math.max(1L, (long) Math.ceil(percentiles[i] / 100.0 * total));
+            while (seen < rank && bucket < NUM_BUCKETS - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[i] = Math.min(midpoint(bucket), getMax());
+        }
+        return values;
+    }
+
+    static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        final int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long midpoint(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final long lower = lowerBound(bucket);
+        final long upper = bucket == NUM_BUCKETS - 1 ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+        return lower + (upper - lower) / 2;
+    }
+}
@@ -91,10 +91,38 @@ public abstract class OpenSearchRewriterFactory {
 
     public abstract RewriterFactory createRewriterFactory(IndexShard indexShard) throws OpenSearchException;
 
+    /**
+     * <p>Does {@link #createRewriterFactory(IndexShard)} return a {@link RewriterFactory} that doesn't depend on the
+     * shard it was created for?</p>
+     *
+     * <p>If so, the RewriterFactory is created only once per node, passing a null shard, and it is shared by all
+     * shards on that node. This is what we want for rewriters that hold large data structures, like rules. Rewriters
+     * that access the shard, for example to read terms from the index, must return false, which is the default.</p>
+     *
+     * @return true iff the RewriterFactory can be shared across shards
+     */
+    public boolean isShardIndependent() {
+        return false;
+    }
+
     public String getRewriterId() {
         return rewriterId;
     }
 
+    /**
+     * <p>Estimate the heap memory that is held by this factory once it has been configured, similar to Lucene's
+     * {@link org.apache.lucene.util.Accountable#ramBytesUsed()}.</p>
+     *
+     * <p>The estimate is charged to the circuit breaker of the plugin and weighs the rewriter in the rewriter cache.
+     * Factories that hold large data structures, like rules, should override this method.</p>
+     *
+     * @return The estimated size in bytes, or -1 if the size is unknown, in which case the size of the configuration
+     * is used
+     */
+    public long ramBytesUsed() {
+        return -1L;
+    }
+
     public static OpenSearchRewriterFactory loadConfiguredInstance(final LoadRewriterConfig instanceDescription) {
 
         final String classField = instanceDescription.getRewriterClassName();
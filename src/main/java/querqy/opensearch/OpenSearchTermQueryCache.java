@@ -0,0 +1,190 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import querqy.lucene.rewrite.cache.CacheKey;
+import querqy.lucene.rewrite.cache.TermQueryCache;
+import querqy.lucene.rewrite.cache.TermQueryCacheValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * <p>A size-bounded {@link TermQueryCache} for the terms of a shard.</p>
+ *
+ * <p>The cached values only depend on the analysis of the query fields. The cache is cleared if the mapping of the
+ * index changes but it survives refreshes of the index reader.</p>
+ *
+ * <p>The terms are cached when they are first used by a query. They aren't preloaded from the generable terms of the
+ * rewriters, because the cached values depend on the query fields and their analyzers, which are only known from the
+ * queries.</p>
+ */
+public class OpenSearchTermQueryCache implements TermQueryCache {
+
+    /**
+     * The maximum number of terms per shard in the cache. The cache is disabled if set to 0.
+     */
+    public static final Setting<Integer> TERM_QUERY_CACHE_MAX_SIZE = Setting.intSetting(
+            "index.querqy.term_query_cache.max_size",
+            0, // disabled by default
+            0,
+            Setting.Property.IndexScope);
+
+    private final Cache<CacheKey, TermQueryCacheValue> cache;
+    private volatile long mappingVersion;
+
+    public OpenSearchTermQueryCache(final int maxSize, final long mappingVersion) {
+        cache = CacheBuilder.<CacheKey, TermQueryCacheValue>builder().setMaximumWeight(maxSize).build();
+        this.mappingVersion = mappingVersion;
+    }
+
+    /**
+     * Clear the cache if the mapping has changed since the cached values were created.
+     *
+     * @param currentMappingVersion The current mapping version of the index
+     * @return This cache
+     */
+    public OpenSearchTermQueryCache forMappingVersion(final long currentMappingVersion) {
+        if (currentMappingVersion != mappingVersion) {
+            synchronized (this) {
+                if (currentMappingVersion != mappingVersion) {
+                    cache.invalidateAll();
+                    mappingVersion = currentMappingVersion;
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void put(final CacheKey cacheKey, final TermQueryCacheValue value) {
+        cache.put(cacheKey, value);
+    }
+
+    @Override
+    public TermQueryCacheValue get(final CacheKey cacheKey) {
+        return cache.get(cacheKey);
+    }
+
+    public int count() {
+        return cache.count();
+    }
+
+    public Stats getStats() {
+        final Cache.CacheStats stats = cache.stats();
+        return new Stats(cache.count(), stats.getHits(), stats.getMisses(), stats.getEvictions());
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * The statistics of one or, if added up, of several term query caches
+     */
+    public static class Stats implements Writeable, ToXContentObject {
+
+        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L);
+
+        private final long size;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        public Stats(final long size, final long hits, final long misses, final long evictions) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public Stats(final StreamInput in) throws IOException {
+            size = in.readVLong();
+            hits = in.readVLong();
+            misses = in.readVLong();
+            evictions = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            out.writeVLong(size);
+            out.writeVLong(hits);
+            out.writeVLong(misses);
+            out.writeVLong(evictions);
+        }
+
+        public Stats add(final Stats other) {
+            return new Stats(size + other.size, hits + other.hits, misses + other.misses,
+                    evictions + other.evictions);
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            builder.startObject();
+            builder.field("size", size);
+            builder.field("hit_count", hits);
+            builder.field("miss_count", misses);
+            builder.field("evictions", evictions);
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Stats that = (Stats) o;
+            return size == that.size && hits == that.hits && misses == that.misses && evictions == that.evictions;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, hits, misses, evictions);
+        }
+    }
+
+}
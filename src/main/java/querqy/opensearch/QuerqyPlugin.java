@@ -20,13 +20,17 @@ package querqy.opensearch;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS;
 import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_NUM_REPLICAS;
 
 import org.opensearch.action.ActionRequest;
 import org.opensearch.core.action.ActionResponse;
+import org.opensearch.cluster.metadata.IndexMetadata;
 import org.opensearch.cluster.metadata.IndexNameExpressionResolver;
 import org.opensearch.cluster.node.DiscoveryNodes;
 import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.core.common.breaker.CircuitBreaker;
 import org.opensearch.core.common.io.stream.NamedWriteableRegistry;
 import org.opensearch.common.settings.ClusterSettings;
 import org.opensearch.common.settings.IndexScopedSettings;
@@ -38,31 +42,47 @@ import org.opensearch.env.Environment;
 import org.opensearch.env.NodeEnvironment;
 import org.opensearch.index.IndexModule;
 import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.indices.breaker.BreakerSettings;
 import org.opensearch.plugins.ActionPlugin;
+import org.opensearch.plugins.CircuitBreakerPlugin;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.plugins.SearchPlugin;
 import org.opensearch.repositories.RepositoriesService;
 import org.opensearch.rest.RestController;
 import org.opensearch.rest.RestHandler;
 import org.opensearch.script.ScriptService;
+import org.opensearch.threadpool.ExecutorBuilder;
 import org.opensearch.threadpool.ThreadPool;
 import org.opensearch.transport.client.Client;
 import org.opensearch.watcher.ResourceWatcherService;
 import querqy.opensearch.infologging.Log4jSink;
 import querqy.opensearch.query.QuerqyQueryBuilder;
+import querqy.opensearch.query.QueryWireFormat;
+import querqy.opensearch.rewriterstore.BulkPutRewriterAction;
 import querqy.opensearch.rewriterstore.DeleteRewriterAction;
 import querqy.opensearch.rewriterstore.GetRewriterAction;
 import querqy.opensearch.rewriterstore.NodesClearRewriterCacheAction;
 import querqy.opensearch.rewriterstore.NodesReloadRewriterAction;
+import querqy.opensearch.rewriterstore.NodesRewriterStatsAction;
+import querqy.opensearch.rewriterstore.NodesRewriterWarmupStatusAction;
+import querqy.opensearch.rewriterstore.RestBulkPutRewriterAction;
 import querqy.opensearch.rewriterstore.RestDeleteRewriterAction;
 import querqy.opensearch.rewriterstore.RestGetRewriterAction;
 import querqy.opensearch.rewriterstore.RestPutRewriterAction;
+import querqy.opensearch.rewriterstore.RestRewriterStatsAction;
+import querqy.opensearch.rewriterstore.RestRewriterWarmupStatusAction;
+import querqy.opensearch.rewriterstore.RestUpdateRewriterRulesAction;
 import querqy.opensearch.rewriterstore.PutRewriterAction;
+import querqy.opensearch.rewriterstore.TransportBulkPutRewriterAction;
 import querqy.opensearch.rewriterstore.TransportDeleteRewriterAction;
 import querqy.opensearch.rewriterstore.TransportGetRewriterAction;
 import querqy.opensearch.rewriterstore.TransportNodesClearRewriterCacheAction;
 import querqy.opensearch.rewriterstore.TransportNodesReloadRewriterAction;
+import querqy.opensearch.rewriterstore.TransportNodesRewriterStatsAction;
+import querqy.opensearch.rewriterstore.TransportNodesRewriterWarmupStatusAction;
 import querqy.opensearch.rewriterstore.TransportPutRewriterAction;
+import querqy.opensearch.rewriterstore.TransportUpdateRewriterRulesAction;
+import querqy.opensearch.rewriterstore.UpdateRewriterRulesAction;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -70,15 +90,35 @@ import java.util.Collections;
 import java.util.List;
 import java.util.function.Supplier;
 
-public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
+public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin, CircuitBreakerPlugin {
 
 
+    /**
+     * Validated like the auto_expand_replicas setting of the rewriter index that it is copied to
+     */
+    public static final Setting<String> QUERQY_INDEX_AUTO_EXPAND_REPLICAS = Setting.simpleString(
+            SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS,
+            value -> {
+                if (!value.trim().isEmpty()) {
+                    IndexMetadata.INDEX_AUTO_EXPAND_REPLICAS_SETTING.get(Settings.builder()
+                            .put(IndexMetadata.INDEX_AUTO_EXPAND_REPLICAS_SETTING.getKey(), value.trim()).build());
+                }
+            },
+            Setting.Property.NodeScope);
+
     private final QuerqyProcessor querqyProcessor;
     private final RewriterShardContexts rewriterShardContexts;
 
+    /**
+     * Null unless enabled by {@link RewriterConfigMirror#MIRROR_ENABLED}
+     */
+    private final RewriterConfigMirror rewriterConfigMirror;
+
     public QuerqyPlugin(final Settings settings) {
         rewriterShardContexts = new RewriterShardContexts(settings);
-        querqyProcessor = new QuerqyProcessor(rewriterShardContexts, new Log4jSink());
+        rewriterConfigMirror = RewriterConfigMirror.MIRROR_ENABLED.get(settings) ? new RewriterConfigMirror() : null;
+        rewriterShardContexts.getRewriterRegistry().setConfigMirror(rewriterConfigMirror);
+        querqyProcessor = new QuerqyProcessor(rewriterShardContexts, new Log4jSink(), settings);
     }
 
     @Override
@@ -86,6 +126,19 @@ public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
 
         indexModule.addIndexEventListener(rewriterShardContexts);
 
+        if (rewriterConfigMirror != null && QUERQY_INDEX_NAME.equals(indexModule.getIndex().getName())) {
+            indexModule.addIndexOperationListener(rewriterConfigMirror);
+            indexModule.addIndexEventListener(rewriterConfigMirror);
+        }
+
+    }
+
+    /**
+     * Announces the query wire formats that this node can read, see {@link QueryWireFormat}.
+     */
+    @Override
+    public Settings additionalSettings() {
+        return QueryWireFormat.nodeAttributeSettings();
     }
 
     /**
@@ -100,6 +153,16 @@ public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
                         (parser) -> QuerqyQueryBuilder.fromXContent(parser, querqyProcessor)));
     }
 
+    /**
+     * Reads queries that were sent in the compact wire format. Queries in the original format are read by the
+     * {@link QuerySpec}.
+     */
+    @Override
+    public List<NamedWriteableRegistry.Entry> getNamedWriteables() {
+        return Collections.singletonList(new NamedWriteableRegistry.Entry(QueryBuilder.class,
+                QuerqyQueryBuilder.COMPACT_WRITEABLE_NAME, in -> new QuerqyQueryBuilder(in, querqyProcessor, true)));
+    }
+
     @Override
     public List<RestHandler> getRestHandlers(final Settings settings, final RestController restController,
                                              final ClusterSettings clusterSettings,
@@ -109,7 +172,8 @@ public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
                                              final Supplier<DiscoveryNodes> nodesInCluster) {
 
         return Arrays.asList(new RestPutRewriterAction(), new RestDeleteRewriterAction(),
-                new RestGetRewriterAction());
+                new RestGetRewriterAction(), new RestRewriterWarmupStatusAction(), new RestRewriterStatsAction(),
+                new RestUpdateRewriterRulesAction(), new RestBulkPutRewriterAction());
 
     }
 
@@ -121,7 +185,12 @@ public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
                 new ActionHandler<>(DeleteRewriterAction.INSTANCE, TransportDeleteRewriterAction.class),
                 new ActionHandler<>(GetRewriterAction.INSTANCE, TransportGetRewriterAction.class),
                 new ActionHandler<>(NodesClearRewriterCacheAction.INSTANCE, TransportNodesClearRewriterCacheAction
-                        .class)
+                        .class),
+                new ActionHandler<>(NodesRewriterWarmupStatusAction.INSTANCE,
+                        TransportNodesRewriterWarmupStatusAction.class),
+                new ActionHandler<>(NodesRewriterStatsAction.INSTANCE, TransportNodesRewriterStatsAction.class),
+                new ActionHandler<>(UpdateRewriterRulesAction.INSTANCE, TransportUpdateRewriterRulesAction.class),
+                new ActionHandler<>(BulkPutRewriterAction.INSTANCE, TransportBulkPutRewriterAction.class)
 
         ));
     }
@@ -136,13 +205,57 @@ public class QuerqyPlugin extends Plugin implements SearchPlugin, ActionPlugin {
                                                final NamedWriteableRegistry namedWriteableRegistry,
                                                IndexNameExpressionResolver indexNameExpressionResolver,
                                                Supplier<RepositoriesService> repositoriesServiceSupplier) {
+        rewriterShardContexts.setClient(client);
+        rewriterShardContexts.setThreadPool(threadPool);
+        clusterService.addListener(event -> {
+            if (event.nodesChanged()) {
+                querqyProcessor.setCompactWireFormatSupported(
+                        QueryWireFormat.isCompactFormatSupported(event.state().nodes()));
+            }
+        });
         return Arrays.asList(rewriterShardContexts, querqyProcessor);
     }
 
+    @Override
+    public BreakerSettings getCircuitBreaker(final Settings settings) {
+        return new BreakerSettings(RewriterRegistry.CIRCUIT_BREAKER_NAME,
+                RewriterRegistry.CIRCUIT_BREAKER_LIMIT.get(settings).getBytes(),
+                RewriterRegistry.CIRCUIT_BREAKER_OVERHEAD.get(settings));
+    }
+
+    @Override
+    public void setCircuitBreaker(final CircuitBreaker circuitBreaker) {
+        rewriterShardContexts.getRewriterRegistry().setCircuitBreaker(circuitBreaker);
+        if (rewriterConfigMirror != null) {
+            rewriterConfigMirror.setCircuitBreaker(circuitBreaker);
+        }
+    }
+
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(final Settings settings) {
+        return Collections.singletonList(RewriterRegistry.loadExecutorBuilder(settings));
+    }
+
     @Override
     public List<Setting<?>> getSettings() {
-        return Collections.singletonList(Setting.intSetting(SETTINGS_QUERQY_INDEX_NUM_REPLICAS, 1, 0,
-                Setting.Property.NodeScope));
+        return Arrays.asList(
+                Setting.intSetting(SETTINGS_QUERQY_INDEX_NUM_REPLICAS, 1, 0, Setting.Property.NodeScope),
+                QUERQY_INDEX_AUTO_EXPAND_REPLICAS,
+                RewriterConfigMirror.MIRROR_ENABLED,
+                RewriterRegistry.CACHE_EXPIRE_AFTER_WRITE,
+                RewriterRegistry.CACHE_EXPIRE_AFTER_READ,
+                RewriterRegistry.CACHE_MAX_SIZE,
+                RewriterRegistry.CIRCUIT_BREAKER_LIMIT,
+                RewriterRegistry.CIRCUIT_BREAKER_OVERHEAD,
+                RewriterWarmup.WARMUP_ENABLED,
+                RewriterWarmup.WARMUP_REWRITERS,
+                RewriterWarmup.WARMUP_RETRY_DELAY,
+                QuerqyProcessor.QUERY_CACHE_MAX_SIZE,
+                QueryPhaseStats.PHASE_STATS_ENABLED,
+                QueryPhaseStats.PHASE_STATS_SAMPLE_RATE,
+                RewriterStats.REWRITE_STATS_ENABLED,
+                RewriterStats.REWRITE_STATS_SAMPLE_RATE,
+                OpenSearchTermQueryCache.TERM_QUERY_CACHE_MAX_SIZE);
 
     }
 }
\ No newline at end of file
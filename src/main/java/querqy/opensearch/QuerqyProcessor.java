@@ -18,9 +18,15 @@
 
 package querqy.opensearch;
 
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.CacheBuilder;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.index.query.QueryShardContext;
 import querqy.lucene.rewrite.infologging.InfoLogging;
 import querqy.lucene.rewrite.infologging.Sink;
@@ -28,70 +34,267 @@ import querqy.opensearch.infologging.LogPayloadType;
 import querqy.opensearch.infologging.SingleSinkInfoLogging;
 import querqy.opensearch.query.InfoLoggingSpec;
 import querqy.opensearch.query.QuerqyQueryBuilder;
-import querqy.opensearch.query.Rewriter;
 import querqy.lucene.LuceneQueries;
 import querqy.lucene.LuceneSearchEngineRequestAdapter;
 import querqy.lucene.QueryParsingController;
+import querqy.model.ExpandedQuery;
 import querqy.rewrite.RewriteChain;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 
 public class QuerqyProcessor {
 
+    /**
+     * The maximum number of rewritten queries that are kept in the query cache of a node. The cache is disabled if set
+     * to 0.
+     */
+    public static final Setting<Integer> QUERY_CACHE_MAX_SIZE = Setting.intSetting(
+            "querqy.caches.query.max_size",
+            0, // disabled by default
+            0,
+            Setting.Property.NodeScope);
+
     private static final RewriteChain EMPTY_REWRITE_CHAIN = new RewriteChain(Collections.emptyList());
+    private static final RewriteChainAndLogging EMPTY_REWRITE_CHAIN_AND_LOGGING =
+            new RewriteChainAndLogging(EMPTY_REWRITE_CHAIN, Collections.emptySet());
 
     private RewriterShardContexts rewriterShardContexts;
     private Sink infoLoggingSink;
 
+    /**
+     * Caches the queries that the rewrite chain produced for a QuerqyQueryBuilder, see {@link RewrittenQueryCapture}.
+     * Null if query caching is disabled.
+     */
+    private final Cache<QueryCacheKey, ExpandedQuery> queryCache;
+
+    /**
+     * The index readers for which cached queries are invalidated when they are closed
+     */
+    private final Set<Object> readersWithCloseListener = ConcurrentHashMap.newKeySet();
+
+    private final QueryPhaseStats phaseStats;
+
+    /**
+     * True once all nodes of the cluster can read the compact wire format of QuerqyQueryBuilder
+     */
+    private volatile boolean compactWireFormatSupported = false;
+
     public QuerqyProcessor(final RewriterShardContexts rewriterShardContexts, final Sink infoLoggingSink) {
+        this(rewriterShardContexts, infoLoggingSink, Settings.EMPTY);
+    }
+
+    public QuerqyProcessor(final RewriterShardContexts rewriterShardContexts, final Sink infoLoggingSink,
+                           final Settings settings) {
         this.rewriterShardContexts = rewriterShardContexts;
         this.infoLoggingSink = infoLoggingSink;
+        final int queryCacheMaxSize = QUERY_CACHE_MAX_SIZE.get(settings);
+        queryCache = queryCacheMaxSize > 0
+                ? CacheBuilder.<QueryCacheKey, ExpandedQuery>builder().setMaximumWeight(queryCacheMaxSize).build()
+                : null;
+        if (queryCache != null) {
+            // The keys of the outdated rewrite chains would never be looked up again
+            rewriterShardContexts.setRewritersChangedListener(queryCache::invalidateAll);
+        }
+        phaseStats = new QueryPhaseStats(settings);
+    }
+
+    public QueryPhaseStats getPhaseStats() {
+        return phaseStats;
+    }
+
+    public boolean isCompactWireFormatSupported() {
+        return compactWireFormatSupported;
+    }
+
+    public void setCompactWireFormatSupported(final boolean compactWireFormatSupported) {
+        this.compactWireFormatSupported = compactWireFormatSupported;
+    }
+
+    /**
+     * @param rewriterIds The IDs of the rewriters used by a query
+     * @return true iff this node will build queries and some of the rewriters haven't been loaded on it yet
+     */
+    public boolean needsToLoadRewriters(final List<String> rewriterIds) {
+        return rewriterShardContexts.needsToLoadRewriters(rewriterIds);
+    }
+
+    /**
+     * Load the rewriters on this node without blocking the calling thread.
+     *
+     * @param rewriterIds The IDs of the rewriters
+     * @param listener Is notified once the rewriters have been loaded
+     */
+    public void loadRewriters(final List<String> rewriterIds, final ActionListener<Void> listener) {
+        rewriterShardContexts.getRewriterRegistry().loadRewriters(rewriterIds, listener);
     }
 
     public Query parseQuery(final QuerqyQueryBuilder queryBuilder, final QueryShardContext context)
             throws LuceneSearchEngineRequestAdapter.SyntaxException {
 
-        final List<Rewriter> rewriters = queryBuilder.getRewriters();
+        final QueryPhaseStats.Timer timer = phaseStats.startTimer();
+        final long lookupStart = timer == null ? 0L : System.nanoTime();
 
-        final RewriteChain rewriteChain;
-        final Set<String> rewritersEnabledForLogging;
-        if (rewriters == null || rewriters.isEmpty()) {
+        final RewriterShardContext shardContext = rewriterShardContexts.getShardContext(context);
+        final List<String> rewriterIds = queryBuilder.getRewriterIds();
 
-            rewriteChain = EMPTY_REWRITE_CHAIN;
-            rewritersEnabledForLogging = Collections.emptySet();
+        final RewriteChainAndLogging rewriteChainAndLogging = rewriterIds.isEmpty()
+                ? EMPTY_REWRITE_CHAIN_AND_LOGGING
+                : shardContext.getRewriteChain(rewriterIds);
 
-        } else {
+        if (timer != null) {
+            timer.add(QueryPhaseStats.Phase.REWRITER_LOOKUP, System.nanoTime() - lookupStart);
+        }
 
-            final RewriteChainAndLogging rewriteChainAndLogging = rewriterShardContexts.getRewriteChain(
-                    rewriters.stream().map(Rewriter::getName).collect(Collectors.toList()), context);
+        final QueryCacheKey cacheKey = queryCache == null || rewriterIds.isEmpty() ? null
+                : createCacheKey(queryBuilder, rewriteChainAndLogging, context);
 
-            rewriteChain = rewriteChainAndLogging.rewriteChain;
-            final InfoLoggingSpec infoLoggingSpec = queryBuilder.getInfoLoggingSpec();
+        final Query query;
+        if (cacheKey == null) {
+            query = buildQuery(queryBuilder, rewriteChainAndLogging, rewriteChainAndLogging.rewriteChain, shardContext,
+                    context, timer, null);
+        } else {
+            final ExpandedQuery cachedRewrittenQuery = queryCache.get(cacheKey);
+            if (cachedRewrittenQuery != null) {
+                // Only the rewriting is skipped, the Lucene query is built for each search
+                query = buildQuery(queryBuilder, rewriteChainAndLogging,
+                        RewrittenQueryCapture.replaying(cachedRewrittenQuery), shardContext, context, timer, null);
+            } else {
+                query = buildQuery(queryBuilder, rewriteChainAndLogging,
+                        RewrittenQueryCapture.capturing(rewriteChainAndLogging.rewriteChain), shardContext, context,
+                        timer, rewrittenQuery -> cacheRewrittenQuery(cacheKey, rewrittenQuery,
+                                context.getIndexReader().getReaderCacheHelper()));
+            }
+        }
 
-            if ((infoLoggingSpec != null) && (infoLoggingSpec.getPayloadType() != LogPayloadType.NONE)
-                    && !infoLoggingSpec.isLogged()) {
+        if (timer != null) {
+            timer.record();
+        }
+        return query;
 
-                infoLoggingSpec.setLogged(true);
-                rewritersEnabledForLogging = rewriteChainAndLogging.rewritersEnabledForLogging;
+    }
 
-            } else {
-                rewritersEnabledForLogging = Collections.emptySet();
+    /**
+     * @param cacheKey The cache key
+     * @param rewrittenQuery The rewritten query, or null if it wasn't captured
+     * @param readerCacheHelper The cache helper of the index reader of the cache key
+     */
+    void cacheRewrittenQuery(final QueryCacheKey cacheKey, final ExpandedQuery rewrittenQuery,
+                             final IndexReader.CacheHelper readerCacheHelper) {
+        if (rewrittenQuery == null) {
+            return;
+        }
+        if (readersWithCloseListener.add(cacheKey.readerKey)) {
+            readerCacheHelper.addClosedListener(this::invalidateReader);
+        }
+        queryCache.put(cacheKey, rewrittenQuery);
+    }
+
+    /**
+     * Drop the cached queries of an index reader that was closed
+     *
+     * @param readerKey The cache key of the reader
+     */
+    void invalidateReader(final Object readerKey) {
+        final List<QueryCacheKey> keys = new ArrayList<>();
+        for (final QueryCacheKey key : queryCache.keys()) {
+            if (key.readerKey == readerKey) {
+                keys.add(key);
             }
+        }
+        keys.forEach(queryCache::invalidate);
+        readersWithCloseListener.remove(readerKey);
+    }
+
+    /**
+     * @return The number of queries in the query cache
+     */
+    int getQueryCacheSize() {
+        return queryCache == null ? 0 : queryCache.count();
+    }
+
+    /**
+     * @return The key for the query cache, or null if the query must not be cached
+     */
+    QueryCacheKey createCacheKey(final QuerqyQueryBuilder queryBuilder,
+                                 final RewriteChainAndLogging rewriteChainAndLogging,
+                                 final QueryShardContext context) {
+
+        // Info logging must happen per request
+        if (queryBuilder.getInfoLoggingSpec() != null || rewriteChainAndLogging.rewriterGenerations == null) {
+            return null;
+        }
+
+        final IndexReader indexReader = context.getIndexReader();
+        if (indexReader == null) {
+            return null;
+        }
+        final IndexReader.CacheHelper cacheHelper = indexReader.getReaderCacheHelper();
+        if (cacheHelper == null) {
+            return null;
+        }
+
+        return new QueryCacheKey(queryBuilder, rewriteChainAndLogging.rewriterGenerations, cacheHelper.getKey(),
+                context.getIndexSettings().getIndexMetadata().getMappingVersion());
+    }
+
+    /**
+     * @param rewriteChain The rewrite chain to run, which might differ from the rewrite chain of the
+     *                     rewriteChainAndLogging if the rewritten query is captured or replayed
+     * @param rewrittenQueryConsumer Gets the query that was captured by the rewrite chain, or null
+     */
+    private Query buildQuery(final QuerqyQueryBuilder queryBuilder,
+                             final RewriteChainAndLogging rewriteChainAndLogging,
+                             final RewriteChain rewriteChain,
+                             final RewriterShardContext shardContext,
+                             final QueryShardContext context,
+                             final QueryPhaseStats.Timer timer,
+                             final Consumer<ExpandedQuery> rewrittenQueryConsumer)
+            throws LuceneSearchEngineRequestAdapter.SyntaxException {
+
+        final Set<String> rewritersEnabledForLogging;
+
+        final InfoLoggingSpec infoLoggingSpec = queryBuilder.getInfoLoggingSpec();
 
+        if ((rewriteChainAndLogging != EMPTY_REWRITE_CHAIN_AND_LOGGING) && (infoLoggingSpec != null)
+                && (infoLoggingSpec.getPayloadType() != LogPayloadType.NONE) && !infoLoggingSpec.isLogged()) {
+
+            infoLoggingSpec.setLogged(true);
+            rewritersEnabledForLogging = rewriteChainAndLogging.rewritersEnabledForLogging;
+
+        } else {
+            rewritersEnabledForLogging = Collections.emptySet();
         }
 
         final InfoLogging infoLogging = rewritersEnabledForLogging.isEmpty()
                 ? null : new SingleSinkInfoLogging(infoLoggingSink, rewritersEnabledForLogging);
 
-        final DismaxSearchEngineRequestAdapter requestAdapter =
-                new DismaxSearchEngineRequestAdapter(queryBuilder, rewriteChain, context, infoLogging);
+        final long mappingVersion = context.getIndexSettings().getIndexMetadata().getMappingVersion();
+        final DismaxSearchEngineRequestAdapter requestAdapter = new DismaxSearchEngineRequestAdapter(queryBuilder,
+                rewriteChain, context, infoLogging, shardContext.getTermQueryCache(mappingVersion),
+                shardContext.getQueryAnalyzer(mappingVersion));
 
         final QueryParsingController controller = new QueryParsingController(requestAdapter);
-        final LuceneQueries queries = controller.process();
+        final LuceneQueries queries;
+        if (timer == null) {
+            queries = controller.process();
+        } else {
+            requestAdapter.setPhaseTimer(timer);
+            final long start = System.nanoTime();
+            queries = controller.process();
+            timer.addQueryBuilding(System.nanoTime() - start);
+        }
+
+        if (rewrittenQueryConsumer != null) {
+            rewrittenQueryConsumer.accept(requestAdapter.getRewrittenQuery());
+        }
 
 
 //        // TODO: make decos part of the general Querqy object model
@@ -166,4 +369,53 @@ public class QuerqyProcessor {
         }
     }
 
-}
\ No newline at end of file
+
+    /**
+     * <p>The key of a query in the query cache.</p>
+     *
+     * <p>The rewrite chain is identified by the rewriter IDs of the query builder and the generations of the rewriters
+     * that were bound to it, not by the identity of the chain object, so that a chain that was rebuilt for the same
+     * rewriters - for example because it couldn't be cached by the shard - still hits the entries of the previous
+     * chain. A reloaded rewriter has a new generation and thus results in new keys, and the entries of the outdated
+     * chains are invalidated. The key also changes when the index reader is refreshed, as shard-dependent rewriters
+     * might read the index, and the entries of a reader are invalidated when it is closed.</p>
+     */
+    static class QueryCacheKey {
+
+        final QuerqyQueryBuilder queryBuilder;
+        final long[] rewriterGenerations;
+        final Object readerKey;
+        final long mappingVersion;
+        private final int hashCode;
+
+        QueryCacheKey(final QuerqyQueryBuilder queryBuilder, final long[] rewriterGenerations, final Object readerKey,
+                      final long mappingVersion) {
+            this.queryBuilder = queryBuilder;
+            this.rewriterGenerations = rewriterGenerations;
+            this.readerKey = readerKey;
+            this.mappingVersion = mappingVersion;
+            hashCode = Objects.hash(queryBuilder, Arrays.hashCode(rewriterGenerations),
+                    System.identityHashCode(readerKey), mappingVersion);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final QueryCacheKey that = (QueryCacheKey) o;
+            return readerKey == that.readerKey
+                    && mappingVersion == that.mappingVersion
+                    && Arrays.equals(rewriterGenerations, that.rewriterGenerations)
+                    && queryBuilder.equals(that.queryBuilder);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Timings of the phases in which the {@link QuerqyProcessor} builds a query on a shard, aggregated per node.</p>
+ *
+ * <p>The timings are only taken if enabled by {@link #PHASE_STATS_ENABLED}, and only for a sample of the queries,
+ * which is set by {@link #PHASE_STATS_SAMPLE_RATE}. If disabled, no timer is created and the query building doesn't
+ * read the clock.</p>
+ */
+public class QueryPhaseStats {
+
+    public static final Setting<Boolean> PHASE_STATS_ENABLED = Setting.boolSetting(
+            "querqy.stats.query_phases.enabled",
+            false,
+            Setting.Property.NodeScope);
+
+    /**
+     * The share of the queries for which the phases are timed, between 0 and 1
+     */
+    public static final Setting<Double> PHASE_STATS_SAMPLE_RATE = Setting.doubleSetting(
+            "querqy.stats.query_phases.sample_rate",
+            0.1,
+            0.0,
+            1.0,
+            Setting.Property.NodeScope);
+
+    public enum Phase {
+
+        /**
+         * Getting the rewrite chain of the shard, including waiting for rewriters that are being loaded
+         */
+        REWRITER_LOOKUP("rewriter_lookup"),
+
+        /**
+         * Applying the rewriters to the user query
+         */
+        REWRITE_CHAIN("rewrite_chain"),
+
+        /**
+         * Creating the Lucene query from the rewritten query, excluding the nested raw query and phrase boost phases
+         */
+        QUERY_BUILDING("query_building"),
+
+        /**
+         * Parsing raw queries, which rules can add as boost or filter queries
+         */
+        RAW_QUERY_PARSING("raw_query_parsing"),
+
+        /**
+         * Creating the phrase boost queries
+         */
+        PHRASE_BOOSTS("phrase_boosts");
+
+        static final Phase[] VALUES = values();
+
+        private final String fieldName;
+
+        Phase(final String fieldName) {
+            this.fieldName = fieldName;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+    }
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.VALUES.length];
+
+    public QueryPhaseStats(final Settings settings) {
+        enabled = PHASE_STATS_ENABLED.get(settings);
+        sampleRate = PHASE_STATS_SAMPLE_RATE.get(settings);
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @return A timer for the phases of a single query, or null if the phases of the query are not timed
+     */
+    public Timer startTimer() {
+        if (!enabled) {
+            return null;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+        return new Timer(this);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Snapshot snapshot() {
+        final long[] counts = new long[histograms.length];
+        final long[] sums = new long[histograms.length];
+        final long[] maxs = new long[histograms.length];
+        final long[][] percentiles = new long[histograms.length][];
+        for (int i = 0; i < histograms.length; i++) {
+            counts[i] = histograms[i].getCount();
+            sums[i] = histograms[i].getSum();
+            maxs[i] = histograms[i].getMax();
+            percentiles[i] = histograms[i].getPercentiles(RewriterStats.PERCENTILES);
+        }
+        return new Snapshot(enabled, counts, sums, maxs, percentiles);
+    }
+
+    /**
+     * Collects the phase timings of a single query. A timer is used by one thread at a time and records its timings
+     * into the node statistics once the query has been built.
+     */
+    public static class Timer {
+
+        private final QueryPhaseStats stats;
+        private final long[] nanos = new long[Phase.VALUES.length];
+        private final boolean[] timed = new boolean[Phase.VALUES.length];
+
+        Timer(final QueryPhaseStats stats) {
+            this.stats = stats;
+        }
+
+        public void add(final Phase phase, final long phaseNanos) {
+            nanos[phase.ordinal()] += phaseNanos;
+            timed[phase.ordinal()] = true;
+        }
+
+        /**
+         * Adds the time of the query building, from which the nested phases that have been timed so far are
+         * subtracted.
+         *
+         * @param totalNanos The time spent in building the query, including rewriting, raw query parsing and phrase
+         *                   boosts
+         */
+        public void addQueryBuilding(final long totalNanos) {
+            final long nested = nanos[Phase.REWRITE_CHAIN.ordinal()] + nanos[Phase.RAW_QUERY_PARSING.ordinal()]
+                    + nanos[Phase.PHRASE_BOOSTS.ordinal()];
+            add(Phase.QUERY_BUILDING, Math.max(0L, totalNanos - nested));
+        }
+
+        long getNanos(final Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        public void record() {
+            for (int i = 0; i < nanos.length; i++) {
+                if (timed[i]) {
+                    stats.histograms[i].record(nanos[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * The phase timings of a node at a point in time
+     */
+    public static class Snapshot implements Writeable, ToXContentObject {
+
+        private final boolean enabled;
+        private final long[] counts;
+        private final long[] sumNanos;
+        private final long[] maxNanos;
+        private final long[][] percentileNanos;
+
+        public Snapshot(final boolean enabled, final long[] counts, final long[] sumNanos, final long[] maxNanos,
+                        final long[][] percentileNanos) {
+            this.enabled = enabled;
+            this.counts = counts;
+            this.sumNanos = sumNanos;
+            this.maxNanos = maxNanos;
+            this.percentileNanos = percentileNanos;
+        }
+
+        public Snapshot(final StreamInput in) throws IOException {
+            enabled = in.readBoolean();
+            final int numPhases = in.readVInt();
+            counts = new long[numPhases];
+            sumNanos = new long[numPhases];
+            maxNanos = new long[numPhases];
+            percentileNanos = new long[numPhases][];
+            for (int i = 0; i < numPhases; i++) {
+                counts[i] = in.readVLong();
+                sumNanos[i] = in.readVLong();
+                maxNanos[i] = in.readVLong();
+                percentileNanos[i] = in.readVLongArray();
+            }
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            out.writeBoolean(enabled);
+            out.writeVInt(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                out.writeVLong(counts[i]);
+                out.writeVLong(sumNanos[i]);
+                out.writeVLong(maxNanos[i]);
+                out.writeVLongArray(percentileNanos[i]);
+            }
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public long getCount(final Phase phase) {
+            return counts[phase.ordinal()];
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            builder.startObject();
+            builder.field("enabled", enabled);
+            // A node of an older plugin version might know fewer phases
+            final int numPhases = Math.min(counts.length, Phase.VALUES.length);
+            for (int i = 0; i < numPhases; i++) {
+                builder.startObject(Phase.VALUES[i].getFieldName());
+                builder.field("count", counts[i]);
+                builder.field("time_in_millis", TimeUnit.NANOSECONDS.toMillis(sumNanos[i]));
+                builder.field("max_time_in_micros", TimeUnit.NANOSECONDS.toMicros(maxNanos[i]));
+                builder.startObject("time_percentiles_in_micros");
+                for (int j = 0; j < RewriterStats.PERCENTILES.length && j < percentileNanos[i].length; j++) {
+                    builder.field(String.valueOf(RewriterStats.PERCENTILES[j]),
+                            TimeUnit.NANOSECONDS.toMicros(percentileNanos[i][j]));
+                }
+                builder.endObject();
+                builder.endObject();
+            }
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Snapshot that = (Snapshot) o;
+            return enabled == that.enabled
+                    && Arrays.equals(counts, that.counts)
+                    && Arrays.equals(sumNanos, that.sumNanos)
+                    && Arrays.equals(maxNanos, that.maxNanos)
+                    && Arrays.deepEquals(percentileNanos, that.percentileNanos);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(enabled, Arrays.hashCode(counts), Arrays.hashCode(sumNanos),
+                    Arrays.hashCode(maxNanos), Arrays.deepHashCode(percentileNanos));
+        }
+    }
+}
@@ -27,8 +27,20 @@ public class RewriteChainAndLogging {
     public final RewriteChain rewriteChain;
     public final Set<String> rewritersEnabledForLogging;
 
+    /**
+     * The {@link RewriterRegistry.LoadedRewriter#generation generations} of the rewriters of the chain in chain order,
+     * or null if they aren't known
+     */
+    public final long[] rewriterGenerations;
+
     public RewriteChainAndLogging(final RewriteChain rewriteChain, final Set<String> rewritersEnabledForLogging) {
+        this(rewriteChain, rewritersEnabledForLogging, null);
+    }
+
+    public RewriteChainAndLogging(final RewriteChain rewriteChain, final Set<String> rewritersEnabledForLogging,
+                                  final long[] rewriterGenerations) {
         this.rewriteChain = rewriteChain;
         this.rewritersEnabledForLogging = rewritersEnabledForLogging;
+        this.rewriterGenerations = rewriterGenerations;
     }
 }
\ No newline at end of file
@@ -0,0 +1,244 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.core.common.breaker.CircuitBreaker;
+import org.opensearch.core.common.breaker.CircuitBreakingException;
+import org.opensearch.index.engine.Engine;
+import org.opensearch.index.shard.IndexEventListener;
+import org.opensearch.index.shard.IndexShard;
+import org.opensearch.index.shard.IndexingOperationListener;
+import org.opensearch.core.index.shard.ShardId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Mirrors the documents of the rewriter index that are written to the shard copy on this node, so that rewriters
+ * can be loaded without reading the rewriter index.</p>
+ *
+ * <p>The mirror is only updated on nodes that hold a copy of the rewriter index, which can be ensured by setting
+ * {@link querqy.opensearch.rewriterstore.Constants#SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS} to <code>0-all</code>.
+ * It only contains the documents that were written since the shard copy was started, other documents must still be
+ * read from the rewriter index. Writes of a document can be applied to a replica out of order, so a write only
+ * replaces the mirrored document if it has a higher (primary term, sequence number). Deleted documents are kept as
+ * tombstones for the same reason, until the local checkpoint of the shard copy has passed them and no earlier write
+ * can arrive anymore.</p>
+ *
+ * <p>Operations of a new primary term can follow a reset of the engine of a replica, which rolls back operations that
+ * were mirrored. The mirror is cleared when it sees the first operation of a new primary term, and when the shard copy
+ * is closed, as it would not see any further writes.</p>
+ *
+ * <p>The estimated heap size of the mirrored documents is charged to the {@link RewriterRegistry#CIRCUIT_BREAKER_NAME}
+ * circuit breaker. A document that doesn't fit isn't mirrored, so that it is read from the rewriter index.</p>
+ */
+public class RewriterConfigMirror implements IndexingOperationListener, IndexEventListener {
+
+    public static final Setting<Boolean> MIRROR_ENABLED = Setting.boolSetting(
+            "querqy.store.mirror.enabled",
+            false,
+            Setting.Property.NodeScope);
+
+    private static final Logger LOGGER = LogManager.getLogger(RewriterConfigMirror.class);
+
+    private static final long DOCUMENT_SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(MirroredDocument.class);
+
+    private final Map<String, MirroredDocument> documents = new ConcurrentHashMap<>();
+    private final Object primaryTermLock = new Object();
+    private volatile long primaryTerm = 0L;
+
+    /**
+     * Null until set by the plugin - and in tests
+     */
+    private volatile CircuitBreaker circuitBreaker = null;
+
+    /**
+     * The shard copy of the rewriter index on this node, or null if it hasn't been started
+     */
+    private volatile IndexShard indexShard = null;
+
+    public void setCircuitBreaker(final CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @param rewriterId The rewriter ID
+     * @return The mirrored document, or null if the document wasn't written since the shard copy on this node was
+     * started
+     */
+    public MirroredDocument get(final String rewriterId) {
+        return documents.get(rewriterId);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public void clear() {
+        documents.forEach(this::remove);
+    }
+
+    void put(final String rewriterId, final long primaryTerm, final long seqNo, final Map<String, Object> source) {
+
+        if (primaryTerm > this.primaryTerm) {
+            synchronized (primaryTermLock) {
+                if (primaryTerm > this.primaryTerm) {
+                    clear();
+                    this.primaryTerm = primaryTerm;
+                }
+            }
+        }
+
+        final long sizeInBytes = DOCUMENT_SHALLOW_SIZE + RamUsageEstimator.sizeOf(rewriterId)
+                + (source != null ? RamUsageEstimator.sizeOfMap(source) : 0L);
+        final MirroredDocument document = new MirroredDocument(primaryTerm, seqNo, source, sizeInBytes);
+
+        final CircuitBreaker breaker = circuitBreaker;
+        if (breaker != null) {
+            try {
+                breaker.addEstimateBytesAndMaybeBreak(sizeInBytes, "querqy rewriter mirror [" + rewriterId + "]");
+            } catch (final CircuitBreakingException e) {
+                // The rewriter will be read from the rewriter index
+                LOGGER.warn("Could not mirror rewriter {}: {}", rewriterId, e.getMessage());
+                remove(rewriterId);
+                return;
+            }
+        }
+
+        final MirroredDocument[] replaced = new MirroredDocument[1];
+        documents.compute(rewriterId, (id, current) -> {
+            if (current == null || current.isBefore(document)) {
+                replaced[0] = current;
+                return document;
+            }
+            replaced[0] = document;
+            return current;
+        });
+        release(replaced[0]);
+
+        pruneTombstones();
+    }
+
+    private void remove(final String rewriterId) {
+        release(documents.remove(rewriterId));
+    }
+
+    private void remove(final String rewriterId, final MirroredDocument document) {
+        if (documents.remove(rewriterId, document)) {
+            release(document);
+        }
+    }
+
+    private void release(final MirroredDocument document) {
+        final CircuitBreaker breaker = circuitBreaker;
+        if (breaker != null && document != null) {
+            breaker.addWithoutBreaking(-document.sizeInBytes);
+        }
+    }
+
+    /**
+     * Drop the tombstones that no earlier write can arrive for anymore, as all operations up to the local checkpoint
+     * have been applied to the shard copy.
+     */
+    private void pruneTombstones() {
+        final IndexShard shard = indexShard;
+        if (shard == null) {
+            return;
+        }
+        final long localCheckpoint = shard.getLocalCheckpoint();
+        documents.forEach((rewriterId, document) -> {
+            if (document.source == null && document.seqNo <= localCheckpoint) {
+                remove(rewriterId, document);
+            }
+        });
+    }
+
+    @Override
+    public void postIndex(final ShardId shardId, final Engine.Index index, final Engine.IndexResult result) {
+        if (result.getResultType() != Engine.Result.Type.SUCCESS) {
+            return;
+        }
+        final Map<String, Object> source;
+        try {
+            source = XContentHelper.convertToMap(index.source(), false, index.parsedDoc().getMediaType()).v2();
+        } catch (final Exception e) {
+            // The rewriter will be read from the rewriter index
+            LOGGER.warn("Could not mirror rewriter " + index.id(), e);
+            remove(index.id());
+            return;
+        }
+        put(index.id(), result.getTerm(), result.getSeqNo(), source);
+    }
+
+    @Override
+    public void postDelete(final ShardId shardId, final Engine.Delete delete, final Engine.DeleteResult result) {
+        if (result.getResultType() == Engine.Result.Type.SUCCESS) {
+            put(delete.id(), result.getTerm(), result.getSeqNo(), null);
+        }
+    }
+
+    @Override
+    public void afterIndexShardStarted(final IndexShard indexShard) {
+        this.indexShard = indexShard;
+    }
+
+    @Override
+    public void afterIndexShardClosed(final ShardId shardId, final IndexShard indexShard, final Settings indexSettings) {
+        this.indexShard = null;
+        clear();
+    }
+
+    /**
+     * A document of the rewriter index as it was written to the shard copy on this node
+     */
+    public static class MirroredDocument {
+
+        public final long primaryTerm;
+        public final long seqNo;
+
+        /**
+         * The document source, or null if the document was deleted
+         */
+        public final Map<String, Object> source;
+
+        /**
+         * The estimated heap size of this document that is charged to the circuit breaker
+         */
+        final long sizeInBytes;
+
+        MirroredDocument(final long primaryTerm, final long seqNo, final Map<String, Object> source,
+                         final long sizeInBytes) {
+            this.primaryTerm = primaryTerm;
+            this.seqNo = seqNo;
+            this.source = source;
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        boolean isBefore(final MirroredDocument other) {
+            return primaryTerm < other.primaryTerm || (primaryTerm == other.primaryTerm && seqNo < other.seqNo);
+        }
+    }
+
+}
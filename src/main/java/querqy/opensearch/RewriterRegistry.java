@@ -0,0 +1,605 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.opensearch.OpenSearchException;
+import org.opensearch.ResourceNotFoundException;
+import org.opensearch.action.get.GetRequestBuilder;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.common.cache.Cache;
+import org.opensearch.common.cache.RemovalNotification;
+import org.opensearch.common.cache.RemovalReason;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.util.concurrent.OpenSearchExecutors;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.common.breaker.CircuitBreaker;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.index.shard.IndexShard;
+import org.opensearch.indices.InvalidTypeNameException;
+import org.opensearch.threadpool.ExecutorBuilder;
+import org.opensearch.threadpool.FixedExecutorBuilder;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.client.Client;
+import querqy.opensearch.rewriterstore.LoadRewriterConfig;
+import querqy.opensearch.rewriterstore.RewriterConfigMapping;
+import querqy.rewrite.RewriterFactory;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * <p>Holds the rewriters that were loaded on this node.</p>
+ *
+ * <p>A rewriter is read from the rewriter index and configured only once per node, regardless of the number of shards
+ * that use it. If the rewriter is {@link OpenSearchRewriterFactory#isShardIndependent() shard-independent}, its
+ * {@link RewriterFactory} is created once as well and shared by all shards. Shard-dependent rewriters are bound to
+ * each shard by the {@link RewriterShardContext}.</p>
+ *
+ * <p>Rewriters are read from the rewriter index asynchronously and configured on the {@link #LOAD_THREAD_POOL_NAME}
+ * thread pool. Concurrent requests for the same rewriter share a single load. The rewriter index is read from the
+ * shard copy on this node if there is one. If a {@link RewriterConfigMirror} is set, rewriters that were written to
+ * that shard copy are read from the mirror instead.</p>
+ *
+ * <p>The estimated heap size of each loaded rewriter is charged to the {@link #CIRCUIT_BREAKER_NAME} circuit breaker,
+ * so that loading a rewriter fails instead of exhausting the heap. An estimate derived from the stored config is
+ * reserved before the rewriter is built. If {@link #CACHE_MAX_SIZE} is set, the least recently used rewriters are
+ * evicted once their total size exceeds the limit, and a rewriter that is larger than the limit on its own fails to
+ * load.</p>
+ *
+ * <p>Each rewriter that is created on this node gets a new generation number, taken before its configuration is read.
+ * Rewriters are built without holding a lock and are only published if no rewriter of a later generation has been
+ * published in the meantime, so that concurrent reloads of the same rewriter cannot replace a newer version by an
+ * older one. Queries that already hold a rewriter keep using it until they complete.</p>
+ */
+public class RewriterRegistry {
+
+    public static final Setting<TimeValue> CACHE_EXPIRE_AFTER_WRITE = Setting.timeSetting(
+            "querqy.caches.rewriter.expire_after_write",
+            TimeValue.timeValueNanos(0), // do not expire by default
+            TimeValue.timeValueNanos(0),
+            Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> CACHE_EXPIRE_AFTER_READ = Setting.timeSetting(
+            "querqy.caches.rewriter.expire_after_read",
+            TimeValue.timeValueNanos(0), // do not expire by default
+            TimeValue.timeValueNanos(0),
+            Setting.Property.NodeScope);
+
+    /**
+     * The maximum total estimated heap size of the loaded rewriters. Rewriters are not evicted by size if set to 0.
+     */
+    public static final Setting<ByteSizeValue> CACHE_MAX_SIZE = Setting.memorySizeSetting(
+            "querqy.caches.rewriter.max_size",
+            "0b", // no limit by default
+            Setting.Property.NodeScope);
+
+    public static final String CIRCUIT_BREAKER_NAME = "querqy";
+
+    public static final Setting<ByteSizeValue> CIRCUIT_BREAKER_LIMIT = Setting.memorySizeSetting(
+            "querqy.breaker.rewriter.limit",
+            "25%",
+            Setting.Property.NodeScope);
+
+    public static final Setting<Double> CIRCUIT_BREAKER_OVERHEAD = Setting.doubleSetting(
+            "querqy.breaker.rewriter.overhead",
+            1.0,
+            0.0,
+            Setting.Property.NodeScope);
+
+    public static final String LOAD_THREAD_POOL_NAME = "querqy_load";
+
+    private static final Logger LOGGER = LogManager.getLogger(RewriterRegistry.class);
+
+    private final Cache<String, LoadedRewriter> rewriters;
+    private final long cacheMaxSizeInBytes;
+    private final Map<String, CompletableFuture<LoadedRewriter>> loading = new ConcurrentHashMap<>();
+    private final RewriterStats stats;
+    private final AtomicLong generation = new AtomicLong();
+    private final Object publishLock = new Object();
+    private Client client;
+    private ThreadPool threadPool;
+
+    /**
+     * Null until set by the plugin - and in tests
+     */
+    private CircuitBreaker circuitBreaker = null;
+    private Consumer<String> evictionListener = null;
+    private RewriterConfigMirror configMirror = null;
+
+    public RewriterRegistry(final Settings settings) {
+        stats = new RewriterStats(settings);
+        cacheMaxSizeInBytes = CACHE_MAX_SIZE.get(settings).getBytes();
+        rewriters = Caches.buildCache(CACHE_EXPIRE_AFTER_WRITE.get(settings), CACHE_EXPIRE_AFTER_READ.get(settings),
+                cacheMaxSizeInBytes, (rewriterId, rewriter) -> rewriter.estimatedSizeInBytes,
+                this::onRemoval);
+    }
+
+    public static ExecutorBuilder<?> loadExecutorBuilder(final Settings settings) {
+        return new FixedExecutorBuilder(settings, LOAD_THREAD_POOL_NAME,
+                Math.max(1, OpenSearchExecutors.allocatedProcessors(settings) / 2), 1000,
+                "thread_pool." + LOAD_THREAD_POOL_NAME);
+    }
+
+    public void setClient(final Client client) {
+        this.client = client;
+    }
+
+    public void setThreadPool(final ThreadPool threadPool) {
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * @param configMirror The mirror to read rewriter documents from before reading the rewriter index, or null
+     */
+    public void setConfigMirror(final RewriterConfigMirror configMirror) {
+        this.configMirror = configMirror;
+    }
+
+    public RewriterStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return The generation of the rewriter that was created last on this node
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    public void setCircuitBreaker(final CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * @param evictionListener Is notified with the rewriter ID when a rewriter is evicted because the rewriters
+     *                         exceed {@link #CACHE_MAX_SIZE}
+     */
+    public void setEvictionListener(final Consumer<String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * <p>Get a rewriter, loading it if it hasn't been loaded on this node yet.</p>
+     *
+     * <p>This method blocks while the rewriter is being loaded. Use {@link #loadRewriters(List, ActionListener)} to
+     * make sure that the rewriters are available before calling it on a thread that mustn't block.</p>
+     *
+     * @param rewriterId The rewriter ID
+     * @return The loaded rewriter
+     */
+    public LoadedRewriter getRewriter(final String rewriterId) {
+
+        final LoadedRewriter rewriter = rewriters.get(rewriterId);
+        if (rewriter != null) {
+            stats.recordCacheHit(rewriterId);
+            return rewriter;
+        }
+
+        try {
+            final LoadedRewriter loaded = loadRewriter(rewriterId).get();
+            // only count misses of rewriters that could be loaded so that unknown IDs don't add stats
+            stats.forRewriter(rewriterId).recordCacheMiss();
+            return loaded;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OpenSearchException("Could not load rewriter " + rewriterId, e);
+        } catch (final ExecutionException e) {
+            throw unwrap(rewriterId, e);
+        }
+    }
+
+    /**
+     * Load the rewriters that haven't been loaded on this node yet without blocking the calling thread.
+     *
+     * @param rewriterIds The IDs of the rewriters
+     * @param listener Is notified once all rewriters have been loaded or if any of them failed to load
+     */
+    public void loadRewriters(final List<String> rewriterIds, final ActionListener<Void> listener) {
+
+        final CompletableFuture<?>[] futures = rewriterIds.stream()
+                .filter(rewriterId -> {
+                    if (isLoaded(rewriterId)) {
+                        stats.recordCacheHit(rewriterId);
+                        return false;
+                    }
+                    return true;
+                })
+                .map(rewriterId -> loadRewriter(rewriterId).whenComplete((loaded, e) -> {
+                    if (e == null) {
+                        stats.forRewriter(rewriterId).recordCacheMiss();
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+
+        if (futures.length == 0) {
+            listener.onResponse(null);
+            return;
+        }
+
+        CompletableFuture.allOf(futures).whenComplete((ignored, e) -> {
+            if (e == null) {
+                listener.onResponse(null);
+            } else {
+                final Throwable cause = e.getCause() != null ? e.getCause() : e;
+                listener.onFailure(cause instanceof Exception
+                        ? (Exception) cause : new OpenSearchException("Could not load rewriters", cause));
+            }
+        });
+    }
+
+    /**
+     * @param rewriterIds The rewriter IDs
+     * @return true iff all rewriters are currently loaded on this node
+     */
+    public boolean areLoaded(final List<String> rewriterIds) {
+        for (final String rewriterId : rewriterIds) {
+            if (!isLoaded(rewriterId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param rewriterId The rewriter ID
+     * @return true iff the rewriter is currently loaded on this node
+     */
+    public boolean isLoaded(final String rewriterId) {
+        return getLoadedRewriter(rewriterId) != null;
+    }
+
+    /**
+     * Load the rewriter from the rewriter index, replacing the rewriter that is currently loaded. The rewriter is not
+     * built again if the config hash of the stored rewriter equals the hash of the loaded rewriter.
+     *
+     * @param rewriterId The rewriter ID
+     * @return The reloaded rewriter, the loaded rewriter if its config didn't change, or a rewriter of a later
+     * generation that was published while the rewriter was reloaded
+     */
+    public LoadedRewriter reloadRewriter(final String rewriterId) {
+
+        final long start = System.nanoTime();
+        final long rewriterGeneration = generation.incrementAndGet();
+
+        final RewriterConfigMirror.MirroredDocument mirrored = getMirroredDocument(rewriterId);
+        if (mirrored != null) {
+            return reloadRewriter(rewriterId, mirrored.source, rewriterGeneration, start);
+        }
+
+        final GetResponse response;
+        try {
+            response = prepareGet(rewriterId).execute().get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OpenSearchException("Could not load rewriter " + rewriterId, e);
+        } catch (final ExecutionException e) {
+            throw new OpenSearchException("Could not load rewriter " + rewriterId, e);
+        }
+
+        return reloadRewriter(rewriterId, response.getSource(), rewriterGeneration, start);
+    }
+
+    protected LoadedRewriter reloadRewriter(final String rewriterId, final Map<String, Object> source,
+                                            final long rewriterGeneration, final long start) {
+
+        final LoadedRewriter current = rewriters.get(rewriterId);
+        // The hash is computed from the stored config rather than taken from the stored config_hash, so that a
+        // document that was edited without the rewriter API is never treated as unchanged. This runs on the load
+        // thread pool, not on the search path.
+        if (current != null && current.configHash != null && source != null
+                && "rewriter".equals(source.get(RewriterConfigMapping.PROP_TYPE))
+                && current.configHash.equals(
+                        RewriterConfigMapping.getMapping(source).computeConfigHash(rewriterId, source))) {
+            LOGGER.info("Config of rewriter {} didn't change, keeping loaded rewriter", rewriterId);
+            return current;
+        }
+
+        final LoadedRewriter rewriter = createRewriter(rewriterId, source, rewriterGeneration);
+        stats.forRewriter(rewriterId).recordLoad(System.nanoTime() - start, rewriter.estimatedSizeInBytes);
+        return publish(rewriter, true);
+    }
+
+    /**
+     * @param rewriterId The rewriter ID
+     * @return The rewriter that is currently loaded on this node, or null
+     */
+    public LoadedRewriter getLoadedRewriter(final String rewriterId) {
+        return rewriters.get(rewriterId);
+    }
+
+    public void clearRewriter(final String rewriterId) {
+        rewriters.invalidate(rewriterId);
+    }
+
+    public void clearRewriters() {
+        rewriters.invalidateAll();
+    }
+
+    /**
+     * Load a rewriter unless it is already being loaded.
+     *
+     * @param rewriterId The rewriter ID
+     * @return The future of the rewriter load that is in progress
+     */
+    protected CompletableFuture<LoadedRewriter> loadRewriter(final String rewriterId) {
+
+        final CompletableFuture<LoadedRewriter> future = new CompletableFuture<>();
+        final CompletableFuture<LoadedRewriter> inProgress = loading.putIfAbsent(rewriterId, future);
+        if (inProgress != null) {
+            return inProgress;
+        }
+
+        final long start = System.nanoTime();
+        final long rewriterGeneration = generation.incrementAndGet();
+        final RewriterConfigMirror.MirroredDocument mirrored = getMirroredDocument(rewriterId);
+        if (mirrored != null) {
+            try {
+                threadPool.executor(LOAD_THREAD_POOL_NAME).execute(() ->
+                        completeLoad(rewriterId, mirrored.source, rewriterGeneration, start, future));
+            } catch (final Exception e) {
+                loading.remove(rewriterId, future);
+                future.completeExceptionally(new OpenSearchException("Could not load rewriter " + rewriterId, e));
+            }
+            return future;
+        }
+
+        prepareGet(rewriterId).execute(ActionListener.wrap(
+                response -> threadPool.executor(LOAD_THREAD_POOL_NAME).execute(() ->
+                        completeLoad(rewriterId, response.getSource(), rewriterGeneration, start, future)),
+                e -> {
+                    loading.remove(rewriterId, future);
+                    future.completeExceptionally(new OpenSearchException("Could not load rewriter " + rewriterId, e));
+                }));
+
+        return future;
+    }
+
+    private void completeLoad(final String rewriterId, final Map<String, Object> source,
+                              final long rewriterGeneration, final long start,
+                              final CompletableFuture<LoadedRewriter> future) {
+        try {
+            final LoadedRewriter loaded = createRewriter(rewriterId, source, rewriterGeneration);
+            stats.forRewriter(rewriterId).recordLoad(System.nanoTime() - start, loaded.estimatedSizeInBytes);
+            // A rewriter that was reloaded in the meantime is newer than the one that we've just loaded
+            final LoadedRewriter rewriter = publish(loaded, false);
+            loading.remove(rewriterId, future);
+            future.complete(rewriter);
+        } catch (final Exception e) {
+            loading.remove(rewriterId, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private RewriterConfigMirror.MirroredDocument getMirroredDocument(final String rewriterId) {
+        return configMirror != null ? configMirror.get(rewriterId) : null;
+    }
+
+    private GetRequestBuilder prepareGet(final String rewriterId) {
+        // Read from the shard copy on this node if there is one, so that loading doesn't need a network round trip
+        return client.prepareGet(QUERQY_INDEX_NAME, rewriterId).setPreference("_local");
+    }
+
+    /**
+     * Publish a rewriter unless a rewriter of a later generation has been published. Only the lookup and the
+     * replacement happen under the lock, the rewriter has been built before.
+     *
+     * @param rewriter The rewriter
+     * @param replace Replace a rewriter of an earlier generation? If false, the rewriter is only published if no
+     *                rewriter with the same ID is loaded
+     * @return The published rewriter
+     */
+    protected LoadedRewriter publish(final LoadedRewriter rewriter, final boolean replace) {
+        final LoadedRewriter current;
+        synchronized (publishLock) {
+            current = rewriters.get(rewriter.rewriterId);
+            if (current == null || (replace && current.generation < rewriter.generation)) {
+                rewriters.put(rewriter.rewriterId, rewriter);
+                return rewriter;
+            }
+        }
+        releaseMemory(rewriter);
+        return current;
+    }
+
+    protected LoadedRewriter createRewriter(final String rewriterId, final Map<String, Object> source,
+                                            final long rewriterGeneration) {
+
+        if (source == null) {
+            throw new ResourceNotFoundException("Rewriter not found: " + rewriterId);
+        }
+
+        if (!"rewriter".equals(source.get(RewriterConfigMapping.PROP_TYPE))) {
+            throw new InvalidTypeNameException("Not a rewriter: " + rewriterId);
+        }
+
+        final LoadRewriterConfig loadConfig = new LoadRewriterConfig(rewriterId, source);
+        final String breakerLabel = "querqy rewriter [" + rewriterId + "]";
+
+        // We reserve an estimate derived from the size of the stored config before the config is parsed and the
+        // rewriter is built, and adjust the reservation to the size of the built rewriter afterwards
+        long reservedBytes = 0L;
+        if (circuitBreaker != null) {
+            final long configSize = loadConfig.estimateConfigSizeInBytes();
+            circuitBreaker.addEstimateBytesAndMaybeBreak(configSize, breakerLabel);
+            reservedBytes = configSize;
+        }
+
+        boolean loaded = false;
+        try {
+
+            final OpenSearchRewriterFactory factory = OpenSearchRewriterFactory.loadConfiguredInstance(loadConfig);
+
+            final long factorySize = factory.ramBytesUsed();
+            final long estimatedSizeInBytes = factorySize >= 0L
+                    ? factorySize : RamUsageEstimator.sizeOfObject(loadConfig.getConfig());
+
+            // A rewriter that is larger than the cache would be evicted as soon as it is published, and it would be
+            // loaded again on every query
+            if (cacheMaxSizeInBytes > 0L && estimatedSizeInBytes > cacheMaxSizeInBytes) {
+                throw new IllegalArgumentException("Rewriter " + rewriterId + " needs an estimated "
+                        + estimatedSizeInBytes + " bytes, which exceeds the " + CACHE_MAX_SIZE.getKey() + " of "
+                        + cacheMaxSizeInBytes + " bytes");
+            }
+
+            if (circuitBreaker != null) {
+                final long delta = estimatedSizeInBytes - reservedBytes;
+                if (delta > 0L) {
+                    circuitBreaker.addEstimateBytesAndMaybeBreak(delta, breakerLabel);
+                } else {
+                    circuitBreaker.addWithoutBreaking(delta);
+                }
+                reservedBytes = estimatedSizeInBytes;
+            }
+
+            final LoadedRewriter rewriter = new LoadedRewriter(rewriterId, loadConfig.getConfigHash(), factory,
+                    isLoggingEnabled(loadConfig.getInfoLoggingConfig()), estimatedSizeInBytes, rewriterGeneration);
+            loaded = true;
+
+            LOGGER.info("Loaded rewriter {}", rewriterId);
+
+            return rewriter;
+
+        } finally {
+            if (!loaded && circuitBreaker != null) {
+                circuitBreaker.addWithoutBreaking(-reservedBytes);
+            }
+        }
+
+    }
+
+    private void onRemoval(final RemovalNotification<String, LoadedRewriter> notification) {
+        releaseMemory(notification.getValue());
+        if (notification.getRemovalReason() != RemovalReason.REPLACED) {
+            stats.remove(notification.getKey());
+        }
+        if (notification.getRemovalReason() == RemovalReason.EVICTED && evictionListener != null) {
+            LOGGER.info("Evicted rewriter {}", notification.getKey());
+            evictionListener.accept(notification.getKey());
+        }
+    }
+
+    private void releaseMemory(final LoadedRewriter rewriter) {
+        if (circuitBreaker != null && rewriter != null) {
+            circuitBreaker.addWithoutBreaking(-rewriter.estimatedSizeInBytes);
+        }
+    }
+
+    static boolean isLoggingEnabled(final Map<String, Object> infoLogging) {
+        if (infoLogging == null) {
+            return false;
+        }
+        final Object sinksObj = infoLogging.get("sinks");
+        if (sinksObj instanceof String) {
+            return "log4j".equals(sinksObj);
+        } else if (sinksObj instanceof final Collection<?> sinksCollection) {
+            return (!sinksCollection.isEmpty()) && sinksCollection.contains("log4j");
+        } else {
+            return false;
+        }
+    }
+
+    private static RuntimeException unwrap(final String rewriterId, final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new OpenSearchException("Could not load rewriter " + rewriterId, cause);
+    }
+
+    /**
+     * A rewriter that was loaded on this node.
+     */
+    public static class LoadedRewriter {
+
+        public final String rewriterId;
+
+        /**
+         * The hash of the configuration that this rewriter was created from
+         */
+        public final String configHash;
+        public final OpenSearchRewriterFactory openSearchRewriterFactory;
+        public final boolean loggingEnabled;
+
+        /**
+         * The estimated heap size of the rewriter, as reported by {@link OpenSearchRewriterFactory#ramBytesUsed()}
+         * or, if the factory cannot estimate it, the heap size of the rewriter configuration
+         */
+        public final long estimatedSizeInBytes;
+
+        /**
+         * The generation of this rewriter on this node. Rewriters of later generations were created from the same or
+         * a later version of the rewriter configuration.
+         */
+        public final long generation;
+
+        /**
+         * The RewriterFactory that is shared across shards, or null if the rewriter is shard-dependent.
+         */
+        private final RewriterFactory sharedRewriterFactory;
+
+        public LoadedRewriter(final String rewriterId, final String configHash,
+                              final OpenSearchRewriterFactory openSearchRewriterFactory,
+                              final boolean loggingEnabled) {
+            this(rewriterId, configHash, openSearchRewriterFactory, loggingEnabled, 0L, 0L);
+        }
+
+        public LoadedRewriter(final String rewriterId, final String configHash,
+                              final OpenSearchRewriterFactory openSearchRewriterFactory,
+                              final boolean loggingEnabled, final long estimatedSizeInBytes,
+                              final long generation) {
+            this.rewriterId = rewriterId;
+            this.configHash = configHash;
+            this.openSearchRewriterFactory = openSearchRewriterFactory;
+            this.loggingEnabled = loggingEnabled;
+            this.estimatedSizeInBytes = estimatedSizeInBytes;
+            this.generation = generation;
+            sharedRewriterFactory = openSearchRewriterFactory.isShardIndependent()
+                    ? openSearchRewriterFactory.createRewriterFactory(null)
+                    : null;
+        }
+
+        public boolean isShardIndependent() {
+            return sharedRewriterFactory != null;
+        }
+
+        /**
+         * @param indexShard The shard to bind the rewriter to
+         * @return The shared RewriterFactory if the rewriter is shard-independent, or a RewriterFactory for the shard
+         */
+        public RewriterFactory getRewriterFactory(final IndexShard indexShard) {
+            return sharedRewriterFactory != null
+                    ? sharedRewriterFactory
+                    : openSearchRewriterFactory.createRewriterFactory(indexShard);
+        }
+    }
+
+}
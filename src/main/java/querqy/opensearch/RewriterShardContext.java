@@ -20,73 +20,142 @@ package querqy.opensearch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.opensearch.OpenSearchException;
-import org.opensearch.ResourceNotFoundException;
-import org.opensearch.action.get.GetResponse;
+import org.apache.lucene.analysis.Analyzer;
 import org.opensearch.common.cache.Cache;
-import org.opensearch.common.settings.Setting;
 import org.opensearch.common.settings.Settings;
-import org.opensearch.common.unit.TimeValue;
 import org.opensearch.core.index.shard.ShardId;
 import org.opensearch.index.IndexService;
-import org.opensearch.indices.InvalidTypeNameException;
-import org.opensearch.transport.client.Client;
-import querqy.opensearch.rewriterstore.LoadRewriterConfig;
-import querqy.opensearch.rewriterstore.RewriterConfigMapping;
+import org.opensearch.index.mapper.MapperService;
+import querqy.opensearch.RewriterRegistry.LoadedRewriter;
 import querqy.rewrite.RewriteChain;
 import querqy.rewrite.RewriterFactory;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-
-import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * <p>Binds the rewriters from the node's {@link RewriterRegistry} to a shard.</p>
+ *
+ * <p>The rewrite chains are kept per list of rewriter IDs, as most queries use one of a few rewriter combinations.
+ * They are held in an immutable map that is replaced as a whole when a chain is added or when a rewriter of this
+ * shard is reloaded or cleared, so that looking up a chain doesn't need any locking. If the map is full, it is
+ * replaced by a map that only holds the new chain, so that the combinations that are in use are cached again.</p>
+ *
+ * <p>Rewriters are bound to the shard before they are published, and a rewriter only replaces the rewriter bound to
+ * the shard if it is of the same or a later {@link LoadedRewriter#generation generation}. The lock is only held for
+ * this comparison and the replacement.</p>
+ */
 public class RewriterShardContext {
 
-
-    public static final Setting<TimeValue> CACHE_EXPIRE_AFTER_WRITE = Setting.timeSetting(
-            "querqy.caches.rewriter.expire_after_write",
-            TimeValue.timeValueNanos(0), // do not expire by default
-            TimeValue.timeValueNanos(0),
-            Setting.Property.NodeScope);
-
-    public static final Setting<TimeValue> CACHE_EXPIRE_AFTER_READ = Setting.timeSetting(
-            "querqy.caches.rewriter.expire_after_read",
-            TimeValue.timeValueNanos(0), // do not expire by default
-            TimeValue.timeValueNanos(0),
-            Setting.Property.NodeScope);
+    /**
+     * The maximum number of rewriter combinations for which a rewrite chain is kept. The cached chains are dropped
+     * when a chain is added beyond this number.
+     */
+    static final int MAX_CACHED_CHAINS = 256;
 
     private static final Logger LOGGER = LogManager.getLogger(RewriterShardContext.class);
 
     final Cache<String, RewriterFactoryAndLogging> factories;
-    final Client client;
+    final RewriterRegistry rewriterRegistry;
     final IndexService indexService;
     final ShardId shardId;
 
+    private final AtomicReference<Map<List<String>, CachedRewriteChain>> chains =
+            new AtomicReference<>(Collections.emptyMap());
+
+    /**
+     * If the rewriters can expire, we have to check that the rewriters of a cached chain are still in the cache.
+     */
+    private final boolean validateChains;
+
+    /**
+     * Are the rewriters wrapped by an {@link InstrumentedRewriterFactory}? Only if rewrite or phase statistics are
+     * enabled.
+     */
+    private final boolean instrumentRewriters;
+
+    /**
+     * Null if the term query cache isn't enabled for the index
+     */
+    private final OpenSearchTermQueryCache termQueryCache;
+
+    /**
+     * The query analyzer for the current mapping version. Shared across queries so that the token stream components
+     * of the field analyzers are reused.
+     */
+    private volatile VersionedQueryAnalyzer queryAnalyzer = null;
+
     public RewriterShardContext(final ShardId shardId, final IndexService indexService, final Settings settings,
-                                final Client client) {
+                                final RewriterRegistry rewriterRegistry) {
         this.indexService = indexService;
         this.shardId = shardId;
-        this.client = client;
-        factories = Caches.buildCache(CACHE_EXPIRE_AFTER_READ.get(settings), CACHE_EXPIRE_AFTER_WRITE.get(settings));
+        this.rewriterRegistry = rewriterRegistry;
+        factories = Caches.buildCache(RewriterRegistry.CACHE_EXPIRE_AFTER_WRITE.get(settings),
+                RewriterRegistry.CACHE_EXPIRE_AFTER_READ.get(settings));
+        validateChains = RewriterRegistry.CACHE_EXPIRE_AFTER_WRITE.get(settings).nanos() > 0
+                || RewriterRegistry.CACHE_EXPIRE_AFTER_READ.get(settings).nanos() > 0;
+        instrumentRewriters = RewriterStats.REWRITE_STATS_ENABLED.get(settings)
+                || QueryPhaseStats.PHASE_STATS_ENABLED.get(settings);
+        final int termQueryCacheMaxSize = indexService == null
+                ? 0 : indexService.getIndexSettings().getValue(OpenSearchTermQueryCache.TERM_QUERY_CACHE_MAX_SIZE);
+        termQueryCache = termQueryCacheMaxSize > 0
+                ? new OpenSearchTermQueryCache(termQueryCacheMaxSize, indexService.getMetadata().getMappingVersion())
+                : null;
         LOGGER.info("Context loaded for shard {} {}", shardId, shardId.getIndex());
     }
 
+    /**
+     * @param rewriterIds The rewriter IDs. The list must not be modified after it was passed to this method as it
+     *                    might be used as a cache key.
+     * @return The rewrite chain
+     */
     public RewriteChainAndLogging getRewriteChain(final List<String> rewriterIds) {
+
+        final Map<List<String>, CachedRewriteChain> currentChains = chains.get();
+
+        final CachedRewriteChain cachedChain = currentChains.get(rewriterIds);
+        if (cachedChain != null && (!validateChains || cachedChain.isValid(rewriterIds, factories))) {
+            return cachedChain.rewriteChainAndLogging;
+        }
+
+        final CachedRewriteChain chain = buildRewriteChain(rewriterIds);
+
+        // Dropping all chains on overflow is cheaper than tracking their use on every lookup, and the chains are
+        // rebuilt from the cached factories
+        final Map<List<String>, CachedRewriteChain> newChains =
+                currentChains.size() < MAX_CACHED_CHAINS || currentChains.containsKey(rewriterIds)
+                        ? new HashMap<>(currentChains)
+                        : new HashMap<>();
+        newChains.put(rewriterIds, chain);
+        // Fails if the chains were invalidated in the meantime, as each invalidation sets a new map instance - the
+        // chain might contain an outdated rewriter then, so we just don't cache it
+        chains.compareAndSet(currentChains, Collections.unmodifiableMap(newChains));
+
+        return chain.rewriteChainAndLogging;
+    }
+
+    private CachedRewriteChain buildRewriteChain(final List<String> rewriterIds) {
+
+        final RewriterFactoryAndLogging[] members = new RewriterFactoryAndLogging[rewriterIds.size()];
+        final long[] generations = new long[members.length];
         final List<RewriterFactory> rewriterFactories = new ArrayList<>(rewriterIds.size());
         final Set<String> loggingEnabledRewriters = new HashSet<>();
 
-        for (final String id : rewriterIds) {
+        for (int i = 0; i < members.length; i++) {
 
+            final String id = rewriterIds.get(i);
             RewriterFactoryAndLogging factoryAndLogging = factories.get(id);
             if (factoryAndLogging == null) {
-                factoryAndLogging = loadFactory(id, false);
+                factoryAndLogging = loadFactory(id);
             }
+            members[i] = factoryAndLogging;
+            generations[i] = factoryAndLogging.generation;
             rewriterFactories.add(factoryAndLogging.rewriterFactory);
             if (factoryAndLogging.loggingEnabled) {
                 loggingEnabledRewriters.add(id);
@@ -94,84 +163,164 @@ public class RewriterShardContext {
 
         }
 
-        return new RewriteChainAndLogging(new RewriteChain(rewriterFactories), loggingEnabledRewriters);
+        return new CachedRewriteChain(members, new RewriteChainAndLogging(new RewriteChain(rewriterFactories),
+                loggingEnabledRewriters.isEmpty()
+                        ? Collections.emptySet() : Collections.unmodifiableSet(loggingEnabledRewriters),
+                generations));
+    }
+
+    /**
+     * @return The statistics of the term query cache, or null if the cache isn't enabled for the index
+     */
+    public OpenSearchTermQueryCache.Stats getTermQueryCacheStats() {
+        return termQueryCache == null ? null : termQueryCache.getStats();
+    }
+
+    /**
+     * @param mappingVersion The current mapping version of the index
+     * @return The term query cache of this shard, or null if it isn't enabled
+     */
+    public OpenSearchTermQueryCache getTermQueryCache(final long mappingVersion) {
+        return termQueryCache == null ? null : termQueryCache.forMappingVersion(mappingVersion);
+    }
+
+    /**
+     * @param mappingVersion The current mapping version of the index
+     * @return The query analyzer for the mapping version, or null if the analyzer can't be shared
+     */
+    public Analyzer getQueryAnalyzer(final long mappingVersion) {
+        if (indexService == null) {
+            return null;
+        }
+        VersionedQueryAnalyzer analyzer = queryAnalyzer;
+        if (analyzer == null || analyzer.mappingVersion != mappingVersion) {
+            final MapperService mapperService = indexService.mapperService();
+            analyzer = new VersionedQueryAnalyzer(mappingVersion,
+                    new DismaxSearchEngineRequestAdapter.MapperAnalyzerWrapper(mapperService::fieldType,
+                            () -> mapperService.getIndexAnalyzers().getDefaultSearchAnalyzer()));
+            queryAnalyzer = analyzer;
+        }
+        return analyzer.analyzer;
+    }
+
+    public boolean isLoaded(final String rewriterId) {
+        return factories.get(rewriterId) != null;
     }
 
     public void clearRewriter(final String rewriterId) {
         factories.invalidate(rewriterId);
+        invalidateRewriteChains();
     }
 
     public void clearRewriters() {
         factories.invalidateAll();
+        invalidateRewriteChains();
+    }
+
+    private void invalidateRewriteChains() {
+        // Never the shared empty map: a query that took its snapshot before the invalidation must fail its
+        // compareAndSet
+        chains.set(Collections.unmodifiableMap(new HashMap<>()));
     }
 
-    public void reloadRewriter(final String rewriterId) {
-        if (factories.get(rewriterId) != null) {
-            loadFactory(rewriterId, true);
+    /**
+     * Replace the rewriter by a rewriter that was reloaded on this node - if the rewriter is used by this shard.
+     *
+     * @param rewriter The reloaded rewriter
+     */
+    public void reloadRewriter(final LoadedRewriter rewriter) {
+        final RewriterFactoryAndLogging bound = factories.get(rewriter.rewriterId);
+        // Nothing to do if the rewriter isn't used on this shard or if the shard already uses this or a later
+        // generation
+        if (bound == null || bound.generation >= rewriter.generation) {
+            return;
+        }
+        final RewriterFactoryAndLogging factoryAndLogging = bind(rewriter);
+        synchronized (this) {
+            final RewriterFactoryAndLogging current = factories.get(rewriter.rewriterId);
+            if (current != null && current.generation < factoryAndLogging.generation) {
+                factories.put(rewriter.rewriterId, factoryAndLogging);
+                invalidateRewriteChains();
+            }
         }
     }
 
-    public synchronized RewriterFactoryAndLogging loadFactory(final String rewriterId, final boolean forceLoad) {
+    public RewriterFactoryAndLogging loadFactory(final String rewriterId) {
+        final RewriterFactoryAndLogging factoryAndLogging = bind(rewriterRegistry.getRewriter(rewriterId));
+        synchronized (this) {
+            // A rewriter that was reloaded while we were binding this one is newer
+            final RewriterFactoryAndLogging current = factories.get(rewriterId);
+            if (current != null && current.generation > factoryAndLogging.generation) {
+                return current;
+            }
+            factories.put(rewriterId, factoryAndLogging);
+        }
+        return factoryAndLogging;
+    }
 
-        RewriterFactoryAndLogging factoryAndLogging = factories.get(rewriterId);
+    private RewriterFactoryAndLogging bind(final LoadedRewriter rewriter) {
+        final RewriterFactory factory = rewriter.isShardIndependent()
+                ? rewriter.getRewriterFactory(null)
+                : rewriter.getRewriterFactory(indexService.getShard(shardId.id()));
+        if (!instrumentRewriters) {
+            return new RewriterFactoryAndLogging(factory, rewriter.loggingEnabled, rewriter.generation);
+        }
+        final RewriterStats stats = rewriterRegistry.getStats();
+        return new RewriterFactoryAndLogging(new InstrumentedRewriterFactory(factory,
+                stats.forRewriter(rewriter.rewriterId), stats::isRewriteSampled),
+                rewriter.loggingEnabled, rewriter.generation);
+    }
 
-        if (forceLoad || (factoryAndLogging == null)) {
+    private static class VersionedQueryAnalyzer {
 
-            final GetResponse response;
+        final long mappingVersion;
+        final Analyzer analyzer;
 
-            try {
-                response = client.prepareGet(QUERQY_INDEX_NAME, rewriterId).execute().get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new OpenSearchException("Could not load rewriter " + rewriterId, e);
-            }
+        VersionedQueryAnalyzer(final long mappingVersion, final Analyzer analyzer) {
+            this.mappingVersion = mappingVersion;
+            this.analyzer = analyzer;
+        }
+    }
 
-            final Map<String, Object> source = response.getSource();
+    private static class CachedRewriteChain {
 
-            if (source == null) {
-                throw new ResourceNotFoundException("Rewriter not found: " + rewriterId);
-            }
+        final RewriterFactoryAndLogging[] members;
+        final RewriteChainAndLogging rewriteChainAndLogging;
 
-            if (!"rewriter".equals(source.get(RewriterConfigMapping.PROP_TYPE))) {
-                throw new InvalidTypeNameException("Not a rewriter: " + rewriterId);
-            }
+        CachedRewriteChain(final RewriterFactoryAndLogging[] members,
+                           final RewriteChainAndLogging rewriteChainAndLogging) {
+            this.members = members;
+            this.rewriteChainAndLogging = rewriteChainAndLogging;
+        }
 
-            final LoadRewriterConfig loadConfig = new LoadRewriterConfig(rewriterId, source);
-
-            final Map<String, Object> infoLogging = loadConfig.getInfoLoggingConfig();
-            final boolean loggingEnabled;
-            if (infoLogging != null) {
-                final Object sinksObj = infoLogging.get("sinks");
-                if (sinksObj instanceof String) {
-                    loggingEnabled = "log4j".equals(sinksObj);
-                } else if (sinksObj instanceof final Collection<?> sinksCollection) {
-                    loggingEnabled = (!sinksCollection.isEmpty()) && sinksCollection.contains("log4j");
-                } else {
-                    loggingEnabled = false;
+        boolean isValid(final List<String> rewriterIds, final Cache<String, RewriterFactoryAndLogging> factories) {
+            for (int i = 0; i < members.length; i++) {
+                if (factories.get(rewriterIds.get(i)) != members[i]) {
+                    return false;
                 }
-            } else {
-                loggingEnabled = false;
             }
-
-            final RewriterFactory factory = OpenSearchRewriterFactory.loadConfiguredInstance(loadConfig)
-                    .createRewriterFactory(indexService.getShard(shardId.id()));
-            factoryAndLogging = new RewriterFactoryAndLogging(factory, loggingEnabled);
-            factories.put(rewriterId, factoryAndLogging);
-
-
+            return true;
         }
-
-        return factoryAndLogging;
-
     }
 
-
     public static class RewriterFactoryAndLogging {
         public final RewriterFactory rewriterFactory;
         public final boolean loggingEnabled;
 
+        /**
+         * The {@link LoadedRewriter#generation generation} of the rewriter
+         */
+        public final long generation;
+
         public RewriterFactoryAndLogging(final RewriterFactory rewriterFactory, final boolean loggingEnabled) {
+            this(rewriterFactory, loggingEnabled, 0L);
+        }
+
+        public RewriterFactoryAndLogging(final RewriterFactory rewriterFactory, final boolean loggingEnabled,
+                                         final long generation) {
             this.rewriterFactory = rewriterFactory;
             this.loggingEnabled = loggingEnabled;
+            this.generation = generation;
         }
     }
-}
\ No newline at end of file
+}
@@ -21,6 +21,7 @@ package querqy.opensearch;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.opensearch.OpenSearchException;
+import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.cluster.routing.ShardRouting;
 import org.opensearch.common.inject.Inject;
 import org.opensearch.common.settings.Settings;
@@ -29,10 +30,22 @@ import org.opensearch.index.shard.IndexEventListener;
 import org.opensearch.index.shard.IndexShard;
 import org.opensearch.core.index.shard.ShardId;
 import org.opensearch.indices.IndicesService;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.client.Client;
+import querqy.opensearch.RewriterRegistry.LoadedRewriter;
+import querqy.opensearch.rewriterstore.NodesReloadRewriterResponse.ReloadFailure;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 public class RewriterShardContexts implements IndexEventListener {
 
@@ -40,74 +53,328 @@ public class RewriterShardContexts implements IndexEventListener {
 
 
     private final Map<ShardId, RewriterShardContext> shardContexts;
+    private final RewriterRegistry rewriterRegistry;
+    private final RewriterWarmup rewriterWarmup;
 
     private IndicesService indicesService;
+    private ThreadPool threadPool;
     private Settings settings;
+    private final boolean isDataNode;
+    private volatile Runnable rewritersChangedListener = () -> {};
 
     public RewriterShardContexts(final Settings settings) {
         this.settings = settings;
+        isDataNode = DiscoveryNode.isDataNode(settings);
         shardContexts = new ConcurrentHashMap<>();
+        rewriterRegistry = new RewriterRegistry(settings);
+        // The shards must let go of an evicted rewriter, otherwise its memory wouldn't be freed
+        rewriterRegistry.setEvictionListener(rewriterId -> {
+            shardContexts.values().forEach(ctx -> ctx.clearRewriter(rewriterId));
+            rewritersChangedListener.run();
+        });
+        rewriterWarmup = new RewriterWarmup(settings, isDataNode, rewriterRegistry);
     }
 
     public RewriteChainAndLogging getRewriteChain(final List<String> rewriterIds,
                                                   final QueryShardContext context) {
+        return getShardContext(context).getRewriteChain(rewriterIds);
+    }
+
+    public RewriterShardContext getShardContext(final QueryShardContext context) {
 
         final ShardId shardId = new ShardId(context.getFullyQualifiedIndex(), context.getShardId());
-        RewriterShardContext shardContext = shardContexts.get(shardId);
+        final RewriterShardContext shardContext = shardContexts.get(shardId);
 
-        if (shardContext == null) {
-            shardContext = loadShardContext(shardId, context);
-        }
+        return shardContext != null ? shardContext : loadShardContext(shardId, context);
+    }
+
+    /**
+     * Rewriters are only needed on the nodes that build the queries for their shards. Other nodes, like dedicated
+     * coordinating nodes, never load them.
+     *
+     * @param rewriterIds The rewriter IDs
+     * @return true iff this is a data node and some of the rewriters haven't been loaded on it yet
+     */
+    public boolean needsToLoadRewriters(final List<String> rewriterIds) {
+        return isDataNode && !rewriterRegistry.areLoaded(rewriterIds);
+    }
+
+    protected RewriterShardContext loadShardContext(final ShardId shardId, final QueryShardContext context) {
+        return shardContexts.computeIfAbsent(shardId, id -> new RewriterShardContext(id,
+                indicesService.indexService(id.getIndex()), settings, rewriterRegistry));
+    }
 
-        return shardContext.getRewriteChain(rewriterIds);
+    /**
+     * <p>Reload the rewriters that are in use on this node. Rewriters that aren't in use will be loaded on first use.
+     * </p>
+     *
+     * <p>Each rewriter is built once for all shards, and the shard-dependent rewriters are then bound to each shard.
+     * Both steps run in parallel on the {@link RewriterRegistry#LOAD_THREAD_POOL_NAME} thread pool, bounded by its
+     * size. They don't hold a lock, and queries keep using the current version of a rewriter until the new version has
+     * been published. A rewriter that fails to reload for one shard is still reloaded for the other shards. A rewriter
+     * whose config hash didn't change is kept and only bound to the shards that don't use it yet.</p>
+     *
+     * @param rewriterIds The rewriter IDs
+     * @return What happened to each rewriter
+     */
+    public ReloadResult reloadRewriters(final List<String> rewriterIds) {
+        return reloadRewriters(rewriterIds, Collections.emptyMap());
     }
 
-    protected synchronized RewriterShardContext loadShardContext(final ShardId shardId,
-                                                                 final QueryShardContext context) {
-        RewriterShardContext shardContext = shardContexts.get(shardId);
+    /**
+     * Like {@link #reloadRewriters(List)}, but a loaded rewriter whose config hash equals the given hash is kept
+     * without reading its config.
+     *
+     * @param rewriterIds The rewriter IDs
+     * @param configHashes The config hashes of the saved rewriters by rewriter ID
+     * @return What happened to each rewriter
+     */
+    public ReloadResult reloadRewriters(final List<String> rewriterIds, final Map<String, String> configHashes) {
+
+        final List<String> inUse = new ArrayList<>(rewriterIds.size());
+        final List<String> notLoaded = new ArrayList<>();
+        rewriterIds.stream().distinct().forEach(rewriterId -> {
+            if (rewriterRegistry.isLoaded(rewriterId)
+                    || shardContexts.values().stream().anyMatch(ctx -> ctx.isLoaded(rewriterId))) {
+                inUse.add(rewriterId);
+            } else {
+                notLoaded.add(rewriterId);
+            }
+        });
+
+        final List<ReloadFailure> failures = Collections.synchronizedList(new ArrayList<>());
 
-        if (shardContext == null) {
-            shardContext = new RewriterShardContext(shardId, indicesService.indexService(shardId.getIndex()),  settings,
-                    context.getClient());
-            shardContexts.put(shardId, shardContext);
+        // Load and configure each rewriter once for all shards
+        final LoadedRewriter[] rewriters = new LoadedRewriter[inUse.size()];
+        final boolean[] unchanged = new boolean[inUse.size()];
+        final List<Runnable> loadTasks = new ArrayList<>(inUse.size());
+        for (int i = 0; i < rewriters.length; i++) {
+            final int index = i;
+            final String rewriterId = inUse.get(i);
+            loadTasks.add(() -> {
+                try {
+                    final LoadedRewriter previous = rewriterRegistry.getLoadedRewriter(rewriterId);
+                    final String configHash = configHashes.get(rewriterId);
+                    rewriters[index] = previous != null && configHash != null
+                            && configHash.equals(previous.configHash)
+                            ? previous
+                            : rewriterRegistry.reloadRewriter(rewriterId);
+                    unchanged[index] = rewriters[index] == previous;
+                } catch (final Exception e) {
+                    LOGGER.error("Error reloading rewriter " + rewriterId, e);
+                    failures.add(new ReloadFailure(rewriterId, null, e));
+                }
+            });
         }
+        runInParallel(loadTasks);
 
-        return shardContext;
+        // Only shard-dependent rewriters create a RewriterFactory per shard, which is worth a thread. The shards
+        // usually use an unchanged rewriter already, so that binding it is a no-op.
+        final List<Runnable> bindTasks = new ArrayList<>();
+        final List<String> reloadedIds = new ArrayList<>(rewriters.length);
+        final List<String> unchangedIds = new ArrayList<>();
+        for (int i = 0; i < rewriters.length; i++) {
+            final LoadedRewriter rewriter = rewriters[i];
+            if (rewriter == null) {
+                continue;
+            }
+            (unchanged[i] ? unchangedIds : reloadedIds).add(rewriter.rewriterId);
+            for (final RewriterShardContext ctx : shardContexts.values()) {
+                final Runnable bindTask = () -> {
+                    try {
+                        ctx.reloadRewriter(rewriter);
+                    } catch (final Exception e) {
+                        LOGGER.error("Error reloading rewriter " + rewriter.rewriterId + " for shard " + ctx.shardId,
+                                e);
+                        failures.add(new ReloadFailure(rewriter.rewriterId, ctx.shardId.toString(), e));
+                    }
+                };
+                if (rewriter.isShardIndependent() || unchanged[i]) {
+                    bindTask.run();
+                } else {
+                    bindTasks.add(bindTask);
+                }
+            }
+        }
+        runInParallel(bindTasks);
+
+        if (!reloadedIds.isEmpty()) {
+            rewritersChangedListener.run();
+        }
+
+        return new ReloadResult(reloadedIds, unchangedIds, notLoaded, new ArrayList<>(failures));
     }
 
-    public synchronized void reloadRewriter(final String rewriterId) {
-        shardContexts.values().forEach(ctx -> {
+    /**
+     * Runs the tasks on at most as many threads of the load thread pool as the pool has, so that the tasks don't fill
+     * its queue. Tasks must handle their exceptions.
+     */
+    private void runInParallel(final List<Runnable> tasks) {
+
+        if (tasks.size() < 2 || threadPool == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<>(tasks);
+        final int numWorkers = Math.min(tasks.size(),
+                threadPool.info(RewriterRegistry.LOAD_THREAD_POOL_NAME).getMax());
+        final CountDownLatch done = new CountDownLatch(numWorkers);
+        final Runnable worker = () -> {
             try {
-                ctx.reloadRewriter(rewriterId);
-            } catch (final Exception e) {
-                LOGGER.error("Error reloading rewriter " + rewriterId, e);
-                throw new OpenSearchException("Could not reload rewriter " + rewriterId, e);
+                Runnable task;
+                while ((task = queue.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                done.countDown();
             }
-        });
+        };
+
+        final ExecutorService executor = threadPool.executor(RewriterRegistry.LOAD_THREAD_POOL_NAME);
+        for (int i = 0; i < numWorkers; i++) {
+            try {
+                executor.execute(worker);
+            } catch (final RejectedExecutionException e) {
+                worker.run();
+            }
+        }
+
+        try {
+            done.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OpenSearchException("Interrupted while reloading rewriters", e);
+        }
     }
 
     public void clearRewriter(final String rewriterId) {
+        rewriterRegistry.clearRewriter(rewriterId);
         shardContexts.values().forEach(ctx -> ctx.clearRewriter(rewriterId));
+        rewritersChangedListener.run();
     }
 
     public void clearRewriters() {
+        rewriterRegistry.clearRewriters();
         shardContexts.values().forEach(RewriterShardContext::clearRewriters);
+        rewritersChangedListener.run();
+    }
+
+    /**
+     * @param rewritersChangedListener Is run after rewriters were reloaded, cleared or evicted on this node
+     */
+    public void setRewritersChangedListener(final Runnable rewritersChangedListener) {
+        this.rewritersChangedListener = rewritersChangedListener;
     }
 
     @Override
-    public synchronized void shardRoutingChanged(final IndexShard indexShard, final ShardRouting oldRouting,
-                                                 final ShardRouting newRouting) {
-        shardContexts.remove(indexShard.shardId());
+    public void afterIndexShardStarted(final IndexShard indexShard) {
+        rewriterWarmup.start();
     }
 
+    /**
+     * Keeps the loaded rewriters of a shard if the routing change doesn't affect the shard copy on this node, for
+     * example, if a replica is promoted to primary. The rewriters are only dropped if the shard copy was reallocated.
+     */
     @Override
-    public synchronized void afterIndexShardClosed(final ShardId shardId, final IndexShard indexShard, final Settings indexSettings) {
+    public void shardRoutingChanged(final IndexShard indexShard, final ShardRouting oldRouting,
+                                    final ShardRouting newRouting) {
+        if (!isSameAllocation(oldRouting, newRouting)) {
+            shardContexts.remove(indexShard.shardId());
+        }
+    }
+
+    @Override
+    public void afterIndexShardClosed(final ShardId shardId, final IndexShard indexShard, final Settings indexSettings) {
         shardContexts.remove(shardId);
     }
 
+    static boolean isSameAllocation(final ShardRouting oldRouting, final ShardRouting newRouting) {
+        // The allocation ID of a shard copy stays the same while it is promoted to primary or relocated to another
+        // node - only the relocation ID changes
+        return oldRouting != null && newRouting != null
+                && oldRouting.allocationId() != null && newRouting.allocationId() != null
+                && Objects.equals(oldRouting.allocationId().getId(), newRouting.allocationId().getId())
+                && Objects.equals(oldRouting.currentNodeId(), newRouting.currentNodeId());
+    }
+
     @Inject
     public void setIndicesService(final IndicesService indicesService) {
         this.indicesService = indicesService;
     }
 
+    public void setClient(final Client client) {
+        rewriterRegistry.setClient(client);
+        rewriterWarmup.setClient(client);
+    }
+
+    public void setThreadPool(final ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        rewriterRegistry.setThreadPool(threadPool);
+        rewriterWarmup.setThreadPool(threadPool);
+    }
+
+    /**
+     * @return The statistics of the term query caches of the shards on this node, added up
+     */
+    public OpenSearchTermQueryCache.Stats getTermQueryCacheStats() {
+        OpenSearchTermQueryCache.Stats stats = OpenSearchTermQueryCache.Stats.EMPTY;
+        for (final RewriterShardContext ctx : shardContexts.values()) {
+            final OpenSearchTermQueryCache.Stats shardStats = ctx.getTermQueryCacheStats();
+            if (shardStats != null) {
+                stats = stats.add(shardStats);
+            }
+        }
+        return stats;
+    }
+
+    public RewriterRegistry getRewriterRegistry() {
+        return rewriterRegistry;
+    }
+
+    public RewriterWarmup getRewriterWarmup() {
+        return rewriterWarmup;
+    }
+
+
+    /**
+     * The outcome of reloading rewriters on this node
+     */
+    public static class ReloadResult {
+
+        private final List<String> reloaded;
+        private final List<String> unchanged;
+        private final List<String> notLoaded;
+        private final List<ReloadFailure> failures;
+
+        /**
+         * @param reloaded The IDs of the rewriters that were built again
+         * @param unchanged The IDs of the rewriters that were kept because their config hash didn't change
+         * @param notLoaded The IDs of the rewriters that weren't in use on this node and will be loaded on first use
+         * @param failures The rewriters or shards that couldn't be reloaded
+         */
+        public ReloadResult(final List<String> reloaded, final List<String> unchanged, final List<String> notLoaded,
+                            final List<ReloadFailure> failures) {
+            this.reloaded = reloaded;
+            this.unchanged = unchanged;
+            this.notLoaded = notLoaded;
+            this.failures = failures;
+        }
+
+        public List<String> getReloaded() {
+            return reloaded;
+        }
+
+        public List<String> getUnchanged() {
+            return unchanged;
+        }
+
+        public List<String> getNotLoaded() {
+            return notLoaded;
+        }
+
+        public List<ReloadFailure> getFailures() {
+            return failures;
+        }
+    }
 }
\ No newline at end of file
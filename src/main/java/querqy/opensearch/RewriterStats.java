@@ -0,0 +1,331 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Usage statistics of the rewriters that are loaded on this node, kept per rewriter ID.</p>
+ *
+ * <p>Loads and cache hits are recorded by the {@link RewriterRegistry}. Statistics are only kept for rewriters that
+ * were loaded successfully, and they are removed when the rewriter is cleared or evicted, so that requests for
+ * unknown rewriter IDs don't add any entries.</p>
+ *
+ * <p>Rewrites are recorded by the rewriter factory wrappers that the {@link RewriterShardContext} binds to the shards,
+ * but only if enabled by {@link #REWRITE_STATS_ENABLED}, and only for a sample of the rewrites, which is set by
+ * {@link #REWRITE_STATS_SAMPLE_RATE}. Rewrites that are not sampled don't read the clock.</p>
+ */
+public class RewriterStats {
+
+    public static final Setting<Boolean> REWRITE_STATS_ENABLED = Setting.boolSetting(
+            "querqy.stats.rewrites.enabled",
+            false,
+            Setting.Property.NodeScope);
+
+    /**
+     * The share of the rewrites that are recorded, between 0 and 1
+     */
+    public static final Setting<Double> REWRITE_STATS_SAMPLE_RATE = Setting.doubleSetting(
+            "querqy.stats.rewrites.sample_rate",
+            0.1,
+            0.0,
+            1.0,
+            Setting.Property.NodeScope);
+
+    static final double[] PERCENTILES = {50.0, 95.0, 99.0};
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final boolean rewriteStatsEnabled;
+    private final double rewriteSampleRate;
+
+    public RewriterStats(final Settings settings) {
+        rewriteStatsEnabled = REWRITE_STATS_ENABLED.get(settings);
+        rewriteSampleRate = REWRITE_STATS_SAMPLE_RATE.get(settings);
+    }
+
+    /**
+     * Get the statistics of a rewriter, creating them if they don't exist. Must only be called for rewriters that
+     * were loaded successfully.
+     *
+     * @param rewriterId The rewriter ID
+     * @return The statistics of the rewriter
+     */
+    public Counters forRewriter(final String rewriterId) {
+        return counters.computeIfAbsent(rewriterId, id -> new Counters());
+    }
+
+    /**
+     * Record a cache hit if statistics are kept for the rewriter
+     *
+     * @param rewriterId The rewriter ID
+     */
+    public void recordCacheHit(final String rewriterId) {
+        final Counters rewriterCounters = counters.get(rewriterId);
+        if (rewriterCounters != null) {
+            rewriterCounters.recordCacheHit();
+        }
+    }
+
+    /**
+     * @param rewriterId The ID of a rewriter that was cleared or evicted
+     */
+    public void remove(final String rewriterId) {
+        counters.remove(rewriterId);
+    }
+
+    /**
+     * @return true iff the current rewrite should be recorded
+     */
+    public boolean isRewriteSampled() {
+        if (!rewriteStatsEnabled) {
+            return false;
+        }
+        return rewriteSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rewriteSampleRate;
+    }
+
+    /**
+     * @param rewriterIds The IDs of the rewriters to report, or an empty collection to report all rewriters
+     * @return The current statistics by rewriter ID
+     */
+    public Map<String, Snapshot> snapshot(final Collection<String> rewriterIds) {
+        final Map<String, Snapshot> snapshots = new TreeMap<>();
+        if (rewriterIds.isEmpty()) {
+            counters.forEach((rewriterId, rewriterCounters) -> snapshots.put(rewriterId, rewriterCounters.snapshot()));
+        } else {
+            for (final String rewriterId : rewriterIds) {
+                final Counters rewriterCounters = counters.get(rewriterId);
+                if (rewriterCounters != null) {
+                    snapshots.put(rewriterId, rewriterCounters.snapshot());
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    public static class Counters {
+
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder loadTimeNanos = new LongAdder();
+        private volatile long lastLoadTimeNanos = 0L;
+        private volatile long estimatedSizeInBytes = 0L;
+        private final LongAdder changedQueries = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LatencyHistogram rewriteTime = new LatencyHistogram();
+
+        public void recordLoad(final long nanos, final long estimatedSizeInBytes) {
+            loads.increment();
+            loadTimeNanos.add(nanos);
+            lastLoadTimeNanos = nanos;
+            this.estimatedSizeInBytes = estimatedSizeInBytes;
+        }
+
+        public void recordRewrite(final long nanos, final boolean changedQuery) {
+            rewriteTime.record(nanos);
+            if (changedQuery) {
+                changedQueries.increment();
+            }
+        }
+
+        public void recordCacheHit() {
+            cacheHits.increment();
+        }
+
+        public void recordCacheMiss() {
+            cacheMisses.increment();
+        }
+
+        public Snapshot snapshot() {
+            return new Snapshot(loads.sum(), loadTimeNanos.sum(), lastLoadTimeNanos, estimatedSizeInBytes,
+                    rewriteTime.getCount(), changedQueries.sum(), rewriteTime.getSum(), rewriteTime.getMax(),
+                    rewriteTime.getPercentiles(PERCENTILES), cacheHits.sum(), cacheMisses.sum());
+        }
+    }
+
+    /**
+     * The statistics of a rewriter at a point in time
+     */
+    public static class Snapshot implements Writeable, ToXContentObject {
+
+        private final long loads;
+        private final long loadTimeNanos;
+        private final long lastLoadTimeNanos;
+        private final long estimatedSizeInBytes;
+        private final long rewrites;
+        private final long changedQueries;
+        private final long rewriteTimeNanos;
+        private final long maxRewriteTimeNanos;
+        private final long[] rewriteTimePercentilesNanos;
+        private final long cacheHits;
+        private final long cacheMisses;
+
+        public Snapshot(final long loads, final long loadTimeNanos, final long lastLoadTimeNanos,
+                        final long estimatedSizeInBytes, final long rewrites, final long changedQueries,
+                        final long rewriteTimeNanos, final long maxRewriteTimeNanos,
+                        final long[] rewriteTimePercentilesNanos, final long cacheHits, final long cacheMisses) {
+            if (rewriteTimePercentilesNanos.length != PERCENTILES.length) {
+                throw new IllegalArgumentException("Expected " + PERCENTILES.length + " percentiles");
+            }
+            this.loads = loads;
+            this.loadTimeNanos = loadTimeNanos;
+            this.lastLoadTimeNanos = lastLoadTimeNanos;
+            this.estimatedSizeInBytes = estimatedSizeInBytes;
+            this.rewrites = rewrites;
+            this.changedQueries = changedQueries;
+            this.rewriteTimeNanos = rewriteTimeNanos;
+            this.maxRewriteTimeNanos = maxRewriteTimeNanos;
+            this.rewriteTimePercentilesNanos = rewriteTimePercentilesNanos;
+            this.cacheHits = cacheHits;
+            this.cacheMisses = cacheMisses;
+        }
+
+        public Snapshot(final StreamInput in) throws IOException {
+            loads = in.readVLong();
+            loadTimeNanos = in.readVLong();
+            lastLoadTimeNanos = in.readVLong();
+            estimatedSizeInBytes = in.readVLong();
+            rewrites = in.readVLong();
+            changedQueries = in.readVLong();
+            rewriteTimeNanos = in.readVLong();
+            maxRewriteTimeNanos = in.readVLong();
+            rewriteTimePercentilesNanos = in.readVLongArray();
+            cacheHits = in.readVLong();
+            cacheMisses = in.readVLong();
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            out.writeVLong(loads);
+            out.writeVLong(loadTimeNanos);
+            out.writeVLong(lastLoadTimeNanos);
+            out.writeVLong(estimatedSizeInBytes);
+            out.writeVLong(rewrites);
+            out.writeVLong(changedQueries);
+            out.writeVLong(rewriteTimeNanos);
+            out.writeVLong(maxRewriteTimeNanos);
+            out.writeVLongArray(rewriteTimePercentilesNanos);
+            out.writeVLong(cacheHits);
+            out.writeVLong(cacheMisses);
+        }
+
+        public long getLoads() {
+            return loads;
+        }
+
+        public long getRewrites() {
+            return rewrites;
+        }
+
+        public long getChangedQueries() {
+            return changedQueries;
+        }
+
+        public long getCacheHits() {
+            return cacheHits;
+        }
+
+        public long getCacheMisses() {
+            return cacheMisses;
+        }
+
+        public long getEstimatedSizeInBytes() {
+            return estimatedSizeInBytes;
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            builder.startObject();
+
+            builder.startObject("load");
+            builder.field("count", loads);
+            builder.field("time_in_millis", TimeUnit.NANOSECONDS.toMillis(loadTimeNanos));
+            builder.field("last_time_in_millis", TimeUnit.NANOSECONDS.toMillis(lastLoadTimeNanos));
+            builder.endObject();
+
+            builder.field("estimated_size_in_bytes", estimatedSizeInBytes);
+
+            builder.startObject("rewrite");
+            builder.field("count", rewrites);
+            builder.field("changed_query_count", changedQueries);
+            builder.field("time_in_millis", TimeUnit.NANOSECONDS.toMillis(rewriteTimeNanos));
+            builder.field("max_time_in_micros", TimeUnit.NANOSECONDS.toMicros(maxRewriteTimeNanos));
+            builder.startObject("time_percentiles_in_micros");
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                builder.field(String.valueOf(PERCENTILES[i]),
+                        TimeUnit.NANOSECONDS.toMicros(rewriteTimePercentilesNanos[i]));
+            }
+            builder.endObject();
+            builder.endObject();
+
+            builder.startObject("cache");
+            builder.field("hit_count", cacheHits);
+            builder.field("miss_count", cacheMisses);
+            builder.endObject();
+
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Snapshot that = (Snapshot) o;
+            return loads == that.loads
+                    && loadTimeNanos == that.loadTimeNanos
+                    && lastLoadTimeNanos == that.lastLoadTimeNanos
+                    && estimatedSizeInBytes == that.estimatedSizeInBytes
+                    && rewrites == that.rewrites
+                    && changedQueries == that.changedQueries
+                    && rewriteTimeNanos == that.rewriteTimeNanos
+                    && maxRewriteTimeNanos == that.maxRewriteTimeNanos
+                    && Arrays.equals(rewriteTimePercentilesNanos, that.rewriteTimePercentilesNanos)
+                    && cacheHits == that.cacheHits
+                    && cacheMisses == that.cacheMisses;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(loads, loadTimeNanos, lastLoadTimeNanos, estimatedSizeInBytes, rewrites,
+                    changedQueries, rewriteTimeNanos, maxRewriteTimeNanos,
+                    Arrays.hashCode(rewriteTimePercentilesNanos), cacheHits, cacheMisses);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.support.IndicesOptions;
+import org.opensearch.common.settings.Setting;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.client.Client;
+import querqy.opensearch.rewriterstore.RewriterConfigMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * <p>Preloads rewriters on a data node in the background, so that the first queries after a node (re)start or a shard
+ * relocation don't have to wait for the rewriters to be loaded.</p>
+ *
+ * <p>The warm-up is started when the first shard is started on the node. It loads the rewriters that are configured
+ * in {@link #WARMUP_REWRITERS} or all rewriters in the rewriter index if none are configured. The rewriters are loaded
+ * by at most as many concurrent loads as the load thread pool has threads, so that the warm-up doesn't fill the queue
+ * of the pool. If the rewriters to load cannot be determined, the warm-up is retried after
+ * {@link #WARMUP_RETRY_DELAY}.</p>
+ */
+public class RewriterWarmup {
+
+    public static final Setting<Boolean> WARMUP_ENABLED = Setting.boolSetting(
+            "querqy.warmup.enabled",
+            false,
+            Setting.Property.NodeScope);
+
+    public static final Setting<List<String>> WARMUP_REWRITERS = Setting.listSetting(
+            "querqy.warmup.rewriters",
+            Collections.emptyList(), // load all rewriters by default
+            Function.identity(),
+            Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> WARMUP_RETRY_DELAY = Setting.positiveTimeSetting(
+            "querqy.warmup.retry_delay",
+            TimeValue.timeValueSeconds(30),
+            Setting.Property.NodeScope);
+
+    /**
+     * The maximum number of rewriters that will be loaded if no rewriters are configured. This is the default value
+     * of the index.max_result_window setting.
+     */
+    static final int MAX_WARMUP_REWRITERS = 10000;
+
+    private static final Logger LOGGER = LogManager.getLogger(RewriterWarmup.class);
+
+    public enum State {
+
+        /**
+         * Warm-up is not enabled or this node doesn't hold any data
+         */
+        DISABLED(true),
+
+        /**
+         * No shard has been started on this node yet
+         */
+        PENDING(false),
+
+        IN_PROGRESS(false),
+
+        /**
+         * All rewriters were attempted to be loaded. Rewriters that could not be loaded are counted as failed.
+         */
+        DONE(true),
+
+        /**
+         * The rewriters to load couldn't be determined. The warm-up is retried after {@link #WARMUP_RETRY_DELAY} or
+         * when the next shard is started.
+         */
+        FAILED(false);
+
+        public final boolean ready;
+
+        State(final boolean ready) {
+            this.ready = ready;
+        }
+    }
+
+    private final RewriterRegistry rewriterRegistry;
+    private final List<String> configuredRewriterIds;
+    private final TimeValue retryDelay;
+    private final AtomicReference<State> state;
+    private final AtomicInteger numLoaded = new AtomicInteger();
+    private final AtomicInteger numFailed = new AtomicInteger();
+    private volatile int numRewriters = 0;
+    private Client client;
+
+    /**
+     * Null in tests. Loads are started one by one and failures are not retried without it.
+     */
+    private ThreadPool threadPool;
+
+    public RewriterWarmup(final Settings settings, final boolean isDataNode, final RewriterRegistry rewriterRegistry) {
+        this.rewriterRegistry = rewriterRegistry;
+        configuredRewriterIds = WARMUP_REWRITERS.get(settings);
+        retryDelay = WARMUP_RETRY_DELAY.get(settings);
+        state = new AtomicReference<>(isDataNode && WARMUP_ENABLED.get(settings) ? State.PENDING : State.DISABLED);
+    }
+
+    public void setClient(final Client client) {
+        this.client = client;
+    }
+
+    public void setThreadPool(final ThreadPool threadPool) {
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Start the warm-up unless it is disabled, already running or done. This method doesn't block.
+     */
+    public void start() {
+
+        if (!(state.compareAndSet(State.PENDING, State.IN_PROGRESS)
+                || state.compareAndSet(State.FAILED, State.IN_PROGRESS))) {
+            return;
+        }
+
+        numLoaded.set(0);
+        numFailed.set(0);
+
+        if (configuredRewriterIds.isEmpty()) {
+            loadAllRewriters();
+        } else {
+            loadRewriters(configuredRewriterIds);
+        }
+
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public int getNumRewriters() {
+        return numRewriters;
+    }
+
+    public int getNumLoaded() {
+        return numLoaded.get();
+    }
+
+    public int getNumFailed() {
+        return numFailed.get();
+    }
+
+    protected void loadAllRewriters() {
+
+        client.prepareSearch(QUERQY_INDEX_NAME)
+                .setIndicesOptions(IndicesOptions.lenientExpandOpen())
+                .setPreference("_local")
+                .setQuery(QueryBuilders.termQuery(RewriterConfigMapping.PROP_TYPE, "rewriter"))
+                .setFetchSource(false)
+                .setSize(MAX_WARMUP_REWRITERS)
+                .execute(new ActionListener<SearchResponse>() {
+
+                    @Override
+                    public void onResponse(final SearchResponse searchResponse) {
+
+                        if (searchResponse.getFailedShards() > 0) {
+                            fail(null);
+                            return;
+                        }
+
+                        final SearchHit[] hits = searchResponse.getHits().getHits();
+                        final List<String> rewriterIds = new ArrayList<>(hits.length);
+                        for (final SearchHit hit : hits) {
+                            rewriterIds.add(hit.getId());
+                        }
+                        loadRewriters(rewriterIds);
+
+                    }
+
+                    @Override
+                    public void onFailure(final Exception e) {
+                        if ((e instanceof IndexNotFoundException) || (e.getCause() instanceof IndexNotFoundException)) {
+                            // No rewriters have been stored yet
+                            loadRewriters(Collections.emptyList());
+                        } else {
+                            fail(e);
+                        }
+                    }
+                });
+
+    }
+
+    protected void loadRewriters(final List<String> rewriterIds) {
+
+        numRewriters = rewriterIds.size();
+
+        if (rewriterIds.isEmpty()) {
+            done();
+            return;
+        }
+
+        LOGGER.info("Warming up {} rewriters", rewriterIds.size());
+
+        final Queue<String> queue = new ConcurrentLinkedQueue<>(rewriterIds);
+        final AtomicInteger pending = new AtomicInteger(rewriterIds.size());
+        final int numWorkers = threadPool == null
+                ? 1
+                : Math.min(rewriterIds.size(), threadPool.info(RewriterRegistry.LOAD_THREAD_POOL_NAME).getMax());
+        for (int i = 0; i < numWorkers; i++) {
+            loadNext(queue, pending);
+        }
+
+    }
+
+    /**
+     * Start loading the next rewriter from the queue. The next load is started when the load has completed, so that
+     * each caller keeps at most one load running.
+     */
+    private void loadNext(final Queue<String> queue, final AtomicInteger pending) {
+
+        String rewriterId;
+        while ((rewriterId = queue.poll()) != null) {
+            if (!rewriterRegistry.isLoaded(rewriterId)) {
+                final String id = rewriterId;
+                rewriterRegistry.loadRewriter(id).whenComplete((ignored, e) -> {
+                    if (e == null) {
+                        numLoaded.incrementAndGet();
+                    } else {
+                        numFailed.incrementAndGet();
+                        LOGGER.warn("Could not warm up rewriter " + id, e);
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        done();
+                    } else {
+                        loadNext(queue, pending);
+                    }
+                });
+                return;
+            }
+            numLoaded.incrementAndGet();
+            if (pending.decrementAndGet() == 0) {
+                done();
+            }
+        }
+
+    }
+
+    private void done() {
+        state.set(State.DONE);
+        LOGGER.info("Rewriter warm-up done. Loaded: {}, failed: {}", numLoaded.get(), numFailed.get());
+    }
+
+    private void fail(final Exception e) {
+        state.set(State.FAILED);
+        if (threadPool == null) {
+            LOGGER.warn("Could not determine the rewriters to warm up", e);
+        } else {
+            LOGGER.warn("Could not determine the rewriters to warm up, retrying in " + retryDelay, e);
+            threadPool.schedule(this::start, retryDelay, ThreadPool.Names.GENERIC);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2021 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch;
+
+import querqy.model.ExpandedQuery;
+import querqy.model.Term;
+import querqy.rewrite.QueryRewriter;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriterFactory;
+import querqy.rewrite.RewriterOutput;
+import querqy.rewrite.SearchEngineRequestAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Captures the query that a rewrite chain produced, and replays it instead of running the chain again.</p>
+ *
+ * <p>The query cache of the {@link QuerqyProcessor} keeps the rewritten queries rather than the Lucene queries built
+ * from them. The Lucene queries hold the document frequency correction state of a single search, which is initialized
+ * lazily and must not be shared across searches. The rewritten query is only read while the Lucene query is built,
+ * so that it can be shared.</p>
+ */
+class RewrittenQueryCapture {
+
+    static final String REWRITER_ID = "querqy_rewritten_query";
+
+    /**
+     * Records the query that it gets at the end of a rewrite chain with the
+     * {@link DismaxSearchEngineRequestAdapter}
+     */
+    static final RewriterFactory CAPTURE = new RewriterFactory(REWRITER_ID) {
+
+        @Override
+        public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+            return (query, requestAdapter) -> {
+                if (requestAdapter instanceof DismaxSearchEngineRequestAdapter) {
+                    ((DismaxSearchEngineRequestAdapter) requestAdapter).setRewrittenQuery(query);
+                }
+                return RewriterOutput.builder().expandedQuery(query).build();
+            };
+        }
+
+        @Override
+        public Set<Term> getGenerableTerms() {
+            return Collections.emptySet();
+        }
+    };
+
+    private RewrittenQueryCapture() {
+    }
+
+    /**
+     * @param rewriteChain The rewrite chain
+     * @return A rewrite chain that runs the rewriters of the chain and then captures the rewritten query
+     */
+    static RewriteChain capturing(final RewriteChain rewriteChain) {
+        final List<RewriterFactory> factories = new ArrayList<>(rewriteChain.getFactories().size() + 1);
+        factories.addAll(rewriteChain.getFactories());
+        factories.add(CAPTURE);
+        return new RewriteChain(factories);
+    }
+
+    /**
+     * @param rewrittenQuery A captured rewritten query
+     * @return A rewrite chain that replaces the parsed query with the rewritten query
+     */
+    static RewriteChain replaying(final ExpandedQuery rewrittenQuery) {
+        return new RewriteChain(Collections.singletonList(new RewriterFactory(REWRITER_ID) {
+
+            @Override
+            public QueryRewriter createRewriter(final SearchEngineRequestAdapter searchEngineRequestAdapter) {
+                return (query, requestAdapter) -> RewriterOutput.builder().expandedQuery(rewrittenQuery).build();
+            }
+
+            @Override
+            public Set<Term> getGenerableTerms() {
+                return Collections.emptySet();
+            }
+        }));
+    }
+
+}
@@ -26,11 +26,14 @@ import org.apache.lucene.search.Query;
 import org.opensearch.core.ParseField;
 import org.opensearch.core.common.ParsingException;
 import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.action.ActionListener;
 import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.core.xcontent.ObjectParser;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
 import org.opensearch.index.query.AbstractQueryBuilder;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryRewriteContext;
 import org.opensearch.index.query.QueryShardContext;
 import querqy.opensearch.QuerqyProcessor;
 import querqy.lucene.LuceneSearchEngineRequestAdapter;
@@ -48,6 +51,11 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
 
     public static final String NAME = "querqy";
 
+    /**
+     * The name under which queries are sent in the {@link QueryWireFormat compact wire format}
+     */
+    public static final String COMPACT_WRITEABLE_NAME = "querqy_compact";
+
     private static final ParseField FIELD_MATCHING_QUERY = new ParseField("matching_query");
     private static final ParseField FIELD_BOOSTING_QUERIES = new ParseField("boosting_queries");
     private static final ParseField FIELD_GENERATED = new ParseField("generated");
@@ -89,8 +97,19 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
 
     private List<Rewriter> rewriters = Collections.emptyList();
 
+    /**
+     * The names of the rewriters, computed on first access
+     */
+    private List<String> rewriterIds = null;
+
     private QuerqyProcessor querqyProcessor;
 
+    /**
+     * Write this query in the compact format? Decided once per instance, so that the name and the format that is
+     * written always match.
+     */
+    private boolean compactWireFormat = false;
+
     private InfoLoggingSpec infoLoggingSpec;
 
     public QuerqyQueryBuilder() {
@@ -101,18 +120,56 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
     public QuerqyQueryBuilder(final QuerqyProcessor querqyProcessor) {
         super();
         this.querqyProcessor = querqyProcessor;
+        compactWireFormat = isCompactWireFormat(querqyProcessor);
+    }
+
+    private QuerqyQueryBuilder(final QuerqyQueryBuilder other) {
+        super();
+        querqyProcessor = other.querqyProcessor;
+        compactWireFormat = other.compactWireFormat;
+        matchingQuery = other.matchingQuery;
+        boostingQueries = other.boostingQueries;
+        generated = other.generated;
+        queryFields = other.queryFields;
+        queryFieldsAndBoostings = other.queryFieldsAndBoostings;
+        minimumShouldMatch = other.minimumShouldMatch;
+        tieBreaker = other.tieBreaker;
+        fieldBoostModel = other.fieldBoostModel;
+        rewriters = other.rewriters;
+        rewriterIds = other.rewriterIds;
+        infoLoggingSpec = other.infoLoggingSpec;
+        boost(other.boost());
+        queryName(other.queryName());
     }
 
     public QuerqyQueryBuilder(final StreamInput in, final QuerqyProcessor querqyProcessor) throws IOException {
+        this(in, querqyProcessor, false);
+    }
+
+    /**
+     * @param in The input to read from
+     * @param querqyProcessor The processor that builds the Lucene query
+     * @param compact Read the {@link QueryWireFormat compact format} instead of the original format?
+     * @throws IOException if the query cannot be read
+     */
+    public QuerqyQueryBuilder(final StreamInput in, final QuerqyProcessor querqyProcessor, final boolean compact)
+            throws IOException {
         super(in);
         this.querqyProcessor = querqyProcessor;
+        compactWireFormat = isCompactWireFormat(querqyProcessor);
 
         matchingQuery = new MatchingQuery(in);
         boostingQueries = in.readOptionalWriteable(BoostingQueries::new);
         generated = in.readOptionalWriteable(Generated::new);
 
-        queryFields = in.readStringList();
-        setQueryFieldsAndBoostings(queryFields);
+        if (compact) {
+            final QueryWireFormat.QueryFields fields = QueryWireFormat.readQueryFields(in);
+            queryFields = fields.queryFields;
+            queryFieldsAndBoostings = fields.queryFieldsAndBoostings;
+        } else {
+            queryFields = in.readStringList();
+            setQueryFieldsAndBoostings(queryFields);
+        }
         minimumShouldMatch = in.readOptionalString();
         tieBreaker = in.readOptionalFloat();
 
@@ -120,10 +177,14 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
         fieldBoostModel = strFieldBoostModel == null
                 ? null : FieldBoostModel.valueOf(strFieldBoostModel);
 
-        final int numRewriters = in.readInt();
-        rewriters = new ArrayList<>(numRewriters);
-        for (int i = 0; i < numRewriters; i++) {
-            rewriters.add(new Rewriter(in));
+        if (compact) {
+            rewriters = QueryWireFormat.readRewriters(in);
+        } else {
+            final int numRewriters = in.readInt();
+            rewriters = new ArrayList<>(numRewriters);
+            for (int i = 0; i < numRewriters; i++) {
+                rewriters.add(new Rewriter(in));
+            }
         }
         infoLoggingSpec = in.readOptionalWriteable(InfoLoggingSpec::new);
     }
@@ -134,13 +195,22 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
         out.writeOptionalWriteable(boostingQueries);
         out.writeOptionalWriteable(generated);
 
-        out.writeStringCollection(queryFields);
+        final boolean compact = compactWireFormat;
+        if (compact) {
+            QueryWireFormat.writeQueryFields(out, queryFields, queryFieldsAndBoostings);
+        } else {
+            out.writeStringCollection(queryFields);
+        }
         out.writeOptionalString(minimumShouldMatch);
         out.writeOptionalFloat(tieBreaker);
         out.writeOptionalString(fieldBoostModel == null ? null : fieldBoostModel.name());
-        out.writeInt(rewriters.size());
-        for (final Rewriter rewriter : rewriters) {
-            rewriter.writeTo(out);
+        if (compact) {
+            QueryWireFormat.writeRewriters(out, rewriters);
+        } else {
+            out.writeInt(rewriters.size());
+            for (final Rewriter rewriter : rewriters) {
+                rewriter.writeTo(out);
+            }
         }
         out.writeOptionalWriteable(infoLoggingSpec);
     }
@@ -217,6 +287,31 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
         return builder;
     }
 
+    /**
+     * Makes sure that the rewriters are loaded on this node before the query is built on the search thread. If a
+     * rewriter still needs to be loaded, loading is registered as an asynchronous action and a copy of this builder
+     * is returned so that the query will be rewritten again once the rewriters are available.
+     */
+    @Override
+    protected QueryBuilder doRewrite(final QueryRewriteContext queryRewriteContext) throws IOException {
+
+        if (querqyProcessor == null || rewriters == null || rewriters.isEmpty()
+                || queryRewriteContext.convertToShardContext() != null) {
+            return this;
+        }
+
+        final List<String> rewriterIds = getRewriterIds();
+
+        if (!querqyProcessor.needsToLoadRewriters(rewriterIds)) {
+            return this;
+        }
+
+        queryRewriteContext.registerAsyncAction((client, listener) -> querqyProcessor.loadRewriters(rewriterIds,
+                ActionListener.wrap(ignored -> listener.onResponse(null), listener::onFailure)));
+
+        return new QuerqyQueryBuilder(this);
+    }
+
     @Override
     protected Query doToQuery(final QueryShardContext context) throws IOException {
         try {
@@ -258,11 +353,21 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
      */
     @Override
     public String getWriteableName() {
+        return compactWireFormat ? COMPACT_WRITEABLE_NAME : NAME;
+    }
+
+    @Override
+    public String getName() {
         return NAME;
     }
 
     public void setQuerqyProcessor(final QuerqyProcessor querqyProcessor) {
         this.querqyProcessor = Objects.requireNonNull(querqyProcessor);
+        compactWireFormat = isCompactWireFormat(querqyProcessor);
+    }
+
+    private static boolean isCompactWireFormat(final QuerqyProcessor querqyProcessor) {
+        return querqyProcessor != null && querqyProcessor.isCompactWireFormatSupported();
     }
 
     public MatchingQuery getMatchingQuery() {
@@ -299,12 +404,29 @@ public class QuerqyQueryBuilder extends AbstractQueryBuilder<QuerqyQueryBuilder>
 
     public void setRewriters(final List<Rewriter> rewriters) {
         this.rewriters = rewriters == null ? Collections.emptyList() : rewriters;
+        rewriterIds = null;
     }
 
     public List<Rewriter> getRewriters() {
         return rewriters;
     }
 
+    /**
+     * @return The names of the rewriters as an unmodifiable list
+     */
+    public List<String> getRewriterIds() {
+        List<String> ids = rewriterIds;
+        if (ids == null) {
+            final List<String> names = new ArrayList<>(rewriters.size());
+            for (final Rewriter rewriter : rewriters) {
+                names.add(rewriter.getName());
+            }
+            ids = Collections.unmodifiableList(names);
+            rewriterIds = ids;
+        }
+        return ids;
+    }
+
     public Map<String, Float> getQueryFieldsAndBoostings() {
         return queryFieldsAndBoostings;
     }
@@ -0,0 +1,343 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.query;
+
+import static org.opensearch.index.query.AbstractQueryBuilder.DEFAULT_BOOST;
+
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.node.DiscoveryNodes;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The compact transport format of the query fields and rewriters of a {@link QuerqyQueryBuilder}.</p>
+ *
+ * <p>Query fields are sent as pairs of field name and boost, so that the receiving node doesn't have to parse the
+ * 'field^boost' strings again for every shard request. Rewriter IDs and the strings in the rewriter params are
+ * written once into a dictionary that is referenced by index, which keeps the request small if the same param names
+ * and values are used by several rewriters.</p>
+ *
+ * <p>The plugin version isn't known from the transport version, so a node can't tell whether another node can read
+ * this format. Each node therefore announces the formats it can read in the {@link #NODE_ATTRIBUTE} node attribute.
+ * Queries are only sent in the compact format, under the name {@link QuerqyQueryBuilder#COMPACT_WRITEABLE_NAME}, once
+ * all nodes of the cluster have announced it, e.g. after a rolling restart has completed.</p>
+ */
+public final class QueryWireFormat {
+
+    /**
+     * The node attribute that holds the latest wire format that a node can read
+     */
+    public static final String NODE_ATTRIBUTE = "querqy_wire_format";
+
+    static final int COMPACT_FORMAT = 1;
+
+    private static final byte FIELD_NO_BOOST = 0;
+    private static final byte FIELD_BOOST = 1; // 'field^' + Float.toString(boost)
+    private static final byte FIELD_INTEGER_BOOST = 2; // 'field^' + (int) boost
+    private static final byte FIELD_BOOST_AND_TEXT = 3; // the boost as it was written in the request follows
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_FLOAT = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_TRUE = 6;
+    private static final byte VALUE_FALSE = 7;
+    private static final byte VALUE_LIST = 8;
+    private static final byte VALUE_MAP = 9;
+    private static final byte VALUE_GENERIC = 10;
+
+    private QueryWireFormat() {
+    }
+
+    /**
+     * @return The node settings that announce the formats that this node can read
+     */
+    public static Settings nodeAttributeSettings() {
+        return Settings.builder().put("node.attr." + NODE_ATTRIBUTE, COMPACT_FORMAT).build();
+    }
+
+    /**
+     * @param nodes The nodes of the cluster
+     * @return true iff all nodes can read the compact format
+     */
+    public static boolean isCompactFormatSupported(final DiscoveryNodes nodes) {
+        for (final DiscoveryNode node : nodes) {
+            final String format = node.getAttributes().get(NODE_ATTRIBUTE);
+            if (format == null) {
+                return false;
+            }
+            try {
+                if (Integer.parseInt(format) < COMPACT_FORMAT) {
+                    return false;
+                }
+            } catch (final NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static void writeQueryFields(final StreamOutput out, final List<String> queryFields,
+                                 final Map<String, Float> queryFieldsAndBoostings) throws IOException {
+        out.writeVInt(queryFields.size());
+        for (final String queryField : queryFields) {
+            final int weightPos = queryField.indexOf('^');
+            if (weightPos < 0) {
+                out.writeString(queryField);
+                out.writeByte(FIELD_NO_BOOST);
+            } else {
+                final String fieldName = queryField.substring(0, weightPos);
+                final String boostText = queryField.substring(weightPos + 1);
+                final float boost = queryFieldsAndBoostings.get(fieldName);
+                out.writeString(fieldName);
+                if (boostText.equals(Float.toString(boost))) {
+                    out.writeByte(FIELD_BOOST);
+                    out.writeFloat(boost);
+                } else if (boost == (int) boost && boostText.equals(Integer.toString((int) boost))) {
+                    out.writeByte(FIELD_INTEGER_BOOST);
+                    out.writeFloat(boost);
+                } else {
+                    out.writeByte(FIELD_BOOST_AND_TEXT);
+                    out.writeFloat(boost);
+                    out.writeString(boostText);
+                }
+            }
+        }
+    }
+
+    static QueryFields readQueryFields(final StreamInput in) throws IOException {
+        final int size = in.readVInt();
+        final List<String> queryFields = new ArrayList<>(size);
+        final Map<String, Float> queryFieldsAndBoostings = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String fieldName = in.readString();
+            final byte type = in.readByte();
+            switch (type) {
+                case FIELD_NO_BOOST:
+                    queryFields.add(fieldName);
+                    queryFieldsAndBoostings.put(fieldName, DEFAULT_BOOST);
+                    break;
+                case FIELD_BOOST: {
+                    final float boost = in.readFloat();
+                    queryFields.add(fieldName + "^" + boost);
+                    queryFieldsAndBoostings.put(fieldName, boost);
+                    break;
+                }
+                case FIELD_INTEGER_BOOST: {
+                    final float boost = in.readFloat();
+                    queryFields.add(fieldName + "^" + (int) boost);
+                    queryFieldsAndBoostings.put(fieldName, boost);
+                    break;
+                }
+                case FIELD_BOOST_AND_TEXT: {
+                    final float boost = in.readFloat();
+                    queryFields.add(fieldName + "^" + in.readString());
+                    queryFieldsAndBoostings.put(fieldName, boost);
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown query field type: " + type);
+            }
+        }
+        return new QueryFields(queryFields, queryFieldsAndBoostings);
+    }
+
+    static void writeRewriters(final StreamOutput out, final List<Rewriter> rewriters) throws IOException {
+
+        final Map<String, Integer> dictionary = new HashMap<>();
+        final List<String> strings = new ArrayList<>();
+        for (final Rewriter rewriter : rewriters) {
+            addToDictionary(rewriter.getName(), dictionary, strings);
+            if (rewriter.getParams() != null) {
+                collectStrings(rewriter.getParams(), dictionary, strings);
+            }
+        }
+
+        out.writeVInt(strings.size());
+        for (final String string : strings) {
+            out.writeString(string);
+        }
+
+        out.writeVInt(rewriters.size());
+        for (final Rewriter rewriter : rewriters) {
+            out.writeVInt(dictionary.get(rewriter.getName()));
+            final Map<String, Object> params = rewriter.getParams();
+            if (params != null) {
+                out.writeBoolean(true);
+                writeMap(out, params, dictionary);
+            } else {
+                out.writeBoolean(false);
+            }
+        }
+    }
+
+    static List<Rewriter> readRewriters(final StreamInput in) throws IOException {
+
+        final String[] strings = new String[in.readVInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readString();
+        }
+
+        final int numRewriters = in.readVInt();
+        final List<Rewriter> rewriters = new ArrayList<>(numRewriters);
+        for (int i = 0; i < numRewriters; i++) {
+            final String name = strings[in.readVInt()];
+            rewriters.add(new Rewriter(name, in.readBoolean() ? readMap(in, strings) : null));
+        }
+        return rewriters;
+    }
+
+    private static void addToDictionary(final String string, final Map<String, Integer> dictionary,
+                                        final List<String> strings) {
+        if (!dictionary.containsKey(string)) {
+            dictionary.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectStrings(final Object value, final Map<String, Integer> dictionary,
+                                       final List<String> strings) {
+        if (value instanceof String) {
+            addToDictionary((String) value, dictionary, strings);
+        } else if (value instanceof Map) {
+            for (final Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                addToDictionary(entry.getKey(), dictionary, strings);
+                collectStrings(entry.getValue(), dictionary, strings);
+            }
+        } else if (value instanceof List) {
+            for (final Object element : (List<Object>) value) {
+                collectStrings(element, dictionary, strings);
+            }
+        }
+    }
+
+    private static void writeMap(final StreamOutput out, final Map<String, Object> map,
+                                 final Map<String, Integer> dictionary) throws IOException {
+        out.writeVInt(map.size());
+        for (final Map.Entry<String, Object> entry : map.entrySet()) {
+            out.writeVInt(dictionary.get(entry.getKey()));
+            writeValue(out, entry.getValue(), dictionary);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeValue(final StreamOutput out, final Object value, final Map<String, Integer> dictionary)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            out.writeVInt(dictionary.get(value));
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INT);
+            out.writeZLong((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            out.writeZLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof List) {
+            final List<Object> list = (List<Object>) value;
+            out.writeByte(VALUE_LIST);
+            out.writeVInt(list.size());
+            for (final Object element : list) {
+                writeValue(out, element, dictionary);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(VALUE_MAP);
+            writeMap(out, (Map<String, Object>) value, dictionary);
+        } else {
+            out.writeByte(VALUE_GENERIC);
+            out.writeGenericValue(value);
+        }
+    }
+
+    private static Map<String, Object> readMap(final StreamInput in, final String[] strings) throws IOException {
+        final int size = in.readVInt();
+        final Map<String, Object> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            final String key = strings[in.readVInt()];
+            map.put(key, readValue(in, strings));
+        }
+        return map;
+    }
+
+    private static Object readValue(final StreamInput in, final String[] strings) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return strings[in.readVInt()];
+            case VALUE_INT:
+                return (int) in.readZLong();
+            case VALUE_LONG:
+                return in.readZLong();
+            case VALUE_FLOAT:
+                return in.readFloat();
+            case VALUE_DOUBLE:
+                return in.readDouble();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_LIST: {
+                final int size = in.readVInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, strings));
+                }
+                return list;
+            }
+            case VALUE_MAP:
+                return readMap(in, strings);
+            case VALUE_GENERIC:
+                return in.readGenericValue();
+            default:
+                throw new IOException("Unknown rewriter param type: " + type);
+        }
+    }
+
+    static class QueryFields {
+
+        final List<String> queryFields;
+        final Map<String, Float> queryFieldsAndBoostings;
+
+        QueryFields(final List<String> queryFields, final Map<String, Float> queryFieldsAndBoostings) {
+            this.queryFields = queryFields;
+            this.queryFieldsAndBoostings = queryFieldsAndBoostings;
+        }
+    }
+}
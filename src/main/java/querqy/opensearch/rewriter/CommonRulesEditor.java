@@ -0,0 +1,279 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriter;
+
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.json.JsonXContent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Changes single rules in the rules of a {@link SimpleCommonRulesRewriterFactory}, so that clients don't have to
+ * send all rules to change a few of them.</p>
+ *
+ * <p>A rule starts with its input, i.e. a line that ends with <code>=&gt;</code>, and is identified by the input or
+ * by its <code>_id</code> property. Inputs are compared after trimming and collapsing whitespace. The
+ * <code>_id</code> is read from an <code>@_id</code> property line or from the top level of a multi-line
+ * <code>@{ ... }@</code> property block, but not from the JSON of instructions like <code>DECORATE</code>.</p>
+ *
+ * <p>Comment lines directly above an input belong to its rule and are deleted and replaced with it. Comments before
+ * the first rule, blank lines and comments that are separated from the next input by a blank line are kept as they
+ * are.</p>
+ */
+public class CommonRulesEditor {
+
+    private static final String INPUT_SEPARATOR = "=>";
+    private static final String PROPERTY_BLOCK_START = "@{";
+    private static final String PROPERTY_BLOCK_END = "}@";
+    private static final String ID_PROPERTY_NAME = "_id";
+
+    // @_id: "some id" or @_id: some_id
+    private static final Pattern ID_PROPERTY = Pattern.compile("^\\s*@\\s*_id\\s*:\\s*\"?(.*?)\"?\\s*$");
+
+    private CommonRulesEditor() {
+    }
+
+    /**
+     * <p>Deletes and then upserts rules.</p>
+     *
+     * <p>An upserted rule replaces the rule with the same <code>_id</code> or, if it has no ID, the rules with the
+     * same input. The first replaced rule keeps its position, other rules with the same input are removed. Rules that
+     * don't replace a rule are appended.</p>
+     *
+     * @param rules The current rules
+     * @param deleteKeys The inputs or IDs of the rules to delete
+     * @param upsertRules The rules to add or replace, or null
+     * @return The changed rules
+     * @throws IllegalArgumentException if a rule to delete cannot be found
+     */
+    public static String applyChanges(final String rules, final Collection<String> deleteKeys,
+                                      final String upsertRules) {
+
+        final List<Block> blocks = parse(rules);
+
+        if (deleteKeys != null && !deleteKeys.isEmpty()) {
+            final Set<String> notFound = new LinkedHashSet<>();
+            for (final String key : deleteKeys) {
+                final String normalizedKey = normalizeInput(key);
+                if (!blocks.removeIf(block -> block.isRule() && block.matchesKey(key, normalizedKey))) {
+                    notFound.add(key);
+                }
+            }
+            if (!notFound.isEmpty()) {
+                throw new IllegalArgumentException("No rule with input or _id " + notFound);
+            }
+        }
+
+        if (upsertRules != null) {
+            final List<Block> upserts = parse(upsertRules);
+            for (final Block upsert : upserts) {
+                if (upsert.isRule()) {
+                    upsert(blocks, upsert);
+                } else if (upsert.lines.stream()
+                        .anyMatch(line -> !line.trim().isEmpty() && !line.trim().startsWith("#"))) {
+                    throw new IllegalArgumentException("Instructions without input in upserted rules");
+                }
+            }
+        }
+
+        final StringBuilder sb = new StringBuilder(rules.length() + (upsertRules == null ? 0 : upsertRules.length()));
+        for (final Block block : blocks) {
+            block.lines.forEach(line -> sb.append(line).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    private static void upsert(final List<Block> blocks, final Block upsert) {
+
+        boolean replaced = false;
+        for (final Iterator<Block> it = blocks.iterator(); it.hasNext(); ) {
+            final Block block = it.next();
+            if (!block.isRule()) {
+                continue;
+            }
+            final boolean matches = upsert.id != null
+                    ? upsert.id.equals(block.id)
+                    : block.id == null && upsert.input.equals(block.input);
+            if (matches) {
+                if (replaced) {
+                    it.remove();
+                } else {
+                    block.lines = upsert.lines;
+                    block.input = upsert.input;
+                    replaced = true;
+                }
+            }
+        }
+
+        if (!replaced) {
+            blocks.add(upsert);
+        }
+    }
+
+    /**
+     * Split the rules into rule blocks and blocks of text that don't belong to a rule.
+     *
+     * @param rules The rules
+     * @return The blocks in the order of the rules
+     */
+    static List<Block> parse(final String rules) {
+
+        final List<Block> blocks = new ArrayList<>();
+        // text outside of the rules, or instructions before the first input
+        Block current = new Block(null);
+        blocks.add(current);
+
+        // comments and blank lines that are assigned to a block once the next line of a rule has been seen
+        final List<String> pending = new ArrayList<>();
+        StringBuilder propertyBlock = null;
+
+        for (final String line : rules.split("\\R")) {
+            final String trimmed = line.trim();
+
+            if (propertyBlock != null) {
+                current.addLine(line);
+                propertyBlock.append(trimmed).append('\n');
+                if (trimmed.endsWith(PROPERTY_BLOCK_END)) {
+                    current.readIdFromPropertyBlock(propertyBlock.toString());
+                    propertyBlock = null;
+                }
+                continue;
+            }
+
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                pending.add(line);
+                continue;
+            }
+
+            if (trimmed.endsWith(INPUT_SEPARATOR)) {
+                // comments directly above the input belong to the new rule, except for the header of the rules
+                int ruleComments = 0;
+                if (current.isRule()) {
+                    for (int i = pending.size() - 1; i >= 0 && !pending.get(i).trim().isEmpty(); i--) {
+                        ruleComments++;
+                    }
+                }
+                final int textLines = pending.size() - ruleComments;
+                if (textLines > 0) {
+                    if (current.isRule()) {
+                        current = new Block(null);
+                        blocks.add(current);
+                    }
+                    current.lines.addAll(pending.subList(0, textLines));
+                }
+                current = new Block(normalizeInput(trimmed.substring(0, trimmed.length() - INPUT_SEPARATOR.length())));
+                blocks.add(current);
+                current.lines.addAll(pending.subList(textLines, pending.size()));
+                current.addLine(line);
+            } else {
+                // an instruction or property, which belongs to the current rule together with the lines before it
+                pending.forEach(current::addLine);
+                current.addLine(line);
+                if (trimmed.startsWith(PROPERTY_BLOCK_START)) {
+                    propertyBlock = new StringBuilder(trimmed).append('\n');
+                    if (trimmed.length() >= PROPERTY_BLOCK_START.length() + PROPERTY_BLOCK_END.length()
+                            && trimmed.endsWith(PROPERTY_BLOCK_END)) {
+                        current.readIdFromPropertyBlock(propertyBlock.toString());
+                        propertyBlock = null;
+                    }
+                }
+            }
+            pending.clear();
+        }
+
+        if (!pending.isEmpty()) {
+            if (current.isRule()) {
+                current = new Block(null);
+                blocks.add(current);
+            }
+            current.lines.addAll(pending);
+        }
+
+        blocks.removeIf(block -> !block.isRule() && block.lines.isEmpty());
+        return blocks;
+
+    }
+
+    static String normalizeInput(final String input) {
+        return input.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * A rule, or text that doesn't belong to a rule if the input is null
+     */
+    static class Block {
+
+        String input;
+        String id = null;
+        List<String> lines = new ArrayList<>();
+
+        Block(final String input) {
+            this.input = input;
+        }
+
+        boolean isRule() {
+            return input != null;
+        }
+
+        void addLine(final String line) {
+            lines.add(line);
+            if (id == null && isRule()) {
+                final Matcher matcher = ID_PROPERTY.matcher(line);
+                if (matcher.matches()) {
+                    id = matcher.group(1);
+                }
+            }
+        }
+
+        /**
+         * @param propertyBlock The lines of a multi-line property block, including the <code>@{</code> and
+         *                      <code>}@</code> markers
+         */
+        void readIdFromPropertyBlock(final String propertyBlock) {
+            if (id != null || !isRule()) {
+                return;
+            }
+            final String json = propertyBlock.trim();
+            final Map<String, Object> properties;
+            try {
+                properties = XContentHelper.convertToMap(JsonXContent.jsonXContent,
+                        json.substring(1, json.length() - 1), false);
+            } catch (final Exception e) {
+                // Querqy rejects the rules when they are saved
+                return;
+            }
+            final Object value = properties.get(ID_PROPERTY_NAME);
+            if (value != null) {
+                id = value.toString();
+            }
+        }
+
+        boolean matchesKey(final String key, final String normalizedKey) {
+            return key.equals(id) || normalizedKey.equals(input);
+        }
+    }
+}
@@ -43,6 +43,11 @@ public class NumberUnitRewriterFactory extends OpenSearchRewriterFactory {
         return delegate;
     }
 
+    @Override
+    public boolean isShardIndependent() {
+        return true;
+    }
+
     @Override
     public void configure(Map<String, Object> config) {
         final Object numberUnitConfig = config.get(KEY_CONFIG_PROPERTY);
@@ -18,6 +18,7 @@
 
 package querqy.opensearch.rewriter;
 
+import org.apache.lucene.util.RamUsageEstimator;
 import org.opensearch.OpenSearchException;
 import org.opensearch.index.shard.IndexShard;
 import querqy.opensearch.ConfigUtils;
@@ -42,7 +43,13 @@ public class ReplaceRewriterFactory extends OpenSearchRewriterFactory {
 
     private static final String DEFAULT_INPUT_DELIMITER = "\t";
 
+    /**
+     * The replacement trie takes a few times the heap of the rules string
+     */
+    static final int RULES_SIZE_FACTOR = 4;
+
     private querqy.rewriter.replace.ReplaceRewriterFactory delegate;
+    private long ramBytesUsed = -1L;
 
     public ReplaceRewriterFactory(String rewriterId) {
         super(rewriterId);
@@ -69,6 +76,8 @@ public class ReplaceRewriterFactory extends OpenSearchRewriterFactory {
         } catch (final IOException e) {
             throw new OpenSearchException(e);
         }
+
+        ramBytesUsed = RULES_SIZE_FACTOR * RamUsageEstimator.sizeOf(rules);
     }
 
     @Override
@@ -109,4 +118,14 @@ public class ReplaceRewriterFactory extends OpenSearchRewriterFactory {
     public RewriterFactory createRewriterFactory(IndexShard indexShard) {
         return delegate;
     }
+
+    @Override
+    public boolean isShardIndependent() {
+        return true;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed;
+    }
 }
\ No newline at end of file
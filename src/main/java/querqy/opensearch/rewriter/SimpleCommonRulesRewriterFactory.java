@@ -18,6 +18,7 @@
 
 package querqy.opensearch.rewriter;
 
+import org.apache.lucene.util.RamUsageEstimator;
 import org.opensearch.OpenSearchException;
 import org.opensearch.index.shard.IndexShard;
 import querqy.opensearch.ConfigUtils;
@@ -52,7 +53,14 @@ public class SimpleCommonRulesRewriterFactory extends OpenSearchRewriterFactory
 
     static final LookupPreprocessorType DEFAULT_LOOKUP_PREPROCESSOR_TYPE = LookupPreprocessorType.LOWERCASE;
 
+    /**
+     * The trie, the instructions and the terms that are created from the rules take several times the heap of the
+     * rules string. This is a rough factor, measured for typical synonym, boost and filter rules.
+     */
+    static final int RULES_SIZE_FACTOR = 8;
+
     private querqy.rewriter.commonrules.SimpleCommonRulesRewriterFactory delegate;
+    private long ramBytesUsed = -1L;
 
     public SimpleCommonRulesRewriterFactory(final String rewriterId) {
         super(rewriterId);
@@ -84,6 +92,8 @@ public class SimpleCommonRulesRewriterFactory extends OpenSearchRewriterFactory
             throw new OpenSearchException(e);
         }
 
+        ramBytesUsed = RULES_SIZE_FACTOR * RamUsageEstimator.sizeOf(rules);
+
     }
 
     @Override
@@ -126,5 +136,15 @@ public class SimpleCommonRulesRewriterFactory extends OpenSearchRewriterFactory
         return delegate;
     }
 
+    @Override
+    public boolean isShardIndependent() {
+        return true;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed;
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.ActionRequest;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.ValidateActions;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A request to save several rewriters at once. The rewriter configs are validated by the transport action, in
+ * parallel, so that {@link #validate()} only checks the structure of the request.
+ */
+public class BulkPutRewriterRequest extends ActionRequest {
+
+    private final List<PutRewriterRequest> requests;
+
+    public BulkPutRewriterRequest(final StreamInput in) throws IOException {
+        super(in);
+        requests = in.readList(PutRewriterRequest::new);
+    }
+
+    public BulkPutRewriterRequest(final List<PutRewriterRequest> requests) {
+        super();
+        this.requests = requests;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        if (requests == null || requests.isEmpty()) {
+            return ValidateActions.addValidationError("No rewriters to save", null);
+        }
+        ActionRequestValidationException validationException = null;
+        final Set<String> rewriterIds = new HashSet<>();
+        for (final PutRewriterRequest request : requests) {
+            final String rewriterId = request.getRewriterId();
+            if (rewriterId == null || rewriterId.trim().isEmpty()) {
+                validationException = ValidateActions.addValidationError("rewriterId must not be empty",
+                        validationException);
+            } else if (!rewriterIds.add(rewriterId)) {
+                validationException = ValidateActions.addValidationError("Duplicate rewriter " + rewriterId,
+                        validationException);
+            }
+        }
+        return validationException;
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeList(requests);
+    }
+
+    public List<PutRewriterRequest> getRequests() {
+        return requests;
+    }
+}
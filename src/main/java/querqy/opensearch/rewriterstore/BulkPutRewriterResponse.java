@@ -0,0 +1,92 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.common.xcontent.StatusToXContentObject;
+import org.opensearch.core.action.ActionResponse;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.core.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.List;
+
+public class BulkPutRewriterResponse extends ActionResponse implements StatusToXContentObject {
+
+    private final BulkResponse bulkResponse;
+    private final List<String> reloadedRewriterIds;
+    private final NodesReloadRewriterResponse reloadResponse;
+
+    /**
+     * @param bulkResponse The response of saving the rewriters
+     * @param reloadedRewriterIds The IDs of the rewriters whose config changed and which were reloaded
+     * @param reloadResponse The response of reloading the rewriters, or null if no rewriter had to be reloaded
+     */
+    public BulkPutRewriterResponse(final BulkResponse bulkResponse, final List<String> reloadedRewriterIds,
+                                   final NodesReloadRewriterResponse reloadResponse) {
+        this.bulkResponse = bulkResponse;
+        this.reloadedRewriterIds = reloadedRewriterIds;
+        this.reloadResponse = reloadResponse;
+    }
+
+    public BulkPutRewriterResponse(final StreamInput in) throws IOException {
+        super(in);
+        bulkResponse = new BulkResponse(in);
+        reloadedRewriterIds = in.readStringList();
+        reloadResponse = in.readOptionalWriteable(NodesReloadRewriterResponse::new);
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        bulkResponse.writeTo(out);
+        out.writeStringCollection(reloadedRewriterIds);
+        out.writeOptionalWriteable(reloadResponse);
+    }
+
+    @Override
+    public RestStatus status() {
+        return RestStatus.OK;
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+
+        builder.startObject();
+        builder.field("put", bulkResponse);
+        builder.field("reloaded_rewriters", reloadedRewriterIds);
+        if (reloadResponse != null) {
+            builder.field("reloaded", reloadResponse);
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    public BulkResponse getBulkResponse() {
+        return bulkResponse;
+    }
+
+    public List<String> getReloadedRewriterIds() {
+        return reloadedRewriterIds;
+    }
+
+    public NodesReloadRewriterResponse getReloadResponse() {
+        return reloadResponse;
+    }
+}
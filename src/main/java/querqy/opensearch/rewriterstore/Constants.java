@@ -28,4 +28,10 @@ public interface Constants {
     String SETTINGS_QUERQY_INDEX_NUM_REPLICAS = "querqy.store.replicas";
 
     int DEFAULT_QUERQY_INDEX_NUM_REPLICAS = 1;
+
+    /**
+     * The auto_expand_replicas setting of the rewriter index, for example <code>0-all</code> to keep a copy of the
+     * index on every data node. Overrides {@link #SETTINGS_QUERQY_INDEX_NUM_REPLICAS} if set.
+     */
+    String SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS = "querqy.store.auto_expand_replicas";
 }
\ No newline at end of file
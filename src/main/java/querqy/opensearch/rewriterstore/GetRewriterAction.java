@@ -22,7 +22,11 @@ import org.opensearch.action.ActionType;
 
 public class GetRewriterAction extends ActionType<GetRewriterResponse> {
 
-    public static final String NAME = "cluster:admin/querqy/rewriter/get";
+    /**
+     * The paging and filter parameters of {@link GetRewriterRequest} aren't understood by nodes running an earlier
+     * version of the plugin. The action uses a new name so that such nodes reject it instead of misreading it.
+     */
+    public static final String NAME = "cluster:admin/querqy/rewriter/get_rewriters";
     public static final GetRewriterAction INSTANCE = new GetRewriterAction(NAME);
 
     /**
@@ -20,6 +20,7 @@ package querqy.opensearch.rewriterstore;
 
 import org.opensearch.action.ActionRequest;
 import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.ValidateActions;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
 
@@ -27,11 +28,27 @@ import java.io.IOException;
 
 public class GetRewriterRequest extends ActionRequest {
 
+    /**
+     * The maximum number of rewriters that will be returned per page when rewriters are listed. This is the default
+     * value of the index.max_result_window setting, which a search request cannot exceed anyway.
+     */
+    public static final int MAX_PAGE_SIZE = 10000;
+
     private final String rewriterId;
+    private final boolean verifyConfigHash;
+    private final int size;
+    private final String fromId;
+    private final String rewriterClass;
+    private final String revision;
 
     public GetRewriterRequest(final StreamInput in) throws IOException {
         super(in);
         rewriterId = in.readOptionalString();
+        verifyConfigHash = in.readBoolean();
+        size = in.readVInt();
+        fromId = in.readOptionalString();
+        rewriterClass = in.readOptionalString();
+        revision = in.readOptionalString();
     }
 
     /**
@@ -45,19 +62,61 @@ public class GetRewriterRequest extends ActionRequest {
      * @param rewriterId The ID of the rewriter to read, or null to read all rewriters.
      */
     public GetRewriterRequest(final String rewriterId) {
+        this(rewriterId, false);
+    }
+
+    /**
+     * @param rewriterId The ID of the rewriter to read, or null to read all rewriters.
+     * @param verifyConfigHash Compute the config hashes from the stored configs instead of returning the stored
+     *                         hashes? This requires reading the configs, which can be very large.
+     */
+    public GetRewriterRequest(final String rewriterId, final boolean verifyConfigHash) {
+        this(rewriterId, verifyConfigHash, MAX_PAGE_SIZE, null, null, null);
+    }
+
+    /**
+     * @param rewriterId The ID of the rewriter to read, or null to list rewriters.
+     * @param verifyConfigHash Compute the config hashes from the stored configs instead of returning the stored
+     *                         hashes? This requires reading the configs, which can be very large.
+     * @param size The maximum number of rewriters to list
+     * @param fromId List the rewriters whose IDs sort after this ID, or null to start with the first rewriter
+     * @param rewriterClass Only list rewriters of this class, or null
+     * @param revision Only list rewriters of this revision, or null
+     */
+    public GetRewriterRequest(final String rewriterId, final boolean verifyConfigHash, final int size,
+                              final String fromId, final String rewriterClass, final String revision) {
         super();
         this.rewriterId = rewriterId;
+        this.verifyConfigHash = verifyConfigHash;
+        this.size = size;
+        this.fromId = fromId;
+        this.rewriterClass = rewriterClass;
+        this.revision = revision;
     }
 
     @Override
     public void writeTo(final StreamOutput out) throws IOException {
         super.writeTo(out);
         out.writeOptionalString(rewriterId);
+        out.writeBoolean(verifyConfigHash);
+        out.writeVInt(size);
+        out.writeOptionalString(fromId);
+        out.writeOptionalString(rewriterClass);
+        out.writeOptionalString(revision);
     }
 
     @Override
     public ActionRequestValidationException validate() {
-        return null;
+        ActionRequestValidationException validationException = null;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            validationException = ValidateActions.addValidationError("size must be between 1 and " + MAX_PAGE_SIZE,
+                    validationException);
+        }
+        if (rewriterId != null && (fromId != null || rewriterClass != null || revision != null)) {
+            validationException = ValidateActions.addValidationError(
+                    "from_id, class and revision can only be used to list rewriters", validationException);
+        }
+        return validationException;
     }
 
     /**
@@ -67,4 +126,24 @@ public class GetRewriterRequest extends ActionRequest {
         return rewriterId;
     }
 
-}
\ No newline at end of file
+    public boolean isVerifyConfigHash() {
+        return verifyConfigHash;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getFromId() {
+        return fromId;
+    }
+
+    public String getRewriterClass() {
+        return rewriterClass;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+}
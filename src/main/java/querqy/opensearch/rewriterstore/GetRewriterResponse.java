@@ -32,9 +32,11 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
 
     public static final String FIELD_REWRITER = "rewriter";
     public static final String FIELD_REWRITERS = "rewriters";
+    public static final String FIELD_NEXT_FROM_ID = "next_from_id";
 
     private final RewriterInfo rewriter;
     private final List<RewriterInfo> rewriters;
+    private final String nextFromId;
 
     /**
      * The response to a request for a single rewriter.
@@ -44,6 +46,7 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
     public GetRewriterResponse(final RewriterInfo rewriter) {
         this.rewriter = rewriter;
         this.rewriters = null;
+        this.nextFromId = null;
     }
 
     /**
@@ -52,8 +55,19 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
      * @param rewriters The rewriter information, one element per rewriter
      */
     public GetRewriterResponse(final List<RewriterInfo> rewriters) {
+        this(rewriters, null);
+    }
+
+    /**
+     * A page of the response to a request for all rewriters.
+     *
+     * @param rewriters The rewriter information, one element per rewriter
+     * @param nextFromId The ID to list the next page from, or null if this is the last page
+     */
+    public GetRewriterResponse(final List<RewriterInfo> rewriters, final String nextFromId) {
         this.rewriter = null;
         this.rewriters = rewriters;
+        this.nextFromId = nextFromId;
     }
 
     public GetRewriterResponse(final StreamInput in) throws IOException {
@@ -61,9 +75,11 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
         if (in.readBoolean()) {
             rewriter = new RewriterInfo(in);
             rewriters = null;
+            nextFromId = null;
         } else {
             rewriter = null;
             rewriters = in.readList(RewriterInfo::new);
+            nextFromId = in.readOptionalString();
         }
     }
 
@@ -74,6 +90,7 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
             rewriter.writeTo(out);
         } else {
             out.writeList(rewriters);
+            out.writeOptionalString(nextFromId);
         }
     }
 
@@ -99,6 +116,10 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
             }
             builder.endArray();
 
+            if (nextFromId != null) {
+                builder.field(FIELD_NEXT_FROM_ID, nextFromId);
+            }
+
         }
 
         builder.endObject();
@@ -120,4 +141,11 @@ public class GetRewriterResponse extends ActionResponse implements StatusToXCont
         return rewriters;
     }
 
-}
\ No newline at end of file
+    /**
+     * @return The ID to pass as from_id to list the next page of rewriters, or null if there are no more rewriters
+     */
+    public String getNextFromId() {
+        return nextFromId;
+    }
+
+}
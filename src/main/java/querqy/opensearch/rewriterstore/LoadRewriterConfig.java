@@ -18,6 +18,7 @@
 
 package querqy.opensearch.rewriterstore;
 
+import java.util.List;
 import java.util.Map;
 
 public class LoadRewriterConfig {
@@ -25,6 +26,8 @@ public class LoadRewriterConfig {
     private final RewriterConfigMapping configMapping;
     private final String rewriterId;
     private final Map<String, Object> luceneDoc;
+    // The config is parsed once, as a large config must not exist in memory several times while it is being loaded
+    private Map<String, Object> config = null;
 
     public LoadRewriterConfig(final String rewriterId, final Map<String, Object> luceneDoc) {
         this.configMapping = RewriterConfigMapping.getMapping(luceneDoc);
@@ -45,14 +48,38 @@ public class LoadRewriterConfig {
     }
 
     public Map<String, Object> getConfig() {
-        return configMapping.getConfig(rewriterId, luceneDoc);
+        if (config == null) {
+            config = configMapping.getConfig(rewriterId, luceneDoc);
+        }
+        return config;
+    }
+
+    /**
+     * @return An estimate of the heap size of the configuration, derived from the length of the stored config without
+     * parsing it
+     */
+    public long estimateConfigSizeInBytes() {
+        final List<String> configChunks = configMapping.getConfigChunks(luceneDoc);
+        if (configChunks == null) {
+            return 0L;
+        }
+        long length = 0L;
+        for (final String chunk : configChunks) {
+            length += chunk.length();
+        }
+        return length * Character.BYTES;
     }
 
     public Map<String, Object> getInfoLoggingConfig() {
         return configMapping.getInfoLoggingConfig(rewriterId, luceneDoc);
     }
 
-
-
+    /**
+     * @return The hash of the configuration payload of the rewriter, computed from the stored config
+     * @see RewriterConfigMapping#computeConfigHash(String, Map)
+     */
+    public String getConfigHash() {
+        return configMapping.computeConfigHash(rewriterId, luceneDoc);
+    }
 
 }
\ No newline at end of file
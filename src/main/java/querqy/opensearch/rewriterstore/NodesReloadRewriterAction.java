@@ -22,7 +22,13 @@ import org.opensearch.action.ActionType;
 
 public class NodesReloadRewriterAction extends ActionType<NodesReloadRewriterResponse> {
 
-    public static final String NAME = "cluster:admin/querqy/rewriter/_reload";
+    /**
+     * The name of the action that reloads a list of rewriters and reports the outcome per rewriter. The action that
+     * reloaded a single rewriter in earlier plugin versions was named <code>cluster:admin/querqy/rewriter/_reload</code>
+     * and used another wire format. Using a new name makes nodes of different plugin versions fail the reload
+     * requests of each other with an unknown action during a rolling restart instead of misreading them.
+     */
+    public static final String NAME = "cluster:admin/querqy/rewriter/_reload_rewriters";
     public static final NodesReloadRewriterAction INSTANCE = new NodesReloadRewriterAction(NAME);
 
 
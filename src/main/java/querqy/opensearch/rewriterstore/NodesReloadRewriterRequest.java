@@ -24,59 +24,97 @@ import org.opensearch.core.common.io.stream.StreamOutput;
 import org.opensearch.transport.TransportRequest;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class NodesReloadRewriterRequest extends BaseNodesRequest<NodesReloadRewriterRequest> {
 
-    private final String rewriterId;
+    private final List<String> rewriterIds;
+    private final Map<String, String> configHashes;
 
     public NodesReloadRewriterRequest(final String rewriterId, final String... nodesIds) {
+        this(Collections.singletonList(rewriterId), nodesIds);
+    }
+
+    /**
+     * @param rewriterIds The IDs of the rewriters to reload
+     * @param nodesIds The IDs of the nodes on which to reload the rewriters, or none to reload them on all nodes
+     */
+    public NodesReloadRewriterRequest(final List<String> rewriterIds, final String... nodesIds) {
+        this(rewriterIds, Collections.emptyMap(), nodesIds);
+    }
+
+    /**
+     * @param rewriterIds The IDs of the rewriters to reload
+     * @param configHashes The config hashes of the saved rewriters by rewriter ID. A node keeps a loaded rewriter
+     *                     without reading its config if the rewriter has the given hash.
+     * @param nodesIds The IDs of the nodes on which to reload the rewriters, or none to reload them on all nodes
+     */
+    public NodesReloadRewriterRequest(final List<String> rewriterIds, final Map<String, String> configHashes,
+                                      final String... nodesIds) {
         super(nodesIds);
-        this.rewriterId = rewriterId;
+        this.rewriterIds = rewriterIds;
+        this.configHashes = configHashes;
     }
 
     public NodesReloadRewriterRequest(final StreamInput in) throws IOException {
         super(in);
-        rewriterId = in.readString();
+        rewriterIds = in.readStringList();
+        configHashes = in.readMap(StreamInput::readString, StreamInput::readString);
     }
 
     @Override
     public void writeTo(final StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeString(rewriterId);
+        out.writeStringCollection(rewriterIds);
+        out.writeMap(configHashes, StreamOutput::writeString, StreamOutput::writeString);
     }
 
     public NodeRequest newNodeRequest() {
-        return new NodeRequest(rewriterId);
+        return new NodeRequest(rewriterIds, configHashes);
     }
 
-    public String getRewriterId() {
-        return rewriterId;
+    public List<String> getRewriterIds() {
+        return rewriterIds;
+    }
+
+    public Map<String, String> getConfigHashes() {
+        return configHashes;
     }
 
 
     public static class NodeRequest extends TransportRequest {
 
-        String rewriterId;
+        List<String> rewriterIds;
+        Map<String, String> configHashes;
 
         public NodeRequest(final StreamInput in) throws IOException {
             super(in);
-            rewriterId = in.readString();
+            rewriterIds = in.readStringList();
+            configHashes = in.readMap(StreamInput::readString, StreamInput::readString);
         }
 
-        public NodeRequest(final String rewriterId) {
+        public NodeRequest(final List<String> rewriterIds, final Map<String, String> configHashes) {
             super();
-            this.rewriterId = rewriterId;
+            this.rewriterIds = rewriterIds;
+            this.configHashes = configHashes;
         }
 
         @Override
         public void writeTo(final StreamOutput out) throws IOException {
             super.writeTo(out);
-            out.writeString(rewriterId);
+            out.writeStringCollection(rewriterIds);
+            out.writeMap(configHashes, StreamOutput::writeString, StreamOutput::writeString);
+        }
+
+        public List<String> getRewriterIds() {
+            return rewriterIds;
         }
 
-        public String getRewriterId() {
-            return rewriterId;
+        public Map<String, String> getConfigHashes() {
+            return configHashes;
         }
 
     }
-}
\ No newline at end of file
+}
@@ -27,12 +27,14 @@ import org.opensearch.cluster.node.DiscoveryNode;
 import org.opensearch.core.common.Strings;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.common.io.stream.Writeable;
 import org.opensearch.common.xcontent.XContentFactory;
 import org.opensearch.core.xcontent.ToXContent;
 import org.opensearch.core.xcontent.ToXContentObject;
 import org.opensearch.core.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -67,15 +69,36 @@ public class NodesReloadRewriterResponse extends BaseNodesResponse<NodesReloadRe
         for (final NodeResponse node : getNodes()) {
             builder.startObject(node.getNode().getId());
             builder.field("name", node.getNode().getName());
+            builder.field("reloaded", node.getReloaded());
+            builder.field("unchanged", node.getUnchanged());
+            builder.field("not_loaded", node.getNotLoaded());
             final Exception e = node.reloadException();
             if (e != null) {
                 builder.startObject("reload_exception");
                 OpenSearchException.generateThrowableXContent(builder, params, e);
                 builder.endObject();
+                builder.startArray("failures");
+                for (final ReloadFailure failure : node.getFailures()) {
+                    failure.toXContent(builder, params);
+                }
+                builder.endArray();
             }
             builder.endObject();
         }
         builder.endObject();
+        // Nodes that couldn't be reached or didn't understand the request, e.g. nodes of an earlier plugin version
+        if (failures() != null && !failures().isEmpty()) {
+            builder.startArray("failed_nodes");
+            for (final FailedNodeException failure : failures()) {
+                builder.startObject();
+                builder.field("node_id", failure.nodeId());
+                builder.startObject("exception");
+                OpenSearchException.generateThrowableXContent(builder, params, failure);
+                builder.endObject();
+                builder.endObject();
+            }
+            builder.endArray();
+        }
         builder.endObject();
         return builder;
     }
@@ -123,31 +146,79 @@ public class NodesReloadRewriterResponse extends BaseNodesResponse<NodesReloadRe
 
     public static class NodeResponse extends BaseNodeResponse {
 
-        private final Exception reloadException;
+        private final List<String> reloaded;
+        private final List<String> unchanged;
+        private final List<String> notLoaded;
+        private final List<ReloadFailure> failures;
 
         public NodeResponse(final StreamInput in) throws IOException {
             super(in);
-            reloadException = in.readBoolean() ? in.readException() : null;
+            reloaded = in.readStringList();
+            unchanged = in.readStringList();
+            notLoaded = in.readStringList();
+            failures = in.readList(ReloadFailure::new);
         }
 
         public NodeResponse(final DiscoveryNode node, final Exception reloadException) {
+            this(node, reloadException == null
+                    ? Collections.emptyList()
+                    : Collections.singletonList(new ReloadFailure(null, null, reloadException)));
+        }
+
+        /**
+         * @param node The node
+         * @param failures The rewriters or shards that couldn't be reloaded on the node
+         */
+        public NodeResponse(final DiscoveryNode node, final List<ReloadFailure> failures) {
+            this(node, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), failures);
+        }
+
+        /**
+         * @param node The node
+         * @param reloaded The IDs of the rewriters that were built again on the node
+         * @param unchanged The IDs of the rewriters that were kept because their config hash didn't change
+         * @param notLoaded The IDs of the rewriters that weren't in use on the node
+         * @param failures The rewriters or shards that couldn't be reloaded on the node
+         */
+        public NodeResponse(final DiscoveryNode node, final List<String> reloaded, final List<String> unchanged,
+                            final List<String> notLoaded, final List<ReloadFailure> failures) {
             super(node);
-            this.reloadException = reloadException;
+            this.reloaded = reloaded;
+            this.unchanged = unchanged;
+            this.notLoaded = notLoaded;
+            this.failures = failures;
         }
 
+        public List<String> getReloaded() {
+            return reloaded;
+        }
+
+        public List<String> getUnchanged() {
+            return unchanged;
+        }
+
+        public List<String> getNotLoaded() {
+            return notLoaded;
+        }
+
+        /**
+         * @return The exception of the first failure, or null if the rewriters were reloaded
+         */
         public Exception reloadException() {
-            return this.reloadException;
+            return failures.isEmpty() ? null : failures.get(0).getException();
+        }
+
+        public List<ReloadFailure> getFailures() {
+            return failures;
         }
 
         @Override
         public void writeTo(final StreamOutput out) throws IOException {
             super.writeTo(out);
-            if (reloadException != null) {
-                out.writeBoolean(true);
-                out.writeException(reloadException);
-            } else {
-                out.writeBoolean(false);
-            }
+            out.writeStringCollection(reloaded);
+            out.writeStringCollection(unchanged);
+            out.writeStringCollection(notLoaded);
+            out.writeList(failures);
         }
 
         @Override
@@ -159,24 +230,102 @@ public class NodesReloadRewriterResponse extends BaseNodesResponse<NodesReloadRe
                 return false;
             }
             final NodeResponse that = (NodeResponse) o;
-            // We cannot rely on the Exception to implement equals(), users of NodesReloadRewriterResponse will
-            // be interested just in the message anyway
-            if (reloadException == null) {
-                return that.reloadException == null;
-            } else if (that.reloadException == null) {
-                return false;
-            }
-            return Objects.equals(reloadException.getMessage(), that.reloadException.getMessage());
+            return Objects.equals(reloaded, that.reloaded)
+                    && Objects.equals(unchanged, that.unchanged)
+                    && Objects.equals(notLoaded, that.notLoaded)
+                    && Objects.equals(failures, that.failures);
         }
 
         @Override
         public int hashCode() {
-            return reloadException != null && reloadException.getMessage() != null
-                    ? reloadException.getMessage().hashCode() : 0;
+            return Objects.hash(reloaded, unchanged, notLoaded, failures);
         }
 
         static NodeResponse readNodeResponse(final StreamInput in) throws IOException {
             return new NodeResponse(in);
         }
     }
+
+    /**
+     * A rewriter that couldn't be reloaded on a node, or on a shard of the node
+     */
+    public static class ReloadFailure implements Writeable, ToXContentObject {
+
+        private final String rewriterId;
+        private final String shard;
+        private final Exception exception;
+
+        /**
+         * @param rewriterId The ID of the rewriter, or null if the failure isn't specific to a rewriter
+         * @param shard The shard, or null if the rewriter couldn't be reloaded for all shards
+         * @param exception The cause of the failure
+         */
+        public ReloadFailure(final String rewriterId, final String shard, final Exception exception) {
+            this.rewriterId = rewriterId;
+            this.shard = shard;
+            this.exception = exception;
+        }
+
+        public ReloadFailure(final StreamInput in) throws IOException {
+            rewriterId = in.readOptionalString();
+            shard = in.readOptionalString();
+            exception = in.readException();
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            out.writeOptionalString(rewriterId);
+            out.writeOptionalString(shard);
+            out.writeException(exception);
+        }
+
+        public String getRewriterId() {
+            return rewriterId;
+        }
+
+        public String getShard() {
+            return shard;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            builder.startObject();
+            if (rewriterId != null) {
+                builder.field("rewriter_id", rewriterId);
+            }
+            if (shard != null) {
+                builder.field("shard", shard);
+            }
+            builder.startObject("exception");
+            OpenSearchException.generateThrowableXContent(builder, params, exception);
+            builder.endObject();
+            builder.endObject();
+            return builder;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ReloadFailure that = (ReloadFailure) o;
+            // We cannot rely on the Exception to implement equals(), users of NodesReloadRewriterResponse will
+            // be interested just in the message anyway
+            return Objects.equals(rewriterId, that.rewriterId)
+                    && Objects.equals(shard, that.shard)
+                    && Objects.equals(exception.getMessage(), that.exception.getMessage());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rewriterId, shard, exception.getMessage());
+        }
+    }
 }
\ No newline at end of file
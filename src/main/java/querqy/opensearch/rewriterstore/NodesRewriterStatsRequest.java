@@ -0,0 +1,85 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.support.nodes.BaseNodesRequest;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.transport.TransportRequest;
+
+import java.io.IOException;
+
+public class NodesRewriterStatsRequest extends BaseNodesRequest<NodesRewriterStatsRequest> {
+
+    /**
+     * The IDs of the rewriters to report. All rewriters are reported if empty.
+     */
+    private final String[] rewriterIds;
+
+    public NodesRewriterStatsRequest(final String[] rewriterIds, final String... nodesIds) {
+        super(nodesIds);
+        this.rewriterIds = rewriterIds == null ? new String[0] : rewriterIds;
+    }
+
+    public NodesRewriterStatsRequest(final StreamInput in) throws IOException {
+        super(in);
+        rewriterIds = in.readStringArray();
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeStringArray(rewriterIds);
+    }
+
+    public NodeRequest newNodeRequest() {
+        return new NodeRequest(rewriterIds);
+    }
+
+    public String[] getRewriterIds() {
+        return rewriterIds;
+    }
+
+
+    public static class NodeRequest extends TransportRequest {
+
+        String[] rewriterIds;
+
+        public NodeRequest(final StreamInput in) throws IOException {
+            super(in);
+            rewriterIds = in.readStringArray();
+        }
+
+        public NodeRequest(final String[] rewriterIds) {
+            super();
+            this.rewriterIds = rewriterIds;
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeStringArray(rewriterIds);
+        }
+
+        public String[] getRewriterIds() {
+            return rewriterIds;
+        }
+
+    }
+}
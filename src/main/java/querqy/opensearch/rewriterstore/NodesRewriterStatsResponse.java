@@ -0,0 +1,179 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.xcontent.ToXContentFragment;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import querqy.opensearch.OpenSearchTermQueryCache;
+import querqy.opensearch.QueryPhaseStats;
+import querqy.opensearch.RewriterStats;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+public class NodesRewriterStatsResponse extends BaseNodesResponse<NodesRewriterStatsResponse.NodeResponse>
+        implements ToXContentObject {
+
+
+    public NodesRewriterStatsResponse(final ClusterName clusterName, final List<NodeResponse> responses,
+                                      final List<FailedNodeException> failures) {
+        super(clusterName, responses, failures);
+    }
+
+    public NodesRewriterStatsResponse(final StreamInput in) throws IOException {
+        super(in);
+    }
+
+    @Override
+    protected List<NodeResponse> readNodesFrom(final StreamInput in) throws IOException {
+        return in.readList(NodeResponse::readNodeResponse);
+    }
+
+    @Override
+    protected void writeNodesTo(final StreamOutput out, final List<NodeResponse> nodes) throws IOException {
+        out.writeCollection(nodes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+        builder.startObject();
+        builder.startObject("nodes");
+        for (final NodeResponse node : getNodes()) {
+            builder.startObject(node.getNode().getId());
+            node.toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    public static class NodeResponse extends BaseNodeResponse implements ToXContentFragment {
+
+        private final long rewriterGeneration;
+        private final Map<String, RewriterStats.Snapshot> rewriterStats;
+        private final QueryPhaseStats.Snapshot queryPhaseStats;
+        private final OpenSearchTermQueryCache.Stats termQueryCacheStats;
+
+        public NodeResponse(final StreamInput in) throws IOException {
+            super(in);
+            rewriterGeneration = in.readVLong();
+            rewriterStats = new TreeMap<>(in.readMap(StreamInput::readString, RewriterStats.Snapshot::new));
+            queryPhaseStats = new QueryPhaseStats.Snapshot(in);
+            termQueryCacheStats = new OpenSearchTermQueryCache.Stats(in);
+        }
+
+        /**
+         * @param node The node
+         * @param rewriterGeneration The generation of the rewriter that was created last on the node
+         * @param rewriterStats The stats by rewriter ID
+         * @param queryPhaseStats The query building stats
+         * @param termQueryCacheStats The stats of the term query caches of the shards on the node, added up
+         */
+        public NodeResponse(final DiscoveryNode node, final long rewriterGeneration,
+                            final Map<String, RewriterStats.Snapshot> rewriterStats,
+                            final QueryPhaseStats.Snapshot queryPhaseStats,
+                            final OpenSearchTermQueryCache.Stats termQueryCacheStats) {
+            super(node);
+            this.rewriterGeneration = rewriterGeneration;
+            this.rewriterStats = rewriterStats;
+            this.queryPhaseStats = queryPhaseStats;
+            this.termQueryCacheStats = termQueryCacheStats;
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeVLong(rewriterGeneration);
+            out.writeMap(rewriterStats, StreamOutput::writeString, (o, stats) -> stats.writeTo(o));
+            queryPhaseStats.writeTo(out);
+            termQueryCacheStats.writeTo(out);
+        }
+
+        public long getRewriterGeneration() {
+            return rewriterGeneration;
+        }
+
+        public Map<String, RewriterStats.Snapshot> getRewriterStats() {
+            return rewriterStats;
+        }
+
+        public QueryPhaseStats.Snapshot getQueryPhaseStats() {
+            return queryPhaseStats;
+        }
+
+        public OpenSearchTermQueryCache.Stats getTermQueryCacheStats() {
+            return termQueryCacheStats;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final NodeResponse that = (NodeResponse) o;
+            return Objects.equals(getNode(), that.getNode())
+                    && rewriterGeneration == that.rewriterGeneration
+                    && Objects.equals(rewriterStats, that.rewriterStats)
+                    && Objects.equals(queryPhaseStats, that.queryPhaseStats)
+                    && Objects.equals(termQueryCacheStats, that.termQueryCacheStats);
+
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getNode(), rewriterGeneration, rewriterStats, queryPhaseStats, termQueryCacheStats);
+        }
+
+        static NodeResponse readNodeResponse(final StreamInput in) throws IOException {
+            return new NodeResponse(in);
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            builder.field("name", getNode().getName());
+            builder.field("rewriter_generation", rewriterGeneration);
+            builder.startObject("rewriters");
+            for (final Map.Entry<String, RewriterStats.Snapshot> entry : rewriterStats.entrySet()) {
+                builder.field(entry.getKey());
+                entry.getValue().toXContent(builder, params);
+            }
+            builder.endObject();
+            builder.field("query_phases");
+            queryPhaseStats.toXContent(builder, params);
+            builder.field("term_query_cache");
+            termQueryCacheStats.toXContent(builder, params);
+            return builder;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.nodes.BaseNodeResponse;
+import org.opensearch.action.support.nodes.BaseNodesResponse;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.xcontent.StatusToXContentObject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.core.xcontent.ToXContentObject;
+import org.opensearch.core.xcontent.XContentBuilder;
+import querqy.opensearch.RewriterWarmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+public class NodesRewriterWarmupStatusResponse
+        extends BaseNodesResponse<NodesRewriterWarmupStatusResponse.NodeResponse> implements StatusToXContentObject {
+
+
+    public NodesRewriterWarmupStatusResponse(final ClusterName clusterName,
+                                             final List<NodeResponse> responses,
+                                             final List<FailedNodeException> failures) {
+        super(clusterName, responses, failures);
+    }
+
+    public NodesRewriterWarmupStatusResponse(final StreamInput in) throws IOException {
+        super(in);
+    }
+
+    @Override
+    protected List<NodeResponse> readNodesFrom(final StreamInput in) throws IOException {
+        return in.readList(NodeResponse::readNodeResponse);
+    }
+
+    @Override
+    protected void writeNodesTo(final StreamOutput out, final List<NodeResponse> nodes) throws IOException {
+        out.writeCollection(nodes);
+    }
+
+    /**
+     * @return true iff all nodes responded and the warm-up is done or disabled on all of them
+     */
+    public boolean isReady() {
+        return !hasFailures() && getNodes().stream().allMatch(NodeResponse::isReady);
+    }
+
+    @Override
+    public RestStatus status() {
+        return isReady() ? RestStatus.OK : RestStatus.SERVICE_UNAVAILABLE;
+    }
+
+    @Override
+    public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+        builder.startObject();
+        builder.field("ready", isReady());
+        builder.startObject("nodes");
+        for (final NodeResponse node : getNodes()) {
+            builder.startObject(node.getNode().getId());
+            node.toXContent(builder, params);
+            builder.endObject();
+        }
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+
+
+    public static class NodeResponse extends BaseNodeResponse
+            implements ToXContentObject {
+
+        private final RewriterWarmup.State state;
+        private final int numRewriters;
+        private final int numLoaded;
+        private final int numFailed;
+
+        public NodeResponse(final StreamInput in) throws IOException {
+            super(in);
+            state = in.readEnum(RewriterWarmup.State.class);
+            numRewriters = in.readVInt();
+            numLoaded = in.readVInt();
+            numFailed = in.readVInt();
+        }
+
+        public NodeResponse(final DiscoveryNode node, final RewriterWarmup.State state, final int numRewriters,
+                            final int numLoaded, final int numFailed) {
+            super(node);
+            this.state = state;
+            this.numRewriters = numRewriters;
+            this.numLoaded = numLoaded;
+            this.numFailed = numFailed;
+        }
+
+        @Override
+        public void writeTo(final StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeEnum(state);
+            out.writeVInt(numRewriters);
+            out.writeVInt(numLoaded);
+            out.writeVInt(numFailed);
+        }
+
+        public RewriterWarmup.State getState() {
+            return state;
+        }
+
+        public boolean isReady() {
+            return state.ready;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final NodeResponse that = (NodeResponse) o;
+            return Objects.equals(getNode(), that.getNode())
+                    && state == that.state
+                    && numRewriters == that.numRewriters
+                    && numLoaded == that.numLoaded
+                    && numFailed == that.numFailed;
+
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(getNode(), state, numRewriters, numLoaded, numFailed);
+        }
+
+        static NodeResponse readNodeResponse(final StreamInput in) throws IOException {
+            return new NodeResponse(in);
+        }
+
+        @Override
+        public XContentBuilder toXContent(final XContentBuilder builder, final Params params) throws IOException {
+            return builder.field("name", getNode().getName())
+                    .field("state", state.name().toLowerCase(Locale.ROOT))
+                    .field("ready", isReady())
+                    .field("rewriters", numRewriters)
+                    .field("loaded", numLoaded)
+                    .field("failed", numFailed);
+        }
+
+        @Override
+        public boolean isFragment() {
+            return true;
+        }
+    }
+}
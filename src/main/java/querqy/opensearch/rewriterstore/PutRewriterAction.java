@@ -22,7 +22,11 @@ import org.opensearch.action.ActionType;
 
 public class PutRewriterAction extends ActionType<PutRewriterResponse> {
 
-    public static final String NAME = "cluster:admin/querqy/rewriter/save";
+    /**
+     * The sequence number and primary term of {@link PutRewriterRequest} aren't understood by nodes running an earlier
+     * version of the plugin. The action uses a new name so that such nodes reject it instead of misreading it.
+     */
+    public static final String NAME = "cluster:admin/querqy/rewriter/save_rewriter";
     public static final PutRewriterAction INSTANCE = new PutRewriterAction(NAME);
 
     /**
@@ -23,6 +23,7 @@ import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.action.ValidateActions;
 import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.core.common.io.stream.StreamOutput;
+import org.opensearch.index.seqno.SequenceNumbers;
 import org.opensearch.secure_sm.AccessController;
 
 import querqy.opensearch.OpenSearchRewriterFactory;
@@ -38,23 +39,46 @@ public class PutRewriterRequest extends ActionRequest {
 
     private final Map<String, Object> content;
     private final String rewriterId;
+    private final long ifSeqNo;
+    private final long ifPrimaryTerm;
 
     public PutRewriterRequest(final StreamInput in) throws IOException {
         super(in);
         rewriterId = in.readString();
         content = in.readMap();
+        ifSeqNo = in.readZLong();
+        ifPrimaryTerm = in.readVLong();
     }
 
     public PutRewriterRequest(final String rewriterId, final Map<String, Object> content) {
+        this(rewriterId, content, SequenceNumbers.UNASSIGNED_SEQ_NO, SequenceNumbers.UNASSIGNED_PRIMARY_TERM);
+    }
+
+    /**
+     * @param ifSeqNo Only save the rewriter if its document still has this sequence number, or
+     *                {@link SequenceNumbers#UNASSIGNED_SEQ_NO} to save it unconditionally
+     * @param ifPrimaryTerm Only save the rewriter if its document still has this primary term, or
+     *                      {@link SequenceNumbers#UNASSIGNED_PRIMARY_TERM} to save it unconditionally
+     */
+    public PutRewriterRequest(final String rewriterId, final Map<String, Object> content, final long ifSeqNo,
+                              final long ifPrimaryTerm) {
         super();
         this.rewriterId = rewriterId;
         this.content = content;
+        this.ifSeqNo = ifSeqNo;
+        this.ifPrimaryTerm = ifPrimaryTerm;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public ActionRequestValidationException validate() {
 
+        if ((ifSeqNo == SequenceNumbers.UNASSIGNED_SEQ_NO)
+                != (ifPrimaryTerm == SequenceNumbers.UNASSIGNED_PRIMARY_TERM)) {
+            return ValidateActions.addValidationError("The sequence number and the primary term of the rewriter "
+                    + "must be set together", null);
+        }
+
         final OpenSearchRewriterFactory esRewriterFactory;
         try {
             esRewriterFactory = OpenSearchRewriterFactory.loadInstance(rewriterId, content, "class");
@@ -125,6 +149,8 @@ public class PutRewriterRequest extends ActionRequest {
         super.writeTo(out);
         out.writeString(rewriterId);
         out.writeMap(content);
+        out.writeZLong(ifSeqNo);
+        out.writeVLong(ifPrimaryTerm);
     }
 
     public String getRewriterId() {
@@ -135,4 +161,12 @@ public class PutRewriterRequest extends ActionRequest {
         return content;
     }
 
+    public long getIfSeqNo() {
+        return ifSeqNo;
+    }
+
+    public long getIfPrimaryTerm() {
+        return ifPrimaryTerm;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_REWRITER_BASE_ROUTE;
+
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestStatusToXContentListener;
+import org.opensearch.transport.client.node.NodeClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class RestBulkPutRewriterAction extends BaseRestHandler {
+
+    public static final String FIELD_REWRITERS = "rewriters";
+
+    @Override
+    public String getName() {
+        return "Save several Querqy rewriters";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return Collections.singletonList(new Route(RestRequest.Method.POST, QUERQY_REWRITER_BASE_ROUTE + "/_bulk"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) {
+
+        final BulkPutRewriterRequest bulkRequest = createRequest(request);
+
+        return (channel) -> client.execute(BulkPutRewriterAction.INSTANCE, bulkRequest,
+                new RestStatusToXContentListener<>(channel));
+
+    }
+
+    @SuppressWarnings("unchecked")
+    BulkPutRewriterRequest createRequest(final RestRequest request) {
+
+        final Map<String, Object> source = XContentHelper
+                .convertToMap(request.content(), true, XContentType.JSON).v2();
+
+        final Object rewriters = source.get(FIELD_REWRITERS);
+        if (!(rewriters instanceof Map)) {
+            throw new IllegalArgumentException("'" + FIELD_REWRITERS
+                    + "' must be an object of rewriter definitions by rewriter ID");
+        }
+
+        final List<PutRewriterRequest> requests = new ArrayList<>(((Map<String, Object>) rewriters).size());
+        for (final Map.Entry<String, Object> entry : ((Map<String, Object>) rewriters).entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                throw new IllegalArgumentException("Definition of rewriter " + entry.getKey()
+                        + " must be an object");
+            }
+            requests.add(new PutRewriterRequest(entry.getKey().trim(), (Map<String, Object>) entry.getValue()));
+        }
+
+        return new BulkPutRewriterRequest(requests);
+    }
+
+}
@@ -33,6 +33,11 @@ import java.util.List;
 public class RestGetRewriterAction extends BaseRestHandler {
 
     public static final String PARAM_REWRITER_ID = "rewriterId";
+    public static final String PARAM_VERIFY_CONFIG_HASH = "verify_config_hash";
+    public static final String PARAM_SIZE = "size";
+    public static final String PARAM_FROM_ID = "from_id";
+    public static final String PARAM_CLASS = "class";
+    public static final String PARAM_REVISION = "revision";
 
     @Override
     public String getName() {
@@ -63,7 +68,10 @@ public class RestGetRewriterAction extends BaseRestHandler {
                 ? null
                 : rewriterIdParam.trim();
 
-        return new GetRewriterRequestBuilder(client, GetRewriterAction.INSTANCE, new GetRewriterRequest(rewriterId));
+        return new GetRewriterRequestBuilder(client, GetRewriterAction.INSTANCE,
+                new GetRewriterRequest(rewriterId, request.paramAsBoolean(PARAM_VERIFY_CONFIG_HASH, false),
+                        request.paramAsInt(PARAM_SIZE, GetRewriterRequest.MAX_PAGE_SIZE),
+                        request.param(PARAM_FROM_ID), request.param(PARAM_CLASS), request.param(PARAM_REVISION)));
     }
 
 
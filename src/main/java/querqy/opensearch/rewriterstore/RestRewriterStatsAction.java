@@ -0,0 +1,62 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_REWRITER_BASE_ROUTE;
+
+import org.opensearch.core.common.Strings;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestToXContentListener;
+import org.opensearch.transport.client.node.NodeClient;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the usage statistics of the rewriters per node. The rewriters and nodes can be selected by the
+ * comma-separated <code>rewriters</code> and <code>nodes</code> parameters.
+ */
+public class RestRewriterStatsAction extends BaseRestHandler {
+
+    public static final String PARAM_NODES = "nodes";
+    public static final String PARAM_REWRITERS = "rewriters";
+
+    @Override
+    public String getName() {
+        return "Report the Querqy rewriter statistics";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return Collections.singletonList(new Route(RestRequest.Method.GET, QUERQY_REWRITER_BASE_ROUTE + "/_stats"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) {
+
+        final NodesRewriterStatsRequest statsRequest = new NodesRewriterStatsRequest(
+                Strings.splitStringByCommaToArray(request.param(PARAM_REWRITERS)),
+                Strings.splitStringByCommaToArray(request.param(PARAM_NODES)));
+
+        return (channel) -> client.execute(NodesRewriterStatsAction.INSTANCE, statsRequest,
+                new RestToXContentListener<>(channel));
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_REWRITER_BASE_ROUTE;
+
+import org.opensearch.core.common.Strings;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestStatusToXContentListener;
+import org.opensearch.transport.client.node.NodeClient;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports whether the rewriters have been warmed up. Responds with status 503 until the warm-up has completed on all
+ * selected nodes, so that it can be used as a readiness check, for example using <code>?nodes=_local</code>.
+ */
+public class RestRewriterWarmupStatusAction extends BaseRestHandler {
+
+    public static final String PARAM_NODES = "nodes";
+
+    @Override
+    public String getName() {
+        return "Report the Querqy rewriter warm-up status";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return Collections.singletonList(new Route(RestRequest.Method.GET, QUERQY_REWRITER_BASE_ROUTE + "/_warmup"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) {
+
+        final NodesRewriterWarmupStatusRequest statusRequest = new NodesRewriterWarmupStatusRequest(
+                Strings.splitStringByCommaToArray(request.param(PARAM_NODES)));
+
+        return (channel) -> client.execute(NodesRewriterWarmupStatusAction.INSTANCE, statusRequest,
+                new RestStatusToXContentListener<>(channel));
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_REWRITER_BASE_ROUTE;
+
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.rest.BaseRestHandler;
+import org.opensearch.rest.RestRequest;
+import org.opensearch.rest.action.RestStatusToXContentListener;
+import org.opensearch.transport.client.node.NodeClient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class RestUpdateRewriterRulesAction extends BaseRestHandler {
+
+    public static final String PARAM_REWRITER_ID = "rewriterId";
+    public static final String FIELD_DELETE = "delete";
+    public static final String FIELD_UPSERT = "upsert";
+
+    @Override
+    public String getName() {
+        return "Update the rules of a Querqy rewriter";
+    }
+
+    @Override
+    public List<Route> routes() {
+        return Collections.singletonList(new Route(RestRequest.Method.POST,
+                QUERQY_REWRITER_BASE_ROUTE + "/{rewriterId}/_rules"));
+    }
+
+    @Override
+    protected RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) {
+
+        final UpdateRewriterRulesRequest updateRequest = createRequest(request);
+
+        return (channel) -> client.execute(UpdateRewriterRulesAction.INSTANCE, updateRequest,
+                new RestStatusToXContentListener<>(channel, (r) -> r.getIndexResponse().getLocation(null)));
+
+    }
+
+    UpdateRewriterRulesRequest createRequest(final RestRequest request) {
+
+        String rewriterId = request.param(PARAM_REWRITER_ID);
+        if (rewriterId == null || (rewriterId = rewriterId.trim()).isEmpty()) {
+            throw new IllegalArgumentException("RestUpdateRewriterRulesAction requires rewriterId parameter");
+        }
+
+        final Map<String, Object> source = XContentHelper
+                .convertToMap(request.content(), false, XContentType.JSON).v2();
+
+        final Object delete = source.get(FIELD_DELETE);
+        if (delete != null && !(delete instanceof Collection)) {
+            throw new IllegalArgumentException("'" + FIELD_DELETE + "' must be an array of rule inputs or IDs");
+        }
+
+        final Object upsert = source.get(FIELD_UPSERT);
+        if (upsert != null && !(upsert instanceof String)) {
+            throw new IllegalArgumentException("'" + FIELD_UPSERT + "' must be a string of rules");
+        }
+
+        final Object revision = source.get(RewriterConfigMapping.PROP_REVISION);
+
+        return new UpdateRewriterRulesRequest(rewriterId,
+                delete == null
+                        ? null
+                        : ((Collection<?>) delete).stream().map(String::valueOf).collect(Collectors.toList()),
+                (String) upsert,
+                revision == null ? null : revision.toString());
+    }
+
+}
@@ -18,22 +18,27 @@
 
 package querqy.opensearch.rewriterstore;
 
-import org.apache.lucene.util.BytesRef;
 import org.opensearch.OpenSearchException;
 import org.opensearch.core.common.ParsingException;
-import org.opensearch.core.common.bytes.BytesArray;
-import org.opensearch.common.xcontent.XContentHelper;
 import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.xcontent.DeprecationHandler;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -55,8 +60,9 @@ public abstract class RewriterConfigMapping {
     public static final String PROP_REVISION = "revision";
 
     /**
-     * A hash of the rewriter configuration payload. This property is never stored but always derived from the stored
-     * rewriter document - see {@link #computeConfigHash(String, Map)}.
+     * A hash of the rewriter configuration payload - see {@link #computeConfigHash(String, Map)}. It is stored when the
+     * rewriter is saved so that rewriters can be listed without reading their configs. It is derived from the stored
+     * rewriter document if it wasn't stored or if it must be verified - see {@link #getConfigHash(String, Map)}.
      */
     public static final String PROP_CONFIG_HASH = "config_hash";
 
@@ -66,6 +72,12 @@ public abstract class RewriterConfigMapping {
      */
     public static final String PROP_SAVED_AT = "saved_at";
 
+    /**
+     * The rewriter ID, which is also the document ID. It is stored as a keyword so that rewriters can be sorted and
+     * paged by ID without loading the fielddata of the _id field.
+     */
+    public static final String PROP_REWRITER_ID = "rewriter_id";
+
     private static final String CONFIG_HASH_ALGORITHM = "SHA-256";
 
     public static final RewriterConfigMapping CURRENT = new RewriterConfigMapping() {
@@ -156,11 +168,28 @@ public abstract class RewriterConfigMapping {
      * @return The document to save in the rewriter index
      * @throws IOException if the rewriter config cannot be serialized
      */
-    @SuppressWarnings("unchecked")
     public static Map<String, Object> toLuceneSource(final Map<String, Object> putRequestContent,
                                                      final Long savedAtMillis) throws IOException {
-        final Map<String, Object> source = new HashMap<>(putRequestContent.size() + 5);
+        return toLuceneSource(null, putRequestContent, savedAtMillis);
+    }
+
+    /**
+     * @param rewriterId The rewriter ID, or null to save the rewriter without {@link #PROP_REWRITER_ID}
+     * @param putRequestContent The payload of the request to save the rewriter
+     * @param savedAtMillis The point in time at which the rewriter is saved, in epoch millis, or null to save the
+     *                      rewriter without this information
+     * @return The document to save in the rewriter index
+     * @throws IOException if the rewriter config cannot be serialized
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toLuceneSource(final String rewriterId,
+                                                     final Map<String, Object> putRequestContent,
+                                                     final Long savedAtMillis) throws IOException {
+        final Map<String, Object> source = new HashMap<>(putRequestContent.size() + 6);
         source.put(PROP_TYPE, "rewriter");
+        if (rewriterId != null) {
+            source.put(PROP_REWRITER_ID, rewriterId);
+        }
         source.put(PROP_VERSION, CURRENT_MAPPING_VERSION);
         source.put(CURRENT.getRewriterClassNameProperty(), putRequestContent.get("class"));
 
@@ -187,59 +216,94 @@ public abstract class RewriterConfigMapping {
             source.put(CURRENT.getConfigStringProperty(), stringToSourceValue(jsonString, 32766));
         }
 
+        source.put(PROP_CONFIG_HASH, CURRENT.computeConfigHash(null, source));
+
         return source;
     }
 
     /**
-     * Lucene doesn't allow us to save Strings in keywords fields if their UTF-8-encoded version exceeds a certain byte
-     * array length. This method splits Strings into an array of Strings whose elements are guaranteed not to exceed
-     * that limit. If the input string does not exceed the limit, the method returns the input string.
+     * <p>Lucene doesn't allow us to save Strings in keywords fields if their UTF-8-encoded version exceeds a certain
+     * byte array length. This method splits Strings into an array of Strings whose elements are guaranteed not to
+     * exceed that limit. If the input string does not exceed the limit, the method returns the input string.</p>
+     *
+     * <p>The UTF-8 length is counted in a single pass over the input, without encoding it. Surrogate pairs are not
+     * split up unless the limit is less than the 4 bytes of their encoding. Unpaired surrogates are counted with the 3
+     * bytes of the replacement character that Lucene encodes them to.</p>
      *
      * @param string The input string
      * @param maxUTFByteLength The max length
      * @return A String or an array of Strings
      */
     public static Object stringToSourceValue(final String string, final int maxUTFByteLength) {
-        final BytesRef binaryValue = new BytesRef(string);
-        if (binaryValue.length <= maxUTFByteLength) {
+
+        final int length = string.length();
+        // max UTF encoding length for a single char is 3 bytes
+        if ((long) length * 3L <= maxUTFByteLength) {
             return string;
         }
-        if (maxUTFByteLength < 3) {
-            // max UTF encoding length for a single char is 3 bytes
-            throw new IllegalArgumentException("maxUTFByteLength >=3 expected");
-        }
-        final List<String> splits = new ArrayList<>();
-        String s = string;
-        while (new BytesRef(s).length > maxUTFByteLength) {
-            String split = s;
-            do {
-                int length = Math.max(1, Math.min((int) Math.floor(split.length() * 0.95), maxUTFByteLength));
-                split = split.substring(0, length);
-            } while (new BytesRef(split).length > maxUTFByteLength);
-            splits.add(split);
-            s = s.substring(split.length());
+
+        List<String> splits = null;
+        int chunkStart = 0;
+        int chunkBytes = 0;
+        int i = 0;
+        while (i < length) {
+
+            final char ch = string.charAt(i);
+            int numChars = 1;
+            final int numBytes;
+            if (ch < 0x80) {
+                numBytes = 1;
+            } else if (ch < 0x800) {
+                numBytes = 2;
+            } else if (Character.isHighSurrogate(ch) && maxUTFByteLength >= 4 && i + 1 < length
+                    && Character.isLowSurrogate(string.charAt(i + 1))) {
+                numChars = 2;
+                numBytes = 4;
+            } else {
+                numBytes = 3;
+            }
+
+            if (chunkBytes + numBytes > maxUTFByteLength) {
+                if (maxUTFByteLength < 3) {
+                    throw new IllegalArgumentException("maxUTFByteLength >=3 expected");
+                }
+                if (splits == null) {
+                    splits = new ArrayList<>();
+                }
+                splits.add(string.substring(chunkStart, i));
+                chunkStart = i;
+                chunkBytes = 0;
+            }
+
+            chunkBytes += numBytes;
+            i += numChars;
         }
-        if (s.length() > 0) {
-            splits.add(s);
+
+        if (splits == null) {
+            return string;
         }
+        splits.add(string.substring(chunkStart));
         return splits.toArray(new String[0]);
     }
 
     public Map<String, Object> getConfig(final String rewriterId, final Map<String, Object> source) {
 
-        final String configStr = getConfigString(source);
+        final List<String> configChunks = getConfigChunks(source);
 
-        if (configStr == null) {
+        if (configChunks == null) {
             return Collections.emptyMap();
         }
 
+        // We read the config from its parts so that a large config doesn't have to be joined into another string
+        // and encoded to bytes before it can be parsed
         final XContentParser parser;
         try {
-            parser = XContentHelper.createParser(null, null, new BytesArray(configStr), XContentType.JSON);
+            parser = XContentType.JSON.xContent().createParser(NamedXContentRegistry.EMPTY,
+                    DeprecationHandler.THROW_UNSUPPORTED_OPERATION, new StringChunksReader(configChunks));
         } catch (final IOException e) {
             throw new OpenSearchException(e);
         }
-        try {
+        try (parser) {
             return parser.map();
         } catch (final IOException e) {
             throw new ParsingException(parser.getTokenLocation(), "Could not load 'config' of rewriter " + rewriterId);
@@ -284,27 +348,31 @@ public abstract class RewriterConfigMapping {
      * <p>Computes a hash over the configuration payload of a stored rewriter: the rewriter class, the rewriter config
      * and the info logging config. {@link #PROP_REVISION} is not part of the hash.</p>
      *
-     * <p>The hash is never stored but always derived from the stored document. This keeps it from becoming stale if a
-     * rewriter document is written without using the rewriter API - by bulk indexing, reindexing or restoring a
-     * snapshot, for example.</p>
+     * <p>This method always derives the hash from the stored document and ignores {@link #PROP_CONFIG_HASH}. This
+     * detects a stored hash that became stale because the rewriter document was changed without using the rewriter
+     * API.</p>
      *
-     * @param rewriterId The rewriter ID (used in error messages only)
+     * @param rewriterId The rewriter ID (used in error messages only, can be null)
      * @param source The stored rewriter document
      * @return The hash, as a lower-case hex string
      */
     public String computeConfigHash(final String rewriterId, final Map<String, Object> source) {
 
-        final StringBuilder hashInput = new StringBuilder(256);
+        // The hash input is digested piece by piece so that a large config isn't copied to build it
+        final HashInput hashInput = new HashInput();
 
         try {
 
             hashInput.append("{\"class\":").append(toCanonicalJsonString(getRewriterClassName(rewriterId, source)));
 
-            final String configString = getConfigString(source);
-            if (configString != null) {
-                hashInput.append(",\"config\":").append(isConfigStoredCanonically()
-                        ? configString
-                        : toCanonicalJsonString(getConfig(rewriterId, source)));
+            final List<String> configChunks = getConfigChunks(source);
+            if (configChunks != null) {
+                hashInput.append(",\"config\":");
+                if (isConfigStoredCanonically()) {
+                    configChunks.forEach(hashInput::append);
+                } else {
+                    hashInput.append(toCanonicalJsonString(getConfig(rewriterId, source)));
+                }
             }
 
             final Map<String, Object> infoLoggingConfig = getInfoLoggingConfig(rewriterId, source);
@@ -312,13 +380,24 @@ public abstract class RewriterConfigMapping {
                 hashInput.append(",\"info_logging\":").append(toCanonicalJsonString(infoLoggingConfig));
             }
 
-            hashInput.append('}');
+            hashInput.append("}");
 
         } catch (final IOException e) {
             throw new OpenSearchException("Could not compute the config hash of rewriter " + rewriterId, e);
         }
 
-        return hash(hashInput.toString());
+        return hashInput.toHexHash();
+    }
+
+    /**
+     * @param rewriterId The rewriter ID (used in error messages only)
+     * @param source The stored rewriter document
+     * @return The hash that was stored with the rewriter, or the hash computed by
+     * {@link #computeConfigHash(String, Map)} if the document doesn't contain a stored hash
+     */
+    public String getConfigHash(final String rewriterId, final Map<String, Object> source) {
+        final Object storedHash = source.get(PROP_CONFIG_HASH);
+        return storedHash instanceof String ? (String) storedHash : computeConfigHash(rewriterId, source);
     }
 
     /**
@@ -326,27 +405,86 @@ public abstract class RewriterConfigMapping {
      * @return The stored config as a JSON string, joining the parts of a config that had to be split up on saving, or
      * null if this document doesn't have a config.
      */
-    @SuppressWarnings("unchecked")
     protected String getConfigString(final Map<String, Object> source) {
+        final List<String> configChunks = getConfigChunks(source);
+        return configChunks == null ? null : String.join("", configChunks);
+    }
+
+    /**
+     * @param source The stored rewriter document
+     * @return The parts of the stored config, with leading whitespace of the config removed from the first part and
+     * trailing whitespace from the last part, or null if this document doesn't have a config.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<String> getConfigChunks(final Map<String, Object> source) {
 
         final Object configStringValue = source.get(getConfigStringProperty());
 
-        final String configStr;
+        final List<String> chunks;
         if (configStringValue == null) {
-            configStr = null;
+            return null;
         } else if (configStringValue instanceof String) {
-            configStr = ((String) configStringValue).trim();
+            chunks = Collections.singletonList((String) configStringValue);
         } else if (configStringValue instanceof List) {
             // this is what we get for a config that had to be split up when we read the document from the index
-            configStr = String.join("", (Iterable<? extends CharSequence>) configStringValue).trim();
+            chunks = (List<String>) configStringValue;
         } else if (configStringValue instanceof String[]) {
             // ... and this is what stringToSourceValue produces for such a config
-            configStr = String.join("", (String[]) configStringValue).trim();
+            chunks = Arrays.asList((String[]) configStringValue);
         } else {
             throw new IllegalArgumentException("Unexpected config value class: " + configStringValue);
         }
 
-        return (configStr == null || configStr.isEmpty()) ? null : configStr;
+        return trim(chunks);
+    }
+
+    /**
+     * Trims the parts of a string like {@link String#trim()} trims the joined string.
+     *
+     * @param chunks The parts of a string
+     * @return The trimmed parts, or null if the joined string would be empty after trimming
+     */
+    static List<String> trim(final List<String> chunks) {
+
+        int first = 0;
+        int begin = 0;
+        for (; first < chunks.size(); first++) {
+            final String chunk = chunks.get(first);
+            begin = 0;
+            while (begin < chunk.length() && chunk.charAt(begin) <= ' ') {
+                begin++;
+            }
+            if (begin < chunk.length()) {
+                break;
+            }
+        }
+        if (first == chunks.size()) {
+            return null;
+        }
+
+        // the first non-blank chunk stops this loop
+        int last = chunks.size() - 1;
+        int end;
+        while (true) {
+            final String chunk = chunks.get(last);
+            end = chunk.length();
+            while (end > 0 && chunk.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (end > 0) {
+                break;
+            }
+            last--;
+        }
+
+        if (first == last) {
+            return Collections.singletonList(chunks.get(first).substring(begin, end));
+        }
+        final List<String> trimmed = new ArrayList<>(last - first + 1);
+        trimmed.add(chunks.get(first).substring(begin));
+        trimmed.addAll(chunks.subList(first + 1, last));
+        trimmed.add(chunks.get(last).substring(0, end));
+        return trimmed;
     }
 
     /**
@@ -404,22 +542,87 @@ public abstract class RewriterConfigMapping {
         return value;
     }
 
-    private static String hash(final String input) {
+    /**
+     * The UTF-8 encoded input of the config hash. A surrogate pair can be split up across two parts of a config, so we
+     * hold back a trailing high surrogate until the next part arrives.
+     */
+    private static class HashInput {
+
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+        private char pendingHighSurrogate = 0;
+
+        HashInput() {
+            try {
+                digest = MessageDigest.getInstance(CONFIG_HASH_ALGORITHM);
+            } catch (final NoSuchAlgorithmException e) {
+                throw new IllegalStateException(CONFIG_HASH_ALGORITHM + " is not available", e);
+            }
+        }
 
-        final MessageDigest digest;
-        try {
-            digest = MessageDigest.getInstance(CONFIG_HASH_ALGORITHM);
-        } catch (final NoSuchAlgorithmException e) {
-            throw new IllegalStateException(CONFIG_HASH_ALGORITHM + " is not available", e);
+        HashInput append(final String input) {
+            if (input.isEmpty()) {
+                return this;
+            }
+            int start = 0;
+            if (pendingHighSurrogate != 0) {
+                final String pair = new String(new char[] {pendingHighSurrogate, input.charAt(0)});
+                pendingHighSurrogate = 0;
+                if (Character.isLowSurrogate(pair.charAt(1))) {
+                    encode(pair);
+                    start = 1;
+                } else {
+                    encode(pair.substring(0, 1));
+                }
+            }
+            int end = input.length();
+            if (Character.isHighSurrogate(input.charAt(end - 1)) && end - 1 >= start) {
+                pendingHighSurrogate = input.charAt(end - 1);
+                end--;
+            }
+            if (end > start) {
+                encode(CharBuffer.wrap(input, start, end));
+            }
+            return this;
         }
 
-        final byte[] bytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        private void encode(final CharSequence chars) {
+            final CharBuffer in = CharBuffer.wrap(chars);
+            encoder.reset();
+            while (true) {
+                final CoderResult result = encoder.encode(in, bytes, true);
+                flushBytes();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            while (encoder.flush(bytes).isOverflow()) {
+                flushBytes();
+            }
+            flushBytes();
+        }
 
-        final StringBuilder hex = new StringBuilder(bytes.length * 2);
-        for (final byte b : bytes) {
-            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        private void flushBytes() {
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+        }
+
+        String toHexHash() {
+            if (pendingHighSurrogate != 0) {
+                encode(String.valueOf(pendingHighSurrogate));
+                pendingHighSurrogate = 0;
+            }
+            final byte[] hash = digest.digest();
+            final StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (final byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
         }
-        return hex.toString();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.DEFAULT_QUERQY_INDEX_NUM_REPLICAS;
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS;
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_NUM_REPLICAS;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.admin.indices.create.CreateIndexRequest;
+import org.opensearch.action.admin.indices.create.CreateIndexRequestBuilder;
+import org.opensearch.action.admin.indices.create.CreateIndexResponse;
+import org.opensearch.action.admin.indices.mapping.get.GetMappingsResponse;
+import org.opensearch.action.admin.indices.mapping.put.PutMappingRequest;
+import org.opensearch.action.bulk.BulkRequestBuilder;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.cluster.metadata.MappingMetadata;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.SearchHit;
+import org.opensearch.transport.client.Client;
+import org.opensearch.transport.client.IndicesAdminClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Creates the rewriter index or migrates its mappings before rewriters are saved.
+ */
+class RewriterIndexSetup {
+
+    private static final Logger LOGGER = LogManager.getLogger(RewriterIndexSetup.class);
+
+    static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final Client client;
+    private final Settings settings;
+    private volatile boolean mappingsVersionChecked = false;
+
+    RewriterIndexSetup(final Client client, final Settings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Create the rewriter index if it doesn't exist, or add missing properties to its mappings once.
+     *
+     * @param listener Is notified once rewriters can be saved
+     */
+    void ensureIndex(final ActionListener<Void> listener) {
+
+        final IndicesAdminClient indicesClient = client.admin().indices();
+
+        indicesClient.prepareGetMappings(QUERQY_INDEX_NAME).execute(new ActionListener<GetMappingsResponse>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onResponse(final GetMappingsResponse getMappingsResponse) {
+                final Map<String, MappingMetadata> mappings = getMappingsResponse.getMappings();
+
+                if (!mappingsVersionChecked) {
+
+                    final Map<String, Object> properties = (Map<String, Object>) mappings.get(QUERQY_INDEX_NAME)
+                            .getSourceAsMap().get("properties");
+                    try {
+                        updateMappings(indicesClient, properties);
+                        storeMissingRewriterIds();
+                        mappingsVersionChecked = true;
+                    } catch (final Exception e) {
+                        listener.onFailure(e);
+                        return;
+                    }
+
+                }
+                listener.onResponse(null);
+
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                if ((e instanceof IndexNotFoundException) || (e.getCause() instanceof IndexNotFoundException)) {
+
+                    indicesClient.create(buildCreateQuerqyIndexRequest(indicesClient),
+                            new ActionListener<CreateIndexResponse>() {
+
+                                @Override
+                                public void onResponse(final CreateIndexResponse createIndexResponse) {
+                                    LOGGER.info("Created index {}", QUERQY_INDEX_NAME);
+                                    mappingsVersionChecked = true;
+                                    listener.onResponse(null);
+                                }
+
+                                @Override
+                                public void onFailure(final Exception e) {
+                                    listener.onFailure(e);
+                                }
+                            });
+
+                } else {
+                    listener.onFailure(e);
+                }
+            }
+        });
+
+    }
+
+    /**
+     * <p>Adds the properties that are missing in the mappings of the rewriter index, migrating the mappings of any
+     * earlier mapping version to {@link RewriterConfigMapping#CURRENT_MAPPING_VERSION}.</p>
+     *
+     * @param indicesClient The client for index operations
+     * @param existingProperties The properties that are currently mapped in the rewriter index
+     * @throws ExecutionException if updating the mappings fails
+     * @throws InterruptedException if updating the mappings is interrupted
+     */
+    protected void updateMappings(final IndicesAdminClient indicesClient, final Map<String, Object> existingProperties)
+            throws ExecutionException, InterruptedException {
+
+        final RewriterConfigMapping mapping = RewriterConfigMapping.CURRENT;
+
+        // property name -> mapping definition of that property
+        final Map<String, String> missingProperties = new LinkedHashMap<>();
+
+        if (!existingProperties.containsKey(mapping.getInfoLoggingProperty())) {
+            missingProperties.put(mapping.getInfoLoggingProperty(),
+                    "      \"" + mapping.getInfoLoggingProperty() + "\": {\n" +
+                    "        \"properties\": {\n" +
+                    "          \"sinks\": {\"type\" : \"keyword\" }\n" +
+                    "        }\n" +
+                    "      }");
+        }
+
+        if (!existingProperties.containsKey(mapping.getConfigStringProperty())) {
+            missingProperties.put(mapping.getConfigStringProperty(),
+                    "      \"" + mapping.getConfigStringProperty() + "\": {\n" +
+                    "        \"type\" : \"keyword\",\n" +
+                    "        \"doc_values\": false,\n" +
+                    "        \"index\": false\n" +
+                    "      }");
+        }
+
+        if (!existingProperties.containsKey(RewriterConfigMapping.PROP_REVISION)) {
+            missingProperties.put(RewriterConfigMapping.PROP_REVISION,
+                    "      \"" + RewriterConfigMapping.PROP_REVISION + "\": {\"type\" : \"keyword\" }");
+        }
+
+        if (!existingProperties.containsKey(RewriterConfigMapping.PROP_SAVED_AT)) {
+            missingProperties.put(RewriterConfigMapping.PROP_SAVED_AT,
+                    "      \"" + RewriterConfigMapping.PROP_SAVED_AT + "\": {\"type\" : \"date\" }");
+        }
+
+        if (!existingProperties.containsKey(RewriterConfigMapping.PROP_CONFIG_HASH)) {
+            missingProperties.put(RewriterConfigMapping.PROP_CONFIG_HASH,
+                    "      \"" + RewriterConfigMapping.PROP_CONFIG_HASH + "\": {\"type\" : \"keyword\" }");
+        }
+
+        if (!existingProperties.containsKey(RewriterConfigMapping.PROP_REWRITER_ID)) {
+            missingProperties.put(RewriterConfigMapping.PROP_REWRITER_ID,
+                    "      \"" + RewriterConfigMapping.PROP_REWRITER_ID + "\": {\"type\" : \"keyword\" }");
+        }
+
+        if (missingProperties.isEmpty()) {
+            return;
+        }
+
+        final PutMappingRequest request = new PutMappingRequest(QUERQY_INDEX_NAME).source(
+                "{\n" +
+                        "    \"properties\": {\n" +
+                        String.join(",\n", missingProperties.values()) + "\n" +
+                        "    }\n" +
+                        "}", XContentType.JSON
+        );
+
+        if (!indicesClient.putMapping(request).get().isAcknowledged()) {
+            throw new IllegalStateException("Adding properties " + missingProperties.keySet()
+                    + " to mappings not acknowledged");
+        }
+
+        LOGGER.info("Added properties {} to index {}", missingProperties.keySet(), QUERQY_INDEX_NAME);
+
+    }
+
+    /**
+     * <p>Stores the rewriter ID in {@link RewriterConfigMapping#PROP_REWRITER_ID} of the rewriters that were saved
+     * before the ID was stored, so that rewriters can be listed by sorting on that field.</p>
+     *
+     * @throws ExecutionException if searching or updating the rewriters fails
+     * @throws InterruptedException if searching or updating the rewriters is interrupted
+     */
+    protected void storeMissingRewriterIds() throws ExecutionException, InterruptedException {
+
+        int updated = 0;
+        while (true) {
+
+            final SearchHit[] hits = client.prepareSearch(QUERQY_INDEX_NAME)
+                    .setQuery(withoutRewriterIdQuery())
+                    .setFetchSource(false)
+                    .setSize(BACKFILL_BATCH_SIZE)
+                    .get().getHits().getHits();
+
+            if (hits.length == 0) {
+                break;
+            }
+
+            final BulkRequestBuilder bulkRequestBuilder = client.prepareBulk()
+                    // the next search must not find the updated rewriters again
+                    .setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+            for (final SearchHit hit : hits) {
+                bulkRequestBuilder.add(client.prepareUpdate(QUERQY_INDEX_NAME, hit.getId())
+                        .setDoc(Collections.singletonMap(RewriterConfigMapping.PROP_REWRITER_ID, hit.getId())));
+            }
+
+            final BulkResponse bulkResponse = bulkRequestBuilder.get();
+            if (bulkResponse.hasFailures()) {
+                throw new IllegalStateException("Could not store the rewriter IDs: "
+                        + bulkResponse.buildFailureMessage());
+            }
+            updated += hits.length;
+
+        }
+
+        if (updated > 0) {
+            LOGGER.info("Stored the rewriter ID of {} rewriters in index {}", updated, QUERQY_INDEX_NAME);
+        }
+
+    }
+
+    /**
+     * @return A query for the rewriters that were saved before {@link RewriterConfigMapping#PROP_REWRITER_ID} was
+     * stored
+     */
+    static QueryBuilder withoutRewriterIdQuery() {
+        return QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery(RewriterConfigMapping.PROP_TYPE, "rewriter"))
+                .mustNot(QueryBuilders.existsQuery(RewriterConfigMapping.PROP_REWRITER_ID));
+    }
+
+    protected CreateIndexRequest buildCreateQuerqyIndexRequest(final IndicesAdminClient indicesClient) {
+
+        final CreateIndexRequestBuilder createIndexRequestBuilder = indicesClient.prepareCreate(QUERQY_INDEX_NAME);
+        return  createIndexRequestBuilder.setMapping(readUtf8Resource("querqy-mapping.json"))
+                .setSettings(buildQuerqyIndexSettings(settings))
+                .request();
+    }
+
+    static Settings buildQuerqyIndexSettings(final Settings settings) {
+        final String autoExpandReplicas = settings.get(SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS);
+        if (autoExpandReplicas != null && !autoExpandReplicas.trim().isEmpty()) {
+            return Settings.builder().put("auto_expand_replicas", autoExpandReplicas.trim()).build();
+        }
+        final int numReplicas = settings.getAsInt(SETTINGS_QUERQY_INDEX_NUM_REPLICAS, DEFAULT_QUERQY_INDEX_NUM_REPLICAS);
+        return Settings.builder().put("number_of_replicas", numReplicas).build();
+    }
+
+
+    private static String readUtf8Resource(final String name) {
+        final Scanner scanner = new Scanner(RewriterIndexSetup.class.getClassLoader().getResourceAsStream(name),
+                StandardCharsets.UTF_8).useDelimiter("\\A");
+        return scanner.hasNext() ? scanner.next() : "";
+    }
+
+}
@@ -55,13 +55,30 @@ public class RewriterInfo implements Writeable, ToXContentObject {
      */
     public static RewriterInfo fromSource(final String rewriterId, final Map<String, Object> source,
                                           final boolean includeConfig) {
+        return fromSource(rewriterId, source, includeConfig, false);
+    }
+
+    /**
+     * Reads the rewriter information from a stored rewriter document.
+     *
+     * @param rewriterId The ID of the rewriter
+     * @param source The stored rewriter document. It must contain the config unless it contains the stored config
+     *               hash and neither the config nor the verification of the hash are requested.
+     * @param includeConfig Include the rewriter config in the information?
+     * @param verifyConfigHash Compute the config hash from the stored config instead of using the stored hash?
+     * @return The rewriter information
+     */
+    public static RewriterInfo fromSource(final String rewriterId, final Map<String, Object> source,
+                                          final boolean includeConfig, final boolean verifyConfigHash) {
 
         final RewriterConfigMapping mapping = RewriterConfigMapping.getMapping(source);
 
         return new RewriterInfo(rewriterId,
                 mapping.getRewriterClassName(rewriterId, source),
                 mapping.getRevision(source),
-                mapping.computeConfigHash(rewriterId, source),
+                verifyConfigHash
+                        ? mapping.computeConfigHash(rewriterId, source)
+                        : mapping.getConfigHash(rewriterId, source),
                 mapping.getSavedAt(source),
                 includeConfig ? mapping.getConfig(rewriterId, source) : null,
                 mapping.getInfoLoggingConfig(rewriterId, source));
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Reads a sequence of strings as if they were joined, without joining them. This lets us parse a config that had to
+ * be split up into several keyword values without copying it into a single string first.
+ */
+class StringChunksReader extends Reader {
+
+    private final List<String> chunks;
+    private int chunkIndex = 0;
+    private int offset = 0;
+
+    StringChunksReader(final List<String> chunks) {
+        this.chunks = chunks;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) {
+        if (len == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < len && chunkIndex < chunks.size()) {
+            final String chunk = chunks.get(chunkIndex);
+            final int n = Math.min(len - read, chunk.length() - offset);
+            chunk.getChars(offset, offset + n, cbuf, off + read);
+            read += n;
+            offset += n;
+            if (offset == chunk.length()) {
+                chunkIndex++;
+                offset = 0;
+            }
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() {
+        chunkIndex = chunks.size();
+    }
+}
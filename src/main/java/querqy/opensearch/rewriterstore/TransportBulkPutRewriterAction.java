@@ -0,0 +1,298 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static org.opensearch.core.action.ActionListener.wrap;
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.bulk.BulkAction;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.get.MultiGetRequest;
+import org.opensearch.action.get.MultiGetResponse;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.HandledTransportAction;
+import org.opensearch.action.support.WriteRequest;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.search.fetch.subphase.FetchSourceContext;
+import org.opensearch.tasks.Task;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+import org.opensearch.transport.client.Client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>Saves several rewriters with a single bulk request, a single refresh of the rewriter index and a single reload
+ * request to the nodes.</p>
+ *
+ * <p>The rewriter configs are validated in parallel before anything is saved. If any of them is invalid, no rewriter
+ * is saved. All saved rewriters are sent to the nodes for reloading together with their config hashes. A node only
+ * rebuilds a rewriter if the config hash of the version that it has loaded differs, so that nodes that missed an
+ * earlier reload are repaired while unchanged rewriters cost no rebuild.</p>
+ */
+public class TransportBulkPutRewriterAction
+        extends HandledTransportAction<BulkPutRewriterRequest, BulkPutRewriterResponse> {
+
+    private static final Logger LOGGER = LogManager.getLogger(TransportBulkPutRewriterAction.class);
+
+    /**
+     * The properties of the rewriter documents that are read to find the stored config hashes
+     */
+    static final String[] CONFIG_HASH_SOURCE_INCLUDES = {
+            RewriterConfigMapping.PROP_TYPE,
+            RewriterConfigMapping.PROP_CONFIG_HASH,
+            RewriterConfigMapping.CURRENT.getRewriterClassNameProperty()
+    };
+
+    private final Client client;
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final RewriterIndexSetup indexSetup;
+
+    @Inject
+    public TransportBulkPutRewriterAction(final TransportService transportService, final ActionFilters actionFilters,
+                                          final ClusterService clusterService, final ThreadPool threadPool,
+                                          final Client client, final Settings settings) {
+        super(BulkPutRewriterAction.NAME, false, transportService, actionFilters, BulkPutRewriterRequest::new);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.client = client;
+        this.indexSetup = new RewriterIndexSetup(client, settings);
+    }
+
+    @Override
+    protected void doExecute(final Task task, final BulkPutRewriterRequest request,
+                             final ActionListener<BulkPutRewriterResponse> listener) {
+
+        final List<PutRewriterRequest> requests = request.getRequests();
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<ActionRequestValidationException>[] validations = new CompletableFuture[requests.size()];
+        for (int i = 0; i < validations.length; i++) {
+            validations[i] = CompletableFuture.supplyAsync(requests.get(i)::validate, threadPool.generic());
+        }
+
+        CompletableFuture.allOf(validations).whenComplete((ignored, e) -> {
+            if (e != null) {
+                listener.onFailure(e instanceof Exception ? (Exception) e : new RuntimeException(e));
+                return;
+            }
+            ActionRequestValidationException validationException = null;
+            for (int i = 0; i < validations.length; i++) {
+                final ActionRequestValidationException itemException = validations[i].join();
+                if (itemException != null) {
+                    if (validationException == null) {
+                        validationException = new ActionRequestValidationException();
+                    }
+                    for (final String error : itemException.validationErrors()) {
+                        validationException.addValidationError("[" + requests.get(i).getRewriterId() + "] "
+                                + error);
+                    }
+                }
+            }
+            if (validationException != null) {
+                listener.onFailure(validationException);
+                return;
+            }
+
+            indexSetup.ensureIndex(wrap(
+                    (ready) -> loadConfigHashes(task, requests, listener),
+                    listener::onFailure));
+        });
+
+    }
+
+    protected void loadConfigHashes(final Task task, final List<PutRewriterRequest> requests,
+                                    final ActionListener<BulkPutRewriterResponse> listener) {
+
+        final FetchSourceContext fetchSourceContext = new FetchSourceContext(true, CONFIG_HASH_SOURCE_INCLUDES,
+                null);
+        final MultiGetRequest multiGetRequest = new MultiGetRequest();
+        requests.forEach(request -> multiGetRequest.add(new MultiGetRequest.Item(QUERQY_INDEX_NAME,
+                request.getRewriterId()).fetchSourceContext(fetchSourceContext)));
+        multiGetRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+
+        client.multiGet(multiGetRequest, wrap(
+                (multiGetResponse) -> {
+                    final Map<String, String> configHashes = new HashMap<>();
+                    final List<String> unhashedRewriterIds = new ArrayList<>();
+                    getStoredConfigHashes(multiGetResponse, configHashes, unhashedRewriterIds);
+                    if (unhashedRewriterIds.isEmpty()) {
+                        saveRewriters(task, requests, configHashes, listener);
+                    } else {
+                        computeConfigHashes(task, requests, unhashedRewriterIds, configHashes, listener);
+                    }
+                },
+                listener::onFailure));
+
+    }
+
+    /**
+     * Reads the full documents of the rewriters that were saved before the config hash was stored, to compute their
+     * config hashes.
+     */
+    protected void computeConfigHashes(final Task task, final List<PutRewriterRequest> requests,
+                                       final Collection<String> unhashedRewriterIds,
+                                       final Map<String, String> configHashes,
+                                       final ActionListener<BulkPutRewriterResponse> listener) {
+
+        final MultiGetRequest multiGetRequest = new MultiGetRequest();
+        unhashedRewriterIds.forEach(rewriterId -> multiGetRequest.add(QUERQY_INDEX_NAME, rewriterId));
+        multiGetRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+
+        client.multiGet(multiGetRequest, wrap(
+                (multiGetResponse) -> {
+                    configHashes.putAll(getComputedConfigHashes(multiGetResponse));
+                    saveRewriters(task, requests, configHashes, listener);
+                },
+                listener::onFailure));
+
+    }
+
+    protected void saveRewriters(final Task task, final List<PutRewriterRequest> requests,
+                                 final Map<String, String> storedConfigHashes,
+                                 final ActionListener<BulkPutRewriterResponse> listener) {
+
+        final long now = threadPool.absoluteTimeInMillis();
+        final BulkRequest bulkRequest = new BulkRequest();
+        bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        bulkRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+
+        final List<String> changedRewriterIds = new ArrayList<>(requests.size());
+        final Map<String, String> configHashes = new HashMap<>();
+        for (final PutRewriterRequest request : requests) {
+            final String rewriterId = request.getRewriterId();
+            final Map<String, Object> source;
+            try {
+                source = RewriterConfigMapping.toLuceneSource(rewriterId, request.getContent(), now);
+            } catch (final IOException e) {
+                listener.onFailure(e);
+                return;
+            }
+            final String configHash = (String) source.get(RewriterConfigMapping.PROP_CONFIG_HASH);
+            configHashes.put(rewriterId, configHash);
+            if (!configHash.equals(storedConfigHashes.get(rewriterId))) {
+                changedRewriterIds.add(rewriterId);
+            }
+            bulkRequest.add(client.prepareIndex(QUERQY_INDEX_NAME).setId(rewriterId).setCreate(false)
+                    .setSource(source).request());
+        }
+
+        client.execute(BulkAction.INSTANCE, bulkRequest, wrap(
+                (bulkResponse) -> reloadRewriters(bulkResponse, changedRewriterIds, configHashes, listener),
+                (e) -> {
+                    LOGGER.error("Could not save rewriters", e);
+                    listener.onFailure(e);
+                }));
+
+    }
+
+    /**
+     * @param changedRewriterIds The IDs of the rewriters whose stored config hash changed
+     * @param configHashes The config hashes of the saved rewriters by rewriter ID
+     */
+    protected void reloadRewriters(final BulkResponse bulkResponse, final List<String> changedRewriterIds,
+                                   final Map<String, String> configHashes,
+                                   final ActionListener<BulkPutRewriterResponse> listener) {
+
+        final List<String> savedRewriterIds = new ArrayList<>(configHashes.size());
+        final List<String> changedSavedRewriterIds = new ArrayList<>(changedRewriterIds.size());
+        for (final BulkItemResponse item : bulkResponse.getItems()) {
+            if (item.isFailed()) {
+                LOGGER.error("Could not save rewriter " + item.getId(), item.getFailure().getCause());
+            } else {
+                LOGGER.info("Saved rewriter {}", item.getId());
+                savedRewriterIds.add(item.getId());
+                if (changedRewriterIds.contains(item.getId())) {
+                    changedSavedRewriterIds.add(item.getId());
+                }
+            }
+        }
+
+        if (savedRewriterIds.isEmpty()) {
+            listener.onResponse(new BulkPutRewriterResponse(bulkResponse, changedSavedRewriterIds, null));
+        } else {
+            final Map<String, String> savedConfigHashes = new HashMap<>();
+            savedRewriterIds.forEach(rewriterId -> savedConfigHashes.put(rewriterId, configHashes.get(rewriterId)));
+            client.execute(NodesReloadRewriterAction.INSTANCE,
+                    new NodesReloadRewriterRequest(savedRewriterIds, savedConfigHashes),
+                    wrap(
+                            (reloadResponse) -> listener.onResponse(new BulkPutRewriterResponse(bulkResponse,
+                                    changedSavedRewriterIds, reloadResponse)),
+                            listener::onFailure
+                    ));
+        }
+
+    }
+
+    /**
+     * @param multiGetResponse The response to a lookup that only read the {@link #CONFIG_HASH_SOURCE_INCLUDES}
+     * @param configHashes Receives the stored config hashes by rewriter ID
+     * @param unhashedRewriterIds Receives the IDs of the existing rewriters that don't have a stored config hash
+     */
+    static void getStoredConfigHashes(final MultiGetResponse multiGetResponse, final Map<String, String> configHashes,
+                                      final Collection<String> unhashedRewriterIds) {
+
+        for (final MultiGetItemResponse item : multiGetResponse.getResponses()) {
+            // A failed lookup only means that we will reload the rewriter even if its config didn't change
+            if (!item.isFailed() && item.getResponse().isExists()) {
+                final Object configHash = item.getResponse().getSourceAsMap()
+                        .get(RewriterConfigMapping.PROP_CONFIG_HASH);
+                if (configHash instanceof String) {
+                    configHashes.put(item.getId(), (String) configHash);
+                } else {
+                    unhashedRewriterIds.add(item.getId());
+                }
+            }
+        }
+
+    }
+
+    /**
+     * @param multiGetResponse The response to a lookup that read the full rewriter documents
+     * @return The config hashes computed from the stored configs by rewriter ID
+     */
+    static Map<String, String> getComputedConfigHashes(final MultiGetResponse multiGetResponse) {
+
+        final Map<String, String> configHashes = new HashMap<>();
+        for (final MultiGetItemResponse item : multiGetResponse.getResponses()) {
+            if (!item.isFailed() && item.getResponse().isExists()) {
+                final Map<String, Object> source = item.getResponse().getSourceAsMap();
+                configHashes.put(item.getId(),
+                        RewriterConfigMapping.getMapping(source).computeConfigHash(item.getId(), source));
+            }
+        }
+        return configHashes;
+
+    }
+
+}
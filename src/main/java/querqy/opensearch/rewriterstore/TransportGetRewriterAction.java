@@ -20,10 +20,10 @@ package querqy.opensearch.rewriterstore;
 
 import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 import org.opensearch.ResourceNotFoundException;
 import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.get.MultiGetItemResponse;
+import org.opensearch.action.search.SearchRequestBuilder;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.ActionFilters;
 import org.opensearch.action.support.HandledTransportAction;
@@ -31,8 +31,12 @@ import org.opensearch.action.support.IndicesOptions;
 import org.opensearch.common.inject.Inject;
 import org.opensearch.core.action.ActionListener;
 import org.opensearch.index.IndexNotFoundException;
+import org.opensearch.index.mapper.IdFieldMapper;
+import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
 import org.opensearch.search.SearchHit;
+import org.opensearch.search.sort.SortBuilders;
+import org.opensearch.search.sort.SortOrder;
 import org.opensearch.tasks.Task;
 import org.opensearch.transport.TransportService;
 import org.opensearch.transport.client.Client;
@@ -40,18 +44,24 @@ import org.opensearch.transport.client.Client;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class TransportGetRewriterAction extends HandledTransportAction<GetRewriterRequest, GetRewriterResponse> {
 
-    private static final Logger LOGGER = LogManager.getLogger(TransportGetRewriterAction.class);
-
     /**
-     * The maximum number of rewriters that will be returned when rewriters are listed. This is the default value of
-     * the index.max_result_window setting, which a search request cannot exceed anyway.
+     * The properties of the rewriter documents that are read when rewriters are listed
      */
-    static final int MAX_LISTED_REWRITERS = 10000;
+    static final String[] LISTING_SOURCE_INCLUDES = {
+            RewriterConfigMapping.PROP_TYPE,
+            RewriterConfigMapping.PROP_VERSION,
+            RewriterConfigMapping.PROP_REVISION,
+            RewriterConfigMapping.PROP_SAVED_AT,
+            RewriterConfigMapping.PROP_CONFIG_HASH,
+            RewriterConfigMapping.CURRENT.getRewriterClassNameProperty(),
+            RewriterConfigMapping.CURRENT.getInfoLoggingProperty()
+    };
 
     private final Client client;
 
@@ -69,14 +79,15 @@ public class TransportGetRewriterAction extends HandledTransportAction<GetRewrit
         final String rewriterId = request.getRewriterId();
 
         if (rewriterId == null) {
-            listRewriters(listener);
+            listRewriters(request, listener);
         } else {
-            getRewriter(rewriterId, listener);
+            getRewriter(rewriterId, request.isVerifyConfigHash(), listener);
         }
 
     }
 
-    protected void getRewriter(final String rewriterId, final ActionListener<GetRewriterResponse> listener) {
+    protected void getRewriter(final String rewriterId, final boolean verifyConfigHash,
+                               final ActionListener<GetRewriterResponse> listener) {
 
         client.prepareGet(QUERQY_INDEX_NAME, rewriterId).execute(new ActionListener<GetResponse>() {
 
@@ -91,7 +102,8 @@ public class TransportGetRewriterAction extends HandledTransportAction<GetRewrit
                 }
 
                 try {
-                    listener.onResponse(new GetRewriterResponse(RewriterInfo.fromSource(rewriterId, source, true)));
+                    listener.onResponse(new GetRewriterResponse(RewriterInfo.fromSource(rewriterId, source, true,
+                            verifyConfigHash)));
                 } catch (final Exception e) {
                     listener.onFailure(e);
                 }
@@ -110,58 +122,155 @@ public class TransportGetRewriterAction extends HandledTransportAction<GetRewrit
 
     }
 
-    protected void listRewriters(final ActionListener<GetRewriterResponse> listener) {
+    protected void listRewriters(final GetRewriterRequest request, final ActionListener<GetRewriterResponse> listener) {
 
+        // Rewriters that were saved before the rewriter ID was stored are given the ID when the rewriter index setup
+        // runs on the next save. Until then, we have to sort them by the _id field.
         client.prepareSearch(QUERQY_INDEX_NAME)
-                // Don't fail if the rewriter index hasn't been created yet
                 .setIndicesOptions(IndicesOptions.lenientExpandOpen())
-                .setQuery(QueryBuilders.termQuery(RewriterConfigMapping.PROP_TYPE, "rewriter"))
-                .setSize(MAX_LISTED_REWRITERS)
-                .execute(new ActionListener<SearchResponse>() {
+                .setQuery(RewriterIndexSetup.withoutRewriterIdQuery())
+                .setFetchSource(false)
+                .setSize(1)
+                .execute(ActionListener.wrap(
+                        searchResponse -> listRewriters(request,
+                                searchResponse.getHits().getHits().length == 0
+                                        ? RewriterConfigMapping.PROP_REWRITER_ID
+                                        : IdFieldMapper.NAME,
+                                listener),
+                        e -> {
+                            if (isIndexNotFound(e)) {
+                                listener.onResponse(new GetRewriterResponse(Collections.emptyList()));
+                            } else {
+                                listener.onFailure(e);
+                            }
+                        }));
 
-                    @Override
-                    public void onResponse(final SearchResponse searchResponse) {
+    }
 
-                        try {
+    /**
+     * <p>Lists a page of rewriters. The response isn't streamed - the page size bounds the number of rewriters that
+     * are held in memory and sent in a single response, and further rewriters are read by requesting the next
+     * page.</p>
+     *
+     * @param request The listing request
+     * @param sortField The field that holds the rewriter ID and by which the rewriters are sorted and paged
+     * @param listener The listener for the page of rewriters
+     */
+    protected void listRewriters(final GetRewriterRequest request, final String sortField,
+                                 final ActionListener<GetRewriterResponse> listener) {
 
-                            final SearchHit[] hits = searchResponse.getHits().getHits();
+        final boolean verifyConfigHash = request.isVerifyConfigHash();
+        final int size = request.getSize();
 
-                            if (hits.length == MAX_LISTED_REWRITERS) {
-                                LOGGER.warn("Listing not more than {} rewriters", MAX_LISTED_REWRITERS);
-                            }
+        final BoolQueryBuilder query = QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery(RewriterConfigMapping.PROP_TYPE, "rewriter"));
+        if (request.getRewriterClass() != null) {
+            query.filter(QueryBuilders.termQuery(RewriterConfigMapping.CURRENT.getRewriterClassNameProperty(),
+                    request.getRewriterClass()));
+        }
+        if (request.getRevision() != null) {
+            query.filter(QueryBuilders.termQuery(RewriterConfigMapping.PROP_REVISION, request.getRevision()));
+        }
 
-                            final List<RewriterInfo> rewriters = new ArrayList<>(hits.length);
-                            for (final SearchHit hit : hits) {
-                                // Configs can be very large - we only return them for a single rewriter
-                                rewriters.add(RewriterInfo.fromSource(hit.getId(), hit.getSourceAsMap(), false));
-                            }
-                            rewriters.sort(Comparator.comparing(RewriterInfo::getRewriterId));
+        // Rewriters are listed in pages, sorted by ID. The last ID of a page is the cursor for the next page.
+        final SearchRequestBuilder searchRequestBuilder = client.prepareSearch(QUERQY_INDEX_NAME)
+                // Don't fail if the rewriter index hasn't been created yet
+                .setIndicesOptions(IndicesOptions.lenientExpandOpen())
+                .setQuery(query)
+                .addSort(SortBuilders.fieldSort(sortField).order(SortOrder.ASC).unmappedType("keyword"))
+                .setSize(size);
+        if (request.getFromId() != null) {
+            searchRequestBuilder.searchAfter(new Object[] {request.getFromId()});
+        }
+        if (!verifyConfigHash) {
+            // Configs can be very large - we only read them if we have to compute the config hash
+            searchRequestBuilder.setFetchSource(LISTING_SOURCE_INCLUDES, null);
+        }
+
+        searchRequestBuilder.execute(new ActionListener<SearchResponse>() {
 
-                            listener.onResponse(new GetRewriterResponse(rewriters));
+            @Override
+            public void onResponse(final SearchResponse searchResponse) {
+
+                try {
 
-                        } catch (final Exception e) {
-                            listener.onFailure(e);
+                    final SearchHit[] hits = searchResponse.getHits().getHits();
+                    // A full page might be followed by more rewriters
+                    final String nextFromId = hits.length == size ? hits[hits.length - 1].getId() : null;
+
+                    final Map<String, Map<String, Object>> sources = new HashMap<>(hits.length);
+                    final List<String> withoutConfigHash = new ArrayList<>();
+                    for (final SearchHit hit : hits) {
+                        final Map<String, Object> source = hit.getSourceAsMap();
+                        sources.put(hit.getId(), source);
+                        if (!verifyConfigHash && !source.containsKey(RewriterConfigMapping.PROP_CONFIG_HASH)) {
+                            withoutConfigHash.add(hit.getId());
                         }
+                    }
 
+                    if (withoutConfigHash.isEmpty()) {
+                        listener.onResponse(toResponse(sources, verifyConfigHash, nextFromId));
+                    } else {
+                        // Rewriters that were saved before the config hash was stored
+                        loadFullSources(withoutConfigHash, sources, nextFromId, listener);
                     }
 
-                    @Override
-                    public void onFailure(final Exception e) {
-                        if (isIndexNotFound(e)) {
-                            listener.onResponse(new GetRewriterResponse(Collections.emptyList()));
+                } catch (final Exception e) {
+                    listener.onFailure(e);
+                }
+
+            }
+
+            @Override
+            public void onFailure(final Exception e) {
+                if (isIndexNotFound(e)) {
+                    listener.onResponse(new GetRewriterResponse(Collections.emptyList()));
+                } else {
+                    listener.onFailure(e);
+                }
+            }
+        });
+
+    }
+
+    protected void loadFullSources(final List<String> rewriterIds, final Map<String, Map<String, Object>> sources,
+                                   final String nextFromId, final ActionListener<GetRewriterResponse> listener) {
+
+        client.prepareMultiGet().add(QUERQY_INDEX_NAME, rewriterIds).execute(ActionListener.wrap(
+                multiGetResponse -> {
+                    for (final MultiGetItemResponse item : multiGetResponse.getResponses()) {
+                        if (item.isFailed()) {
+                            listener.onFailure(item.getFailure().getFailure());
+                            return;
+                        }
+                        if (item.getResponse().isExists()) {
+                            sources.put(item.getId(), item.getResponse().getSourceAsMap());
                         } else {
-                            listener.onFailure(e);
+                            // deleted in the meantime
+                            sources.remove(item.getId());
                         }
                     }
-                });
+                    listener.onResponse(toResponse(sources, false, nextFromId));
+                },
+                listener::onFailure));
+
+    }
 
+    static GetRewriterResponse toResponse(final Map<String, Map<String, Object>> sources,
+                                          final boolean verifyConfigHash, final String nextFromId) {
+        final List<RewriterInfo> rewriters = new ArrayList<>(sources.size());
+        // Configs can be very large - we only return them for a single rewriter
+        sources.forEach((rewriterId, source) ->
+                rewriters.add(RewriterInfo.fromSource(rewriterId, source, false, verifyConfigHash)));
+        rewriters.sort(Comparator.comparing(RewriterInfo::getRewriterId));
+        return new GetRewriterResponse(rewriters, nextFromId);
     }
 
-    private static ResourceNotFoundException rewriterNotFound(final String rewriterId) {
+    static ResourceNotFoundException rewriterNotFound(final String rewriterId) {
         return new ResourceNotFoundException("Rewriter not found: " + rewriterId);
     }
 
-    private static boolean isIndexNotFound(final Exception e) {
+    static boolean isIndexNotFound(final Exception e) {
         return (e instanceof IndexNotFoundException) || (e.getCause() instanceof IndexNotFoundException);
     }
 
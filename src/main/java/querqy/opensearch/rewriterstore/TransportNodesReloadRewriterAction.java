@@ -77,8 +77,10 @@ public class TransportNodesReloadRewriterAction extends TransportNodesAction<Nod
     protected NodesReloadRewriterResponse.NodeResponse nodeOperation(
             final NodesReloadRewriterRequest.NodeRequest request) {
         try {
-            rewriterShardContexts.reloadRewriter(request.getRewriterId());
-            return new NodesReloadRewriterResponse.NodeResponse(clusterService.localNode(), null);
+            final RewriterShardContexts.ReloadResult result = rewriterShardContexts
+                    .reloadRewriters(request.getRewriterIds(), request.getConfigHashes());
+            return new NodesReloadRewriterResponse.NodeResponse(clusterService.localNode(), result.getReloaded(),
+                    result.getUnchanged(), result.getNotLoaded(), result.getFailures());
         } catch (final Exception e) {
             return new NodesReloadRewriterResponse.NodeResponse(clusterService.localNode(), e);
         }
@@ -0,0 +1,89 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+import querqy.opensearch.QuerqyProcessor;
+import querqy.opensearch.RewriterRegistry;
+import querqy.opensearch.RewriterShardContexts;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class TransportNodesRewriterStatsAction extends TransportNodesAction<NodesRewriterStatsRequest,
+        NodesRewriterStatsResponse, NodesRewriterStatsRequest.NodeRequest, NodesRewriterStatsResponse.NodeResponse> {
+
+    protected RewriterShardContexts rewriterShardContexts;
+    protected QuerqyProcessor querqyProcessor;
+
+
+    @Inject
+    public TransportNodesRewriterStatsAction(final ThreadPool threadPool, final ClusterService clusterService,
+                                             final TransportService transportService,
+                                             final ActionFilters actionFilters,
+                                             final RewriterShardContexts rewriterShardContexts,
+                                             final QuerqyProcessor querqyProcessor) {
+
+        super(NodesRewriterStatsAction.NAME, threadPool, clusterService, transportService, actionFilters,
+                NodesRewriterStatsRequest::new, NodesRewriterStatsRequest.NodeRequest::new,
+                ThreadPool.Names.MANAGEMENT, NodesRewriterStatsResponse.NodeResponse.class);
+        this.rewriterShardContexts = rewriterShardContexts;
+        this.querqyProcessor = querqyProcessor;
+    }
+
+
+    @Override
+    protected NodesRewriterStatsResponse newResponse(final NodesRewriterStatsRequest request,
+                                                     final List<NodesRewriterStatsResponse.NodeResponse> nodeResponses,
+                                                     final List<FailedNodeException> failures) {
+        return new NodesRewriterStatsResponse(clusterService.getClusterName(), nodeResponses, failures);
+    }
+
+    @Override
+    protected NodesRewriterStatsRequest.NodeRequest newNodeRequest(final NodesRewriterStatsRequest request) {
+        return request.newNodeRequest();
+    }
+
+    @Override
+    protected NodesRewriterStatsResponse.NodeResponse newNodeResponse(final StreamInput in) throws IOException {
+        return new NodesRewriterStatsResponse.NodeResponse(in);
+    }
+
+    @Override
+    protected NodesRewriterStatsResponse.NodeResponse nodeOperation(
+            final NodesRewriterStatsRequest.NodeRequest request) {
+
+        final RewriterRegistry rewriterRegistry = rewriterShardContexts.getRewriterRegistry();
+        return new NodesRewriterStatsResponse.NodeResponse(clusterService.localNode(),
+                rewriterRegistry.getGeneration(),
+                rewriterRegistry.getStats()
+                        .snapshot(Arrays.asList(request.getRewriterIds())),
+                querqyProcessor.getPhaseStats().snapshot(),
+                rewriterShardContexts.getTermQueryCacheStats());
+
+    }
+}
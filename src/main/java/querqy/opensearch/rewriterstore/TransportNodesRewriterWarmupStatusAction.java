@@ -0,0 +1,84 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.FailedNodeException;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.nodes.TransportNodesAction;
+import org.opensearch.cluster.service.ClusterService;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.threadpool.ThreadPool;
+import org.opensearch.transport.TransportService;
+import querqy.opensearch.RewriterShardContexts;
+import querqy.opensearch.RewriterWarmup;
+
+import java.io.IOException;
+import java.util.List;
+
+public class TransportNodesRewriterWarmupStatusAction extends TransportNodesAction<NodesRewriterWarmupStatusRequest,
+        NodesRewriterWarmupStatusResponse, NodesRewriterWarmupStatusRequest.NodeRequest,
+        NodesRewriterWarmupStatusResponse.NodeResponse> {
+
+    protected RewriterShardContexts rewriterShardContexts;
+
+
+    @Inject
+    public TransportNodesRewriterWarmupStatusAction(final ThreadPool threadPool, final ClusterService clusterService,
+                                                    final TransportService transportService,
+                                                    final ActionFilters actionFilters,
+                                                    final RewriterShardContexts rewriterShardContexts) {
+
+        super(NodesRewriterWarmupStatusAction.NAME, threadPool, clusterService, transportService, actionFilters,
+                NodesRewriterWarmupStatusRequest::new, NodesRewriterWarmupStatusRequest.NodeRequest::new,
+                ThreadPool.Names.MANAGEMENT, NodesRewriterWarmupStatusResponse.NodeResponse.class);
+        this.rewriterShardContexts = rewriterShardContexts;
+    }
+
+
+    @Override
+    protected NodesRewriterWarmupStatusResponse newResponse(final NodesRewriterWarmupStatusRequest request,
+                                                            final List<NodesRewriterWarmupStatusResponse.NodeResponse>
+                                                                    nodeResponses,
+                                                            final List<FailedNodeException> failures) {
+        return new NodesRewriterWarmupStatusResponse(clusterService.getClusterName(), nodeResponses, failures);
+    }
+
+    @Override
+    protected NodesRewriterWarmupStatusRequest.NodeRequest newNodeRequest(
+            final NodesRewriterWarmupStatusRequest request) {
+        return request.newNodeRequest();
+    }
+
+    @Override
+    protected NodesRewriterWarmupStatusResponse.NodeResponse newNodeResponse(final StreamInput in)
+            throws IOException {
+        return new NodesRewriterWarmupStatusResponse.NodeResponse(in);
+    }
+
+    @Override
+    protected NodesRewriterWarmupStatusResponse.NodeResponse nodeOperation(
+            final NodesRewriterWarmupStatusRequest.NodeRequest request) {
+
+        final RewriterWarmup warmup = rewriterShardContexts.getRewriterWarmup();
+        return new NodesRewriterWarmupStatusResponse.NodeResponse(clusterService.localNode(), warmup.getState(),
+                warmup.getNumRewriters(), warmup.getNumLoaded(), warmup.getNumFailed());
+
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.QUERQY_INDEX_NAME;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.opensearch.ExceptionsHelper;
+import org.opensearch.action.get.GetResponse;
+import org.opensearch.action.support.ActionFilters;
+import org.opensearch.action.support.HandledTransportAction;
+import org.opensearch.common.inject.Inject;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.index.engine.VersionConflictEngineException;
+import org.opensearch.tasks.Task;
+import org.opensearch.transport.TransportService;
+import org.opensearch.transport.client.Client;
+import querqy.opensearch.rewriter.CommonRulesEditor;
+import querqy.opensearch.rewriter.SimpleCommonRulesRewriterFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>Changes single rules of a Common Rules rewriter.</p>
+ *
+ * <p>The rules are changed on this node and the changed rewriter is saved by a {@link PutRewriterAction}, so that the
+ * complete rules don't have to be sent by the client. The rewriter is validated and reloaded like any other saved
+ * rewriter.</p>
+ *
+ * <p>The rewriter is only saved if it wasn't changed since it was read. Otherwise the rules are read and changed
+ * again, up to {@link #MAX_CONFLICT_RETRIES} times, so that concurrent updates don't overwrite each other.</p>
+ */
+public class TransportUpdateRewriterRulesAction
+        extends HandledTransportAction<UpdateRewriterRulesRequest, PutRewriterResponse> {
+
+    private static final Logger LOGGER = LogManager.getLogger(TransportUpdateRewriterRulesAction.class);
+
+    static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final Client client;
+
+    @Inject
+    public TransportUpdateRewriterRulesAction(final TransportService transportService,
+                                              final ActionFilters actionFilters, final Client client) {
+        super(UpdateRewriterRulesAction.NAME, false, transportService, actionFilters,
+                UpdateRewriterRulesRequest::new);
+        this.client = client;
+    }
+
+    @Override
+    protected void doExecute(final Task task, final UpdateRewriterRulesRequest request,
+                             final ActionListener<PutRewriterResponse> listener) {
+
+        updateRules(request, 0, listener);
+
+    }
+
+    private void updateRules(final UpdateRewriterRulesRequest request, final int retries,
+                             final ActionListener<PutRewriterResponse> listener) {
+
+        final String rewriterId = request.getRewriterId();
+
+        client.prepareGet(QUERQY_INDEX_NAME, rewriterId).execute(ActionListener.wrap(
+                getResponse -> {
+                    final Map<String, Object> source = getResponse.getSource();
+                    if (source == null || !"rewriter".equals(source.get(RewriterConfigMapping.PROP_TYPE))) {
+                        listener.onFailure(TransportGetRewriterAction.rewriterNotFound(rewriterId));
+                        return;
+                    }
+                    final PutRewriterRequest putRequest = buildPutRequest(request, getResponse);
+                    LOGGER.info("Updating rules of rewriter {}", rewriterId);
+                    client.execute(PutRewriterAction.INSTANCE, putRequest, ActionListener.wrap(
+                            listener::onResponse,
+                            e -> {
+                                if (retries < MAX_CONFLICT_RETRIES
+                                        && ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException) {
+                                    LOGGER.info("Rewriter {} was changed concurrently, updating its rules again",
+                                            rewriterId);
+                                    updateRules(request, retries + 1, listener);
+                                } else {
+                                    listener.onFailure(e);
+                                }
+                            }));
+                },
+                e -> listener.onFailure(TransportGetRewriterAction.isIndexNotFound(e)
+                        ? TransportGetRewriterAction.rewriterNotFound(rewriterId)
+                        : e)));
+
+    }
+
+    /**
+     * Build the request that saves the changed rewriter if its document wasn't changed since it was read.
+     *
+     * @param request The rules update
+     * @param getResponse The rewriter document
+     * @return The request to save the changed rewriter
+     */
+    static PutRewriterRequest buildPutRequest(final UpdateRewriterRulesRequest request,
+                                              final GetResponse getResponse) {
+
+        final RewriterInfo rewriter = RewriterInfo.fromSource(getResponse.getId(), getResponse.getSource(), true);
+
+        if (!SimpleCommonRulesRewriterFactory.class.getName().equals(rewriter.getRewriterClassName())) {
+            throw new IllegalArgumentException("Rules can only be updated for rewriters of class "
+                    + SimpleCommonRulesRewriterFactory.class.getName() + " but rewriter " + rewriter.getRewriterId()
+                    + " is of class " + rewriter.getRewriterClassName());
+        }
+
+        final Map<String, Object> config = rewriter.getConfig() == null
+                ? new HashMap<>() : new HashMap<>(rewriter.getConfig());
+        final Object rules = config.get(SimpleCommonRulesRewriterFactory.CONF_RULES);
+        config.put(SimpleCommonRulesRewriterFactory.CONF_RULES, CommonRulesEditor.applyChanges(
+                rules == null ? "" : rules.toString(), request.getDelete(), request.getUpsert()));
+
+        final Map<String, Object> content = new HashMap<>();
+        content.put("class", rewriter.getRewriterClassName());
+        content.put("config", config);
+        if (rewriter.getInfoLoggingConfig() != null) {
+            content.put("info_logging", rewriter.getInfoLoggingConfig());
+        }
+        final String revision = request.getRevision() != null ? request.getRevision() : rewriter.getRevision();
+        if (revision != null) {
+            content.put(RewriterConfigMapping.PROP_REVISION, revision);
+        }
+
+        return new PutRewriterRequest(rewriter.getRewriterId(), content, getResponse.getSeqNo(),
+                getResponse.getPrimaryTerm());
+    }
+}
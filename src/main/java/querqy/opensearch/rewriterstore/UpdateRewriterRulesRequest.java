@@ -0,0 +1,106 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.ActionRequest;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.action.ValidateActions;
+import org.opensearch.core.common.io.stream.StreamInput;
+import org.opensearch.core.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A request to delete, add or replace single rules of a Common Rules rewriter.
+ *
+ * @see querqy.opensearch.rewriter.CommonRulesEditor
+ */
+public class UpdateRewriterRulesRequest extends ActionRequest {
+
+    private final String rewriterId;
+    private final List<String> delete;
+    private final String upsert;
+    private final String revision;
+
+    public UpdateRewriterRulesRequest(final StreamInput in) throws IOException {
+        super(in);
+        rewriterId = in.readString();
+        delete = in.readStringList();
+        upsert = in.readOptionalString();
+        revision = in.readOptionalString();
+    }
+
+    /**
+     * @param rewriterId The ID of the rewriter
+     * @param delete The inputs or IDs of the rules to delete, or null
+     * @param upsert The rules to add or replace, or null
+     * @param revision The revision to save the rewriter with, or null to keep the current revision
+     */
+    public UpdateRewriterRulesRequest(final String rewriterId, final List<String> delete, final String upsert,
+                                      final String revision) {
+        super();
+        this.rewriterId = rewriterId;
+        this.delete = delete == null ? Collections.emptyList() : delete;
+        this.upsert = upsert;
+        this.revision = revision;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (rewriterId == null || rewriterId.trim().isEmpty()) {
+            validationException = ValidateActions.addValidationError("rewriterId must not be empty", null);
+        }
+        if (delete.isEmpty() && upsert == null) {
+            validationException = ValidateActions.addValidationError("Either 'delete' or 'upsert' must be set",
+                    validationException);
+        }
+        if (revision != null && revision.trim().isEmpty()) {
+            validationException = ValidateActions.addValidationError("'" + RewriterConfigMapping.PROP_REVISION
+                    + "' must not be empty", validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public void writeTo(final StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(rewriterId);
+        out.writeStringCollection(delete);
+        out.writeOptionalString(upsert);
+        out.writeOptionalString(revision);
+    }
+
+    public String getRewriterId() {
+        return rewriterId;
+    }
+
+    public List<String> getDelete() {
+        return delete;
+    }
+
+    public String getUpsert() {
+        return upsert;
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+}
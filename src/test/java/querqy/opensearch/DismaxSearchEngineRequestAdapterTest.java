@@ -270,4 +270,96 @@ public class DismaxSearchEngineRequestAdapterTest extends OpenSearchTestCase {
         assertEquals(Optional.of(23.4), adapter.getDoubleRequestParam("querqy.rid2.x"));
         assertEquals(Optional.of(10008.0), adapter.getDoubleRequestParam("querqy.rid2.y"));
     }
-}
\ No newline at end of file
+
+    public void testThatNestedParamsCanBeAddressedByPath() {
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder();
+
+        final Rewriter rewriter = new Rewriter("rid1");
+        final Map<String, Object> nested = new HashMap<>();
+        nested.put("b", "Value1");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("a", nested);
+        params.put("a.b", "Value2");
+        rewriter.setParams(params);
+
+        builder.setRewriters(Collections.singletonList(rewriter));
+
+        final DismaxSearchEngineRequestAdapter adapter = new DismaxSearchEngineRequestAdapter(builder, null, null,
+                null);
+        assertEquals(Optional.of("Value1"), adapter.getParam("querqy.rid1.a.b"));
+        assertEquals(Optional.of("Value1"), adapter.getRequestParam("querqy.rid1.a.b"));
+        assertEquals(Optional.empty(), adapter.getRequestParam("querqy.rid1.a"));
+        assertEquals(Optional.empty(), adapter.getParam("querqy.rid1.a.c"));
+        assertEquals(Optional.empty(), adapter.getParam("querqy.rid1.a.b.c"));
+    }
+
+    public void testThatOnlyTheFirstRewriterWithAnIdIsUsed() {
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder();
+
+        final Rewriter rewriter1 = new Rewriter("rid1");
+        rewriter1.setParams(Collections.singletonMap("x", "Value1"));
+        final Rewriter rewriter2 = new Rewriter("rid1");
+        final Map<String, Object> params2 = new HashMap<>();
+        params2.put("x", "Value2x");
+        params2.put("y", "Value2y");
+        rewriter2.setParams(params2);
+
+        builder.setRewriters(Arrays.asList(rewriter1, rewriter2));
+
+        final DismaxSearchEngineRequestAdapter adapter = new DismaxSearchEngineRequestAdapter(builder, null, null,
+                null);
+        assertEquals(Optional.of("Value1"), adapter.getParam("querqy.rid1.x"));
+        assertEquals(Optional.empty(), adapter.getParam("querqy.rid1.y"));
+    }
+
+    public void testThatRequestParamsAreConvertedFromListsAndScalars() {
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder();
+
+        final Rewriter rewriter = new Rewriter("rid1");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("list", Arrays.asList("a", "b"));
+        params.put("int", 8);
+        params.put("map", Collections.singletonMap("x", "y"));
+        rewriter.setParams(params);
+
+        builder.setRewriters(Collections.singletonList(rewriter));
+
+        final DismaxSearchEngineRequestAdapter adapter = new DismaxSearchEngineRequestAdapter(builder, null, null,
+                null);
+        assertThat(adapter.getRequestParams("querqy.rid1.list"), arrayContaining("a", "b"));
+        assertThat(adapter.getRequestParams("querqy.rid1.int"), arrayContaining("8"));
+        assertThat(adapter.getRequestParams("querqy.rid1.map"), emptyArray());
+        assertEquals(Optional.of("8"), adapter.getRequestParam("querqy.rid1.int"));
+    }
+
+    public void testThatNumericRequestParamsAreConverted() {
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder();
+
+        final Rewriter rewriter = new Rewriter("rid1");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("long", 8L);
+        params.put("double", 0.5);
+        params.put("intString", "12");
+        params.put("floatString", "0.5");
+        params.put("boolString", "true");
+        params.put("noNumber", "abc");
+        params.put("tooLarge", Long.MAX_VALUE);
+        rewriter.setParams(params);
+
+        builder.setRewriters(Collections.singletonList(rewriter));
+
+        final DismaxSearchEngineRequestAdapter adapter = new DismaxSearchEngineRequestAdapter(builder, null, null,
+                null);
+        assertEquals(Optional.of(8), adapter.getIntegerRequestParam("querqy.rid1.long"));
+        assertEquals(Optional.of(8.0), adapter.getDoubleRequestParam("querqy.rid1.long"));
+        assertEquals(Optional.of(0.5f), adapter.getFloatRequestParam("querqy.rid1.double"));
+        assertEquals(Optional.empty(), adapter.getIntegerRequestParam("querqy.rid1.double"));
+        assertEquals(Optional.of(12), adapter.getIntegerRequestParam("querqy.rid1.intString"));
+        assertEquals(Optional.of(0.5f), adapter.getFloatRequestParam("querqy.rid1.floatString"));
+        assertEquals(Optional.of(0.5), adapter.getDoubleRequestParam("querqy.rid1.floatString"));
+        assertEquals(Optional.of(true), adapter.getBooleanRequestParam("querqy.rid1.boolString"));
+        assertEquals(Optional.empty(), adapter.getIntegerRequestParam("querqy.rid1.noNumber"));
+        assertEquals(Optional.empty(), adapter.getBooleanRequestParam("querqy.rid1.noNumber"));
+        assertEquals(Optional.empty(), adapter.getIntegerRequestParam("querqy.rid1.tooLarge"));
+    }
+}
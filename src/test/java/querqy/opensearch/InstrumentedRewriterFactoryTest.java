@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.model.ExpandedQuery;
+import querqy.model.Query;
+import querqy.rewrite.QueryRewriter;
+import querqy.rewrite.RewriterFactory;
+
+public class InstrumentedRewriterFactoryTest extends OpenSearchTestCase {
+
+    public void testThatSampledRewritesAreRecorded() {
+        final RewriterStats.Counters counters = new RewriterStats(Settings.EMPTY).forRewriter("r1");
+        final QueryRewriter rewriter = instrumentedRewriter(counters, true);
+
+        final ExpandedQuery query = new ExpandedQuery(new Query());
+        assertSame(query, rewriter.rewrite(query, null).getExpandedQuery());
+        assertEquals(1L, counters.snapshot().getRewrites());
+        assertEquals(0L, counters.snapshot().getChangedQueries());
+    }
+
+    public void testThatRewritesThatAreNotSampledAreNotRecorded() {
+        final RewriterStats.Counters counters = new RewriterStats(Settings.EMPTY).forRewriter("r1");
+        final QueryRewriter rewriter = instrumentedRewriter(counters, false);
+
+        final ExpandedQuery query = new ExpandedQuery(new Query());
+        assertSame(query, rewriter.rewrite(query, null).getExpandedQuery());
+        assertEquals(0L, counters.snapshot().getRewrites());
+    }
+
+    public void testThatRewritesAreNotSampledIfRewriteStatsAreDisabled() {
+        assertFalse(new RewriterStats(Settings.EMPTY).isRewriteSampled());
+        assertTrue(new RewriterStats(Settings.builder()
+                .put(RewriterStats.REWRITE_STATS_ENABLED.getKey(), true)
+                .put(RewriterStats.REWRITE_STATS_SAMPLE_RATE.getKey(), 1.0)
+                .build()).isRewriteSampled());
+    }
+
+    private static QueryRewriter instrumentedRewriter(final RewriterStats.Counters counters, final boolean sampled) {
+        final RewriterFactory delegate = new DummyOpenSearchRewriterFactory("r1").createRewriterFactory(null);
+        return new InstrumentedRewriterFactory(delegate, counters, () -> sampled).createRewriter(null);
+    }
+}
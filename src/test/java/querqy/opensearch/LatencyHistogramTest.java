@@ -0,0 +1,73 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class LatencyHistogramTest extends OpenSearchTestCase {
+
+    public void testThatBucketsCoverAllValues() {
+        assertEquals(0, LatencyHistogram.bucket(0L));
+        assertEquals(3, LatencyHistogram.bucket(3L));
+        assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+
+        for (int bucket = 0; bucket < LatencyHistogram.NUM_BUCKETS; bucket++) {
+            final long lowerBound = LatencyHistogram.lowerBound(bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(lowerBound));
+            if (bucket > 0) {
+                assertEquals(bucket - 1, LatencyHistogram.bucket(lowerBound - 1));
+            }
+        }
+    }
+
+    public void testThatPercentilesAreZeroIfNothingWasRecorded() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getCount());
+        assertArrayEquals(new long[] {0L, 0L}, histogram.getPercentiles(50.0, 99.0));
+    }
+
+    public void testThatPercentilesAreWithinBucketPrecision() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000L, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000L, histogram.getMax());
+
+        final long[] percentiles = histogram.getPercentiles(50.0, 95.0, 99.0, 100.0);
+        assertWithinPrecision(500_000L, percentiles[0]);
+        assertWithinPrecision(950_000L, percentiles[1]);
+        assertWithinPrecision(990_000L, percentiles[2]);
+        assertEquals(1_000_000L, percentiles[3]);
+    }
+
+    public void testThatNegativeDurationsAreRecordedAsZero() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5L);
+        assertEquals(0L, histogram.getSum());
+        assertArrayEquals(new long[] {0L}, histogram.getPercentiles(50.0));
+    }
+
+    private static void assertWithinPrecision(final long expected, final long actual) {
+        assertTrue("Expected " + expected + " but was " + actual, Math.abs(expected - actual) <= expected / 8);
+    }
+
+}
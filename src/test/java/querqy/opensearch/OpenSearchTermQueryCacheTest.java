@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import static org.mockito.Mockito.mock;
+
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.lucene.rewrite.cache.CacheKey;
+import querqy.lucene.rewrite.cache.TermQueryCacheValue;
+
+public class OpenSearchTermQueryCacheTest extends OpenSearchTestCase {
+
+    public void testThatValuesAreCachedAndCounted() {
+
+        final OpenSearchTermQueryCache cache = new OpenSearchTermQueryCache(10, 1L);
+        final CacheKey key = mock(CacheKey.class);
+        final TermQueryCacheValue value = mock(TermQueryCacheValue.class);
+
+        assertNull(cache.get(key));
+        cache.put(key, value);
+        assertSame(value, cache.get(key));
+
+        assertEquals(1, cache.count());
+        final OpenSearchTermQueryCache.Stats stats = cache.getStats();
+        assertEquals(1L, stats.getSize());
+        assertEquals(1L, stats.getHits());
+        assertEquals(1L, stats.getMisses());
+
+    }
+
+    public void testThatCacheIsBoundedBySize() {
+
+        final OpenSearchTermQueryCache cache = new OpenSearchTermQueryCache(2, 1L);
+        for (int i = 0; i < 5; i++) {
+            cache.put(mock(CacheKey.class), mock(TermQueryCacheValue.class));
+        }
+
+        assertEquals(2, cache.count());
+        assertEquals(3L, cache.getStats().getEvictions());
+
+    }
+
+    public void testThatMappingChangeClearsCache() {
+
+        final OpenSearchTermQueryCache cache = new OpenSearchTermQueryCache(10, 1L);
+        final CacheKey key = mock(CacheKey.class);
+        cache.put(key, mock(TermQueryCacheValue.class));
+
+        assertNotNull(cache.forMappingVersion(1L).get(key));
+        assertNull(cache.forMappingVersion(2L).get(key));
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch;
+
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.test.OpenSearchTestCase;
+
+public class QuerqyPluginTest extends OpenSearchTestCase {
+
+    public void testThatValidAutoExpandReplicasAreAccepted() {
+        assertEquals("0-all", QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(autoExpandReplicas("0-all")));
+        assertEquals("1-5", QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(autoExpandReplicas("1-5")));
+        assertEquals("false", QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(autoExpandReplicas("false")));
+        assertEquals("", QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(Settings.EMPTY));
+    }
+
+    public void testThatInvalidAutoExpandReplicasAreRejected() {
+        expectThrows(IllegalArgumentException.class,
+                () -> QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(autoExpandReplicas("all")));
+        expectThrows(IllegalArgumentException.class,
+                () -> QuerqyPlugin.QUERQY_INDEX_AUTO_EXPAND_REPLICAS.get(autoExpandReplicas("0-two")));
+    }
+
+    private static Settings autoExpandReplicas(final String value) {
+        return Settings.builder().put(SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS, value).build();
+    }
+
+}
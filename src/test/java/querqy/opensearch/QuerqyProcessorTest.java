@@ -22,6 +22,7 @@ import static org.hamcrest.CoreMatchers.everyItem;
 import static org.hamcrest.CoreMatchers.not;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static querqy.opensearch.query.AbstractLuceneQueryTest.anyFilter;
 import static querqy.opensearch.query.AbstractLuceneQueryTest.anyMust;
 import static querqy.opensearch.query.AbstractLuceneQueryTest.anyMustNot;
@@ -29,13 +30,30 @@ import static querqy.opensearch.query.AbstractLuceneQueryTest.bq;
 import static querqy.opensearch.query.AbstractLuceneQueryTest.dmq;
 import static querqy.opensearch.query.AbstractLuceneQueryTest.tq;
 
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.DisjunctionMaxQuery;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.mockito.ArgumentCaptor;
+import org.opensearch.common.settings.Settings;
 import org.opensearch.test.OpenSearchTestCase;
 import querqy.lucene.LuceneQueries;
+import querqy.model.ExpandedQuery;
+import querqy.model.Query;
+import querqy.opensearch.QuerqyProcessor.QueryCacheKey;
+import querqy.opensearch.query.MatchingQuery;
+import querqy.opensearch.query.QuerqyQueryBuilder;
+import querqy.opensearch.query.Rewriter;
+
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -117,4 +135,89 @@ public class QuerqyProcessorTest extends OpenSearchTestCase {
         );
 
     }
-}
\ No newline at end of file
+
+    public void testThatQueryCacheKeysOfEqualQueriesAreEqual() {
+
+        final Object readerKey = new Object();
+
+        // The keys of rebuilt chains are equal if the chains have the same rewriter generations
+        final QueryCacheKey key1 = new QueryCacheKey(queryBuilder("a"), new long[] {1L, 2L}, readerKey, 3L);
+        final QueryCacheKey key2 = new QueryCacheKey(queryBuilder("a"), new long[] {1L, 2L}, readerKey, 3L);
+
+        assertEquals(key1, key2);
+        assertEquals(key1.hashCode(), key2.hashCode());
+
+    }
+
+    public void testThatQueryCacheKeysDifferForQueryRewriterGenerationsReaderAndMapping() {
+
+        final long[] generations = {1L, 2L};
+        final Object readerKey = new Object();
+
+        final QueryCacheKey key = new QueryCacheKey(queryBuilder("a"), generations, readerKey, 3L);
+
+        assertNotEquals(key, new QueryCacheKey(queryBuilder("b"), generations, readerKey, 3L));
+        assertNotEquals(key, new QueryCacheKey(queryBuilder("a"), new long[] {1L, 3L}, readerKey, 3L));
+        assertNotEquals(key, new QueryCacheKey(queryBuilder("a"), generations, new Object(), 3L));
+        assertNotEquals(key, new QueryCacheKey(queryBuilder("a"), generations, readerKey, 4L));
+
+    }
+
+    public void testThatCachedQueriesAreDroppedWhenTheirReaderIsClosed() throws IOException {
+
+        final QuerqyProcessor querqyProcessor = new QuerqyProcessor(mock(RewriterShardContexts.class), null,
+                Settings.builder().put(QuerqyProcessor.QUERY_CACHE_MAX_SIZE.getKey(), 10).build());
+        final long[] generations = {1L};
+
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig())) {
+                writer.addDocument(new Document());
+            }
+
+            final DirectoryReader reader1 = DirectoryReader.open(directory);
+            try (DirectoryReader reader2 = DirectoryReader.open(directory)) {
+
+                final IndexReader.CacheHelper cacheHelper1 = reader1.getReaderCacheHelper();
+                final IndexReader.CacheHelper cacheHelper2 = reader2.getReaderCacheHelper();
+
+                querqyProcessor.cacheRewrittenQuery(new QueryCacheKey(queryBuilder("a"), generations,
+                        cacheHelper1.getKey(), 1L), new ExpandedQuery(new Query()), cacheHelper1);
+                querqyProcessor.cacheRewrittenQuery(new QueryCacheKey(queryBuilder("b"), generations,
+                        cacheHelper1.getKey(), 1L), new ExpandedQuery(new Query()), cacheHelper1);
+                querqyProcessor.cacheRewrittenQuery(new QueryCacheKey(queryBuilder("a"), generations,
+                        cacheHelper2.getKey(), 1L), new ExpandedQuery(new Query()), cacheHelper2);
+                assertEquals(3, querqyProcessor.getQueryCacheSize());
+
+                reader1.close();
+                assertEquals(1, querqyProcessor.getQueryCacheSize());
+            }
+            assertEquals(0, querqyProcessor.getQueryCacheSize());
+        }
+
+    }
+
+    public void testThatCachedQueriesAreDroppedWhenRewritersChange() {
+
+        final RewriterShardContexts rewriterShardContexts = mock(RewriterShardContexts.class);
+        final QuerqyProcessor querqyProcessor = new QuerqyProcessor(rewriterShardContexts, null,
+                Settings.builder().put(QuerqyProcessor.QUERY_CACHE_MAX_SIZE.getKey(), 10).build());
+        final ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(rewriterShardContexts).setRewritersChangedListener(listener.capture());
+
+        querqyProcessor.cacheRewrittenQuery(new QueryCacheKey(queryBuilder("a"), new long[] {1L}, new Object(), 1L),
+                new ExpandedQuery(new Query()), mock(IndexReader.CacheHelper.class));
+        assertEquals(1, querqyProcessor.getQueryCacheSize());
+
+        listener.getValue().run();
+        assertEquals(0, querqyProcessor.getQueryCacheSize());
+
+    }
+
+    private static QuerqyQueryBuilder queryBuilder(final String queryString) {
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder();
+        builder.setMatchingQuery(new MatchingQuery(queryString));
+        builder.setQueryFieldsAndBoostings(Arrays.asList("f1", "f2^2"));
+        builder.setRewriters(Collections.singletonList(new Rewriter("r1")));
+        return builder;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.opensearch.QueryPhaseStats.Phase;
+
+import java.io.IOException;
+
+public class QueryPhaseStatsTest extends OpenSearchTestCase {
+
+    public void testThatNoTimerIsStartedIfDisabled() {
+        final QueryPhaseStats stats = new QueryPhaseStats(Settings.EMPTY);
+        assertFalse(stats.isEnabled());
+        assertNull(stats.startTimer());
+        assertFalse(stats.snapshot().isEnabled());
+    }
+
+    public void testThatNoTimerIsStartedForSampleRateZero() {
+        final QueryPhaseStats stats = new QueryPhaseStats(Settings.builder()
+                .put(QueryPhaseStats.PHASE_STATS_ENABLED.getKey(), true)
+                .put(QueryPhaseStats.PHASE_STATS_SAMPLE_RATE.getKey(), 0.0)
+                .build());
+        for (int i = 0; i < 100; i++) {
+            assertNull(stats.startTimer());
+        }
+    }
+
+    public void testThatNestedPhasesAreSubtractedFromQueryBuilding() {
+        final QueryPhaseStats stats = enabledStats();
+        final QueryPhaseStats.Timer timer = stats.startTimer();
+        assertNotNull(timer);
+
+        timer.add(Phase.REWRITER_LOOKUP, 5L);
+        timer.add(Phase.REWRITE_CHAIN, 100L);
+        timer.add(Phase.REWRITE_CHAIN, 50L);
+        timer.add(Phase.RAW_QUERY_PARSING, 20L);
+        timer.addQueryBuilding(500L);
+
+        assertEquals(150L, timer.getNanos(Phase.REWRITE_CHAIN));
+        assertEquals(330L, timer.getNanos(Phase.QUERY_BUILDING));
+        assertEquals(0L, timer.getNanos(Phase.PHRASE_BOOSTS));
+    }
+
+    public void testThatOnlyTimedPhasesAreRecorded() {
+        final QueryPhaseStats stats = enabledStats();
+
+        final QueryPhaseStats.Timer timer1 = stats.startTimer();
+        timer1.add(Phase.REWRITER_LOOKUP, 5L);
+        timer1.record();
+
+        final QueryPhaseStats.Timer timer2 = stats.startTimer();
+        timer2.add(Phase.REWRITER_LOOKUP, 7L);
+        timer2.add(Phase.REWRITE_CHAIN, 100L);
+        timer2.addQueryBuilding(300L);
+        timer2.record();
+
+        final QueryPhaseStats.Snapshot snapshot = stats.snapshot();
+        assertTrue(snapshot.isEnabled());
+        assertEquals(2L, snapshot.getCount(Phase.REWRITER_LOOKUP));
+        assertEquals(1L, snapshot.getCount(Phase.REWRITE_CHAIN));
+        assertEquals(1L, snapshot.getCount(Phase.QUERY_BUILDING));
+        assertEquals(0L, snapshot.getCount(Phase.RAW_QUERY_PARSING));
+        assertEquals(0L, snapshot.getCount(Phase.PHRASE_BOOSTS));
+    }
+
+    public void testStreamSerialization() throws IOException {
+        final QueryPhaseStats stats = enabledStats();
+        final QueryPhaseStats.Timer timer = stats.startTimer();
+        timer.add(Phase.REWRITER_LOOKUP, 1_000L);
+        timer.add(Phase.PHRASE_BOOSTS, 20_000L);
+        timer.addQueryBuilding(90_000L);
+        timer.record();
+
+        final QueryPhaseStats.Snapshot snapshot1 = stats.snapshot();
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        snapshot1.writeTo(output);
+        output.flush();
+
+        final QueryPhaseStats.Snapshot snapshot2 = new QueryPhaseStats.Snapshot(output.bytes().streamInput());
+        assertEquals(snapshot1, snapshot2);
+    }
+
+    private static QueryPhaseStats enabledStats() {
+        return new QueryPhaseStats(Settings.builder()
+                .put(QueryPhaseStats.PHASE_STATS_ENABLED.getKey(), true)
+                .put(QueryPhaseStats.PHASE_STATS_SAMPLE_RATE.getKey(), 1.0)
+                .build());
+    }
+
+}
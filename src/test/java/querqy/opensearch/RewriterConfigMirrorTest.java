@@ -0,0 +1,166 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch;
+
+import org.opensearch.core.common.breaker.CircuitBreaker;
+import org.opensearch.core.common.breaker.CircuitBreakingException;
+import org.opensearch.core.common.breaker.NoopCircuitBreaker;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class RewriterConfigMirrorTest extends OpenSearchTestCase {
+
+    public void testThatUnknownDocumentsAreNotMirrored() {
+        assertNull(new RewriterConfigMirror().get("r1"));
+    }
+
+    public void testThatALaterWriteReplacesTheMirroredDocument() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, source("v1"));
+        mirror.put("r1", 1L, 2L, source("v2"));
+
+        final RewriterConfigMirror.MirroredDocument document = mirror.get("r1");
+        assertEquals(2L, document.seqNo);
+        assertEquals(source("v2"), document.source);
+    }
+
+    public void testThatAnEarlierWriteThatArrivesLateIsIgnored() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 2L, source("v2"));
+        mirror.put("r1", 1L, 1L, source("v1"));
+
+        assertEquals(source("v2"), mirror.get("r1").source);
+    }
+
+    public void testThatADeletedDocumentIsKeptAsTombstone() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, source("v1"));
+        mirror.put("r1", 1L, 3L, null);
+        mirror.put("r1", 1L, 2L, source("v2"));
+
+        final RewriterConfigMirror.MirroredDocument document = mirror.get("r1");
+        assertNotNull(document);
+        assertNull(document.source);
+    }
+
+    public void testThatAWriteOfALaterPrimaryTermReplacesAHigherSequenceNumber() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 5L, source("v1"));
+        mirror.put("r1", 2L, 4L, source("v2"));
+
+        final RewriterConfigMirror.MirroredDocument document = mirror.get("r1");
+        assertEquals(2L, document.primaryTerm);
+        assertEquals(source("v2"), document.source);
+    }
+
+    public void testThatTheFirstWriteOfANewPrimaryTermClearsTheMirror() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, source("v1"));
+        mirror.put("r2", 1L, 2L, source("v1"));
+
+        // Writes of the earlier term might have been rolled back by an engine reset
+        mirror.put("r2", 2L, 2L, source("v2"));
+        assertNull(mirror.get("r1"));
+        assertEquals(source("v2"), mirror.get("r2").source);
+        assertEquals(1, mirror.size());
+    }
+
+    public void testThatMirroredDocumentsAreChargedToTheCircuitBreaker() {
+        final CountingCircuitBreaker breaker = new CountingCircuitBreaker(Long.MAX_VALUE);
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.setCircuitBreaker(breaker);
+
+        mirror.put("r1", 1L, 1L, source("v1"));
+        final long used = breaker.getUsed();
+        assertTrue(used > 0L);
+        assertEquals(mirror.get("r1").sizeInBytes, used);
+
+        // the replaced document is released
+        mirror.put("r1", 1L, 2L, source("v2"));
+        assertEquals(mirror.get("r1").sizeInBytes, breaker.getUsed());
+
+        // ... and so is the document that wasn't mirrored because it was written earlier
+        mirror.put("r1", 1L, 1L, source("v1"));
+        assertEquals(mirror.get("r1").sizeInBytes, breaker.getUsed());
+
+        mirror.clear();
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    public void testThatADocumentThatExceedsTheCircuitBreakerIsNotMirrored() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, source("v1"));
+
+        final CountingCircuitBreaker breaker = new CountingCircuitBreaker(0L);
+        mirror.setCircuitBreaker(breaker);
+        mirror.put("r1", 1L, 2L, source("v2"));
+
+        // The earlier version must not be served anymore
+        assertNull(mirror.get("r1"));
+    }
+
+    public void testClear() {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, source("v1"));
+        mirror.put("r2", 1L, 2L, source("v1"));
+        assertEquals(2, mirror.size());
+
+        mirror.afterIndexShardClosed(null, null, null);
+        assertEquals(0, mirror.size());
+        assertNull(mirror.get("r1"));
+    }
+
+    private static class CountingCircuitBreaker extends NoopCircuitBreaker {
+
+        private final long limit;
+        private long used = 0L;
+
+        CountingCircuitBreaker(final long limit) {
+            super(RewriterRegistry.CIRCUIT_BREAKER_NAME);
+            this.limit = limit;
+        }
+
+        @Override
+        public double addEstimateBytesAndMaybeBreak(final long bytes, final String label) {
+            if (used + bytes > limit) {
+                throw new CircuitBreakingException("Limit exceeded: " + label, used + bytes, limit,
+                        CircuitBreaker.Durability.TRANSIENT);
+            }
+            used += bytes;
+            return used;
+        }
+
+        @Override
+        public long addWithoutBreaking(final long bytes) {
+            used += bytes;
+            return used;
+        }
+
+        @Override
+        public long getUsed() {
+            return used;
+        }
+    }
+
+    private static Map<String, Object> source(final String revision) {
+        return Collections.singletonMap("revision", revision);
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.ResourceNotFoundException;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.common.breaker.CircuitBreaker;
+import org.opensearch.core.common.breaker.CircuitBreakingException;
+import org.opensearch.core.common.breaker.NoopCircuitBreaker;
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.opensearch.rewriter.SimpleCommonRulesRewriterFactory;
+import querqy.opensearch.rewriterstore.LoadRewriterConfig;
+import querqy.opensearch.rewriterstore.RewriterConfigMapping;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RewriterRegistryTest extends OpenSearchTestCase {
+
+    public void testThatTheEstimatedSizeIsChargedToTheCircuitBreaker() throws IOException {
+        final LimitedCircuitBreaker breaker = new LimitedCircuitBreaker(Long.MAX_VALUE);
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        registry.setCircuitBreaker(breaker);
+
+        final RewriterRegistry.LoadedRewriter rewriter = registry.createRewriter("r1", commonRulesSource(), 1L);
+        assertTrue(rewriter.estimatedSizeInBytes > 0L);
+        assertEquals(rewriter.estimatedSizeInBytes, breaker.getUsed());
+    }
+
+    public void testThatARewriterThatExceedsTheCircuitBreakerLimitIsRejected() throws IOException {
+        final LimitedCircuitBreaker breaker = new LimitedCircuitBreaker(10L);
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        registry.setCircuitBreaker(breaker);
+
+        expectThrows(CircuitBreakingException.class, () -> registry.createRewriter("r1", commonRulesSource(), 1L));
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    public void testThatTheConfigSizeIsReservedBeforeTheRewriterIsBuilt() throws IOException {
+        final Map<String, Object> source = commonRulesSource();
+        final long configSize = new LoadRewriterConfig("r1", source).estimateConfigSizeInBytes();
+        assertTrue(configSize > 0L);
+
+        final LimitedCircuitBreaker breaker = new LimitedCircuitBreaker(configSize - 1L);
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        registry.setCircuitBreaker(breaker);
+
+        expectThrows(CircuitBreakingException.class, () -> registry.createRewriter("r1", source, 1L));
+        assertEquals(configSize, breaker.getRejectedBytes());
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    public void testThatTheReservationIsReleasedIfTheRewriterCannotBeBuilt() throws IOException {
+        final Map<String, Object> source = commonRulesSource("notebook =>\n NOT_AN_INSTRUCTION: laptop");
+        final LimitedCircuitBreaker breaker = new LimitedCircuitBreaker(Long.MAX_VALUE);
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        registry.setCircuitBreaker(breaker);
+
+        expectThrows(Exception.class, () -> registry.createRewriter("r1", source, 1L));
+        assertEquals(0L, breaker.getUsed());
+    }
+
+    public void testThatARewriterThatExceedsTheCacheMaxSizeIsRejected() throws IOException {
+        final LimitedCircuitBreaker breaker = new LimitedCircuitBreaker(Long.MAX_VALUE);
+        final RewriterRegistry registry = new RewriterRegistry(Settings.builder()
+                .put(RewriterRegistry.CACHE_MAX_SIZE.getKey(), "10b").build());
+        registry.setCircuitBreaker(breaker);
+
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> registry.createRewriter("r1", commonRulesSource(), 1L));
+        assertTrue(e.getMessage(), e.getMessage().contains(RewriterRegistry.CACHE_MAX_SIZE.getKey()));
+        assertEquals(0L, breaker.getUsed());
+        assertNull(registry.getLoadedRewriter("r1"));
+    }
+
+    public void testThatOnlyALaterGenerationReplacesAPublishedRewriter() throws IOException {
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+
+        final RewriterRegistry.LoadedRewriter rewriter2 = registry.createRewriter("r1", commonRulesSource(), 2L);
+        assertSame(rewriter2, registry.publish(rewriter2, true));
+
+        final RewriterRegistry.LoadedRewriter rewriter1 = registry.createRewriter("r1", commonRulesSource(), 1L);
+        assertSame(rewriter2, registry.publish(rewriter1, true));
+
+        final RewriterRegistry.LoadedRewriter rewriter3 = registry.createRewriter("r1", commonRulesSource(), 3L);
+        assertSame(rewriter2, registry.publish(rewriter3, false));
+        assertSame(rewriter3, registry.publish(rewriter3, true));
+    }
+
+    public void testThatAnUnchangedConfigIsNotReloaded() throws IOException {
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+
+        final RewriterRegistry.LoadedRewriter rewriter1 = registry.reloadRewriter("r1", commonRulesSource(), 1L,
+                System.nanoTime());
+        assertSame(rewriter1, registry.getLoadedRewriter("r1"));
+
+        assertSame(rewriter1, registry.reloadRewriter("r1", commonRulesSource(), 2L, System.nanoTime()));
+        assertEquals(1L, registry.getStats().forRewriter("r1").snapshot().getLoads());
+
+        final RewriterRegistry.LoadedRewriter rewriter3 = registry.reloadRewriter("r1",
+                commonRulesSource("notebook =>\n SYNONYM: laptop"), 3L, System.nanoTime());
+        assertNotSame(rewriter1, rewriter3);
+        assertEquals(3L, rewriter3.generation);
+        assertSame(rewriter3, registry.getLoadedRewriter("r1"));
+    }
+
+    public void testThatAConfigChangedWithoutUpdatingTheStoredHashIsReloaded() throws IOException {
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+
+        final Map<String, Object> source = commonRulesSource();
+        final RewriterRegistry.LoadedRewriter rewriter1 = registry.reloadRewriter("r1", source, 1L,
+                System.nanoTime());
+        assertEquals(source.get(RewriterConfigMapping.PROP_CONFIG_HASH), rewriter1.configHash);
+
+        // The document was edited outside the rewriter API, so its stored hash is stale
+        final Map<String, Object> changedSource = commonRulesSource("notebook =>\n SYNONYM: laptop");
+        changedSource.put(RewriterConfigMapping.PROP_CONFIG_HASH, rewriter1.configHash);
+        final RewriterRegistry.LoadedRewriter rewriter2 = registry.reloadRewriter("r1", changedSource, 2L,
+                System.nanoTime());
+        assertNotSame(rewriter1, rewriter2);
+        assertNotEquals(rewriter1.configHash, rewriter2.configHash);
+    }
+
+    public void testThatStatsAreOnlyKeptForLoadedRewriters() throws IOException {
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        final RewriterStats stats = registry.getStats();
+
+        stats.recordCacheHit("unknown");
+        assertTrue(stats.snapshot(Collections.emptyList()).isEmpty());
+
+        registry.reloadRewriter("r1", commonRulesSource(), 1L, System.nanoTime());
+        registry.getRewriter("r1");
+        assertEquals(1L, stats.snapshot(Collections.singletonList("r1")).get("r1").getCacheHits());
+
+        registry.clearRewriter("r1");
+        assertTrue(stats.snapshot(Collections.emptyList()).isEmpty());
+    }
+
+    public void testThatAMirroredRewriterIsReloadedWithoutReadingTheRewriterIndex() throws IOException {
+        final RewriterConfigMirror mirror = new RewriterConfigMirror();
+        mirror.put("r1", 1L, 1L, commonRulesSource());
+
+        // No client is set, so the rewriter can only be read from the mirror
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY);
+        registry.setConfigMirror(mirror);
+
+        final RewriterRegistry.LoadedRewriter rewriter = registry.reloadRewriter("r1");
+        assertSame(rewriter, registry.getLoadedRewriter("r1"));
+
+        mirror.put("r1", 1L, 2L, null);
+        expectThrows(ResourceNotFoundException.class, () -> registry.reloadRewriter("r1"));
+    }
+
+    private static Map<String, Object> commonRulesSource() throws IOException {
+        return commonRulesSource("notebook =>\n SYNONYM: laptop\n UP(100): bag");
+    }
+
+    private static Map<String, Object> commonRulesSource(final String rules) throws IOException {
+        final Map<String, Object> config = new HashMap<>();
+        config.put("rules", rules);
+
+        final Map<String, Object> content = new HashMap<>();
+        content.put("class", SimpleCommonRulesRewriterFactory.class.getName());
+        content.put("config", config);
+        return RewriterConfigMapping.toLuceneSource(content, null);
+    }
+
+    private static class LimitedCircuitBreaker extends NoopCircuitBreaker {
+
+        private final long limit;
+        private long used = 0L;
+        private long rejectedBytes = 0L;
+
+        LimitedCircuitBreaker(final long limit) {
+            super(RewriterRegistry.CIRCUIT_BREAKER_NAME);
+            this.limit = limit;
+        }
+
+        @Override
+        public double addEstimateBytesAndMaybeBreak(final long bytes, final String label) {
+            if (used + bytes > limit) {
+                rejectedBytes = bytes;
+                throw new CircuitBreakingException("Limit exceeded: " + label, used + bytes, limit,
+                        CircuitBreaker.Durability.TRANSIENT);
+            }
+            used += bytes;
+            return used;
+        }
+
+        @Override
+        public long addWithoutBreaking(final long bytes) {
+            used += bytes;
+            return used;
+        }
+
+        @Override
+        public long getUsed() {
+            return used;
+        }
+
+        long getRejectedBytes() {
+            return rejectedBytes;
+        }
+    }
+}
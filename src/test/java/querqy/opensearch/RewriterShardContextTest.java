@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.index.IndexService;
+import org.opensearch.index.mapper.MapperService;
+import org.opensearch.test.IndexSettingsModule;
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.opensearch.RewriterRegistry.LoadedRewriter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RewriterShardContextTest extends OpenSearchTestCase {
+
+    public void testThatRewriteChainIsReusedForTheSameRewriterIds() {
+
+        final RewriterShardContext context = newShardContext();
+
+        final RewriteChainAndLogging chain1 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        assertSame(chain1, context.getRewriteChain(Arrays.asList("r1", "r2")));
+        assertNotSame(chain1, context.getRewriteChain(Arrays.asList("r2", "r1")));
+        assertNotSame(chain1, context.getRewriteChain(Collections.singletonList("r1")));
+
+    }
+
+    public void testThatNewRewriteChainsAreCachedAfterTheCacheWasFull() {
+
+        final RewriterShardContext context = newShardContext();
+
+        final RewriteChainAndLogging first = context.getRewriteChain(Collections.singletonList("r0"));
+        for (int i = 1; i < RewriterShardContext.MAX_CACHED_CHAINS; i++) {
+            context.getRewriteChain(Collections.singletonList("r" + i));
+        }
+        assertSame(first, context.getRewriteChain(Collections.singletonList("r0")));
+
+        final List<String> overflow = Collections.singletonList("overflow");
+        final RewriteChainAndLogging overflowChain = context.getRewriteChain(overflow);
+        assertSame(overflowChain, context.getRewriteChain(overflow));
+
+        // The rebuilt chain is a new object, but it is bound to the same rewriter generations
+        final RewriteChainAndLogging rebuilt = context.getRewriteChain(Collections.singletonList("r0"));
+        assertNotSame(first, rebuilt);
+        assertArrayEquals(first.rewriterGenerations, rebuilt.rewriterGenerations);
+
+    }
+
+    public void testThatReloadingARewriterInvalidatesTheRewriteChain() {
+
+        final RewriterShardContext context = newShardContext();
+
+        final RewriteChainAndLogging chain1 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        context.reloadRewriter(loadedRewriter("r2", 1L));
+
+        final RewriteChainAndLogging chain2 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        assertNotSame(chain1, chain2);
+        assertSame(chain2, context.getRewriteChain(Arrays.asList("r1", "r2")));
+        assertArrayEquals(new long[] {0L, 0L}, chain1.rewriterGenerations);
+        assertArrayEquals(new long[] {0L, 1L}, chain2.rewriterGenerations);
+
+    }
+
+    public void testThatAChainBuiltBeforeAReloadIsNotCached() {
+
+        final Runnable[] beforeLoadingR2 = {() -> { }};
+        final RewriterRegistry registry = new RewriterRegistry(Settings.EMPTY) {
+            @Override
+            public LoadedRewriter getRewriter(final String rewriterId) {
+                if ("r2".equals(rewriterId)) {
+                    beforeLoadingR2[0].run();
+                }
+                return loadedRewriter(rewriterId);
+            }
+        };
+        final RewriterShardContext context = new RewriterShardContext(new ShardId("idx", "_na_", 0), null,
+                Settings.EMPTY, registry);
+
+        // Invalidate the chains once, so that the snapshot of the next query is a map set by an invalidation
+        context.clearRewriters();
+
+        // r1 is reloaded after the query bound it but before the query caches its chain
+        beforeLoadingR2[0] = () -> context.reloadRewriter(loadedRewriter("r1", 1L));
+        final RewriteChainAndLogging outdatedChain = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        beforeLoadingR2[0] = () -> { };
+
+        assertNotSame(outdatedChain, context.getRewriteChain(Arrays.asList("r1", "r2")));
+
+    }
+
+    public void testThatAnOlderGenerationDoesNotReplaceAReloadedRewriter() {
+
+        final RewriterShardContext context = newShardContext();
+        context.getRewriteChain(Collections.singletonList("r1"));
+
+        context.reloadRewriter(loadedRewriter("r1", 5L));
+        final RewriteChainAndLogging chain1 = context.getRewriteChain(Collections.singletonList("r1"));
+        assertEquals(5L, context.factories.get("r1").generation);
+
+        context.reloadRewriter(loadedRewriter("r1", 4L));
+        assertEquals(5L, context.factories.get("r1").generation);
+        assertSame(chain1, context.getRewriteChain(Collections.singletonList("r1")));
+
+    }
+
+    public void testThatReloadingTheSameGenerationKeepsTheRewriteChain() {
+
+        final RewriterShardContext context = newShardContext();
+
+        final RewriteChainAndLogging chain1 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        context.reloadRewriter(loadedRewriter("r2"));
+        assertSame(chain1, context.getRewriteChain(Arrays.asList("r1", "r2")));
+
+    }
+
+    public void testThatClearingARewriterInvalidatesTheRewriteChain() {
+
+        final RewriterShardContext context = newShardContext();
+
+        final RewriteChainAndLogging chain1 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        context.clearRewriter("r1");
+        assertFalse(context.isLoaded("r1"));
+        assertNotSame(chain1, context.getRewriteChain(Arrays.asList("r1", "r2")));
+
+        final RewriteChainAndLogging chain2 = context.getRewriteChain(Arrays.asList("r1", "r2"));
+        context.clearRewriters();
+        assertNotSame(chain2, context.getRewriteChain(Arrays.asList("r1", "r2")));
+
+    }
+
+    public void testThatQueryAnalyzerIsSharedPerMappingVersion() {
+
+        final IndexService indexService = mock(IndexService.class);
+        when(indexService.getIndexSettings()).thenReturn(IndexSettingsModule.newIndexSettings("idx", Settings.EMPTY,
+                OpenSearchTermQueryCache.TERM_QUERY_CACHE_MAX_SIZE));
+        when(indexService.mapperService()).thenReturn(mock(MapperService.class));
+
+        final RewriterShardContext context = new RewriterShardContext(new ShardId("idx", "_na_", 0), indexService,
+                Settings.EMPTY, newRegistry());
+
+        final Analyzer analyzer1 = context.getQueryAnalyzer(1L);
+        assertNotNull(analyzer1);
+        assertSame(analyzer1, context.getQueryAnalyzer(1L));
+
+        final Analyzer analyzer2 = context.getQueryAnalyzer(2L);
+        assertNotSame(analyzer1, analyzer2);
+        assertSame(analyzer2, context.getQueryAnalyzer(2L));
+
+    }
+
+    private static RewriterShardContext newShardContext() {
+        return new RewriterShardContext(new ShardId("idx", "_na_", 0), null, Settings.EMPTY, newRegistry());
+    }
+
+    private static RewriterRegistry newRegistry() {
+        return new RewriterRegistry(Settings.EMPTY) {
+            @Override
+            public LoadedRewriter getRewriter(final String rewriterId) {
+                return loadedRewriter(rewriterId);
+            }
+        };
+    }
+
+    private static LoadedRewriter loadedRewriter(final String rewriterId) {
+        return loadedRewriter(rewriterId, 0L);
+    }
+
+    private static LoadedRewriter loadedRewriter(final String rewriterId, final long generation) {
+        return new LoadedRewriter(rewriterId, "hash", new DummyOpenSearchRewriterFactory(rewriterId) {
+            @Override
+            public boolean isShardIndependent() {
+                return true;
+            }
+        }, false, 0L, generation);
+    }
+}
@@ -28,7 +28,11 @@ import org.opensearch.action.delete.DeleteResponse;
 import org.opensearch.action.search.SearchPhaseExecutionException;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.action.support.WriteRequest;
+import org.opensearch.cluster.routing.ShardRouting;
+import org.opensearch.cluster.routing.ShardRoutingState;
+import org.opensearch.cluster.routing.TestShardRouting;
 import org.opensearch.common.settings.Settings;
+import org.opensearch.core.index.shard.ShardId;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.test.OpenSearchIntegTestCase;
 import org.opensearch.transport.client.Client;
@@ -145,6 +149,21 @@ public class RewriterShardContextsTest extends OpenSearchIntegTestCase {
 
     }
 
+    public void testThatRoutingChangesOfTheSameShardCopyKeepTheAllocation() {
+
+        final ShardId shardId = new ShardId("idx", "_na_", 0);
+        final ShardRouting replica = TestShardRouting.newShardRouting(shardId, "node1", false,
+                ShardRoutingState.STARTED);
+
+        assertTrue(RewriterShardContexts.isSameAllocation(replica, replica.moveActiveReplicaToPrimary()));
+        assertTrue(RewriterShardContexts.isSameAllocation(replica, replica.relocate("node2", 0L)));
+
+        final ShardRouting otherCopy = TestShardRouting.newShardRouting(shardId, "node1", false,
+                ShardRoutingState.STARTED);
+        assertFalse(RewriterShardContexts.isSameAllocation(replica, otherCopy));
+
+    }
+
     public void index() {
         final String indexName = "idx";
         client().admin().indices().prepareCreate(indexName).setSettings(Settings.builder()
@@ -0,0 +1,67 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class RewriterWarmupTest extends OpenSearchTestCase {
+
+    public void testThatTheNextRewriterIsLoadedWhenALoadHasCompleted() {
+        final PendingLoadsRegistry registry = new PendingLoadsRegistry();
+        final RewriterWarmup warmup = new RewriterWarmup(Settings.builder()
+                .put(RewriterWarmup.WARMUP_ENABLED.getKey(), true).build(), true, registry);
+
+        warmup.loadRewriters(Arrays.asList("r1", "r2", "r3"));
+        assertEquals(1, registry.loads.size());
+
+        registry.loads.get(0).complete(null);
+        assertEquals(2, registry.loads.size());
+
+        registry.loads.get(1).completeExceptionally(new IllegalStateException("test"));
+        assertEquals(3, registry.loads.size());
+        assertEquals(RewriterWarmup.State.PENDING, warmup.getState());
+
+        registry.loads.get(2).complete(null);
+        assertEquals(RewriterWarmup.State.DONE, warmup.getState());
+        assertEquals(2, warmup.getNumLoaded());
+        assertEquals(1, warmup.getNumFailed());
+    }
+
+    private static class PendingLoadsRegistry extends RewriterRegistry {
+
+        final List<CompletableFuture<LoadedRewriter>> loads = new ArrayList<>();
+
+        PendingLoadsRegistry() {
+            super(Settings.EMPTY);
+        }
+
+        @Override
+        protected CompletableFuture<LoadedRewriter> loadRewriter(final String rewriterId) {
+            final CompletableFuture<LoadedRewriter> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2021 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch;
+
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.model.ExpandedQuery;
+import querqy.model.Query;
+import querqy.opensearch.query.MatchingQuery;
+import querqy.opensearch.query.QuerqyQueryBuilder;
+import querqy.rewrite.RewriteChain;
+import querqy.rewrite.RewriterFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+public class RewrittenQueryCaptureTest extends OpenSearchTestCase {
+
+    public void testThatTheCaptureRunsAfterTheRewriters() {
+        final RewriterFactory rewriter = new DummyOpenSearchRewriterFactory("r1").createRewriterFactory(null);
+        final RewriteChain rewriteChain = new RewriteChain(Collections.singletonList(rewriter));
+
+        final List<RewriterFactory> factories = RewrittenQueryCapture.capturing(rewriteChain).getFactories();
+        assertEquals(2, factories.size());
+        assertSame(rewriter, factories.get(0));
+        assertSame(RewrittenQueryCapture.CAPTURE, factories.get(1));
+    }
+
+    public void testThatTheRewrittenQueryIsCaptured() {
+        final DismaxSearchEngineRequestAdapter requestAdapter = requestAdapter();
+        final ExpandedQuery rewrittenQuery = new ExpandedQuery(new Query());
+
+        assertSame(rewrittenQuery, RewrittenQueryCapture.CAPTURE.createRewriter(requestAdapter)
+                .rewrite(rewrittenQuery, requestAdapter).getExpandedQuery());
+        assertSame(rewrittenQuery, requestAdapter.getRewrittenQuery());
+    }
+
+    public void testThatTheCapturedQueryIsReplayed() {
+        final DismaxSearchEngineRequestAdapter requestAdapter = requestAdapter();
+        final ExpandedQuery rewrittenQuery = new ExpandedQuery(new Query());
+
+        final List<RewriterFactory> factories = RewrittenQueryCapture.replaying(rewrittenQuery).getFactories();
+        assertEquals(1, factories.size());
+        assertSame(rewrittenQuery, factories.get(0).createRewriter(requestAdapter)
+                .rewrite(new ExpandedQuery(new Query()), requestAdapter).getExpandedQuery());
+    }
+
+    private static DismaxSearchEngineRequestAdapter requestAdapter() {
+        final QuerqyQueryBuilder queryBuilder = new QuerqyQueryBuilder();
+        queryBuilder.setMatchingQuery(new MatchingQuery("a"));
+        return new DismaxSearchEngineRequestAdapter(queryBuilder, new RewriteChain(Collections.emptyList()), null,
+                null);
+    }
+
+}
@@ -19,8 +19,10 @@
 package querqy.opensearch.query;
 
 import static org.opensearch.core.xcontent.DeprecationHandler.THROW_UNSUPPORTED_OPERATION;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,7 +33,11 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.opensearch.core.ParseField;
 import org.opensearch.core.common.ParsingException;
+import org.opensearch.Version;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.cluster.node.DiscoveryNodes;
 import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.common.io.stream.StreamInput;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 import org.opensearch.common.xcontent.XContentHelper;
 import org.opensearch.common.xcontent.XContentType;
@@ -40,6 +46,8 @@ import org.opensearch.core.xcontent.NamedXContentRegistry;
 import org.opensearch.core.xcontent.ObjectParser;
 import org.opensearch.core.xcontent.XContentBuilder;
 import org.opensearch.core.xcontent.XContentParser;
+import org.opensearch.index.query.QueryBuilder;
+import org.opensearch.index.query.QueryRewriteContext;
 import org.opensearch.index.query.QueryShardContext;
 import org.opensearch.plugins.Plugin;
 import org.opensearch.test.AbstractQueryTestCase;
@@ -54,10 +62,12 @@ import querqy.lucene.rewrite.IndependentFieldBoost;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -152,6 +162,40 @@ public class QuerqyQueryBuilderTest extends AbstractQueryTestCase<QuerqyQueryBui
 
     }
 
+    public void testThatRewriteRegistersLoadingOfMissingRewriters() throws IOException {
+
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder(querqyProcessor);
+        builder.setMatchingQuery(new MatchingQuery("query string"));
+        builder.setQueryFieldsAndBoostings(Collections.singletonList("f1"));
+        builder.setRewriters(Arrays.asList(new Rewriter("common1"), new Rewriter("wordbreak")));
+
+        when(querqyProcessor.needsToLoadRewriters(eq(Arrays.asList("common1", "wordbreak")))).thenReturn(true);
+
+        final QueryRewriteContext rewriteContext = mock(QueryRewriteContext.class);
+        final QueryBuilder rewritten = builder.rewrite(rewriteContext);
+
+        assertNotSame(builder, rewritten);
+        assertEqualBuilders(builder, (QuerqyQueryBuilder) rewritten);
+        verify(rewriteContext, times(1)).registerAsyncAction(any());
+
+    }
+
+    public void testThatRewriteKeepsBuilderIfRewritersAreLoaded() throws IOException {
+
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder(querqyProcessor);
+        builder.setMatchingQuery(new MatchingQuery("query string"));
+        builder.setQueryFieldsAndBoostings(Collections.singletonList("f1"));
+        builder.setRewriters(Collections.singletonList(new Rewriter("common1")));
+
+        when(querqyProcessor.needsToLoadRewriters(eq(Collections.singletonList("common1")))).thenReturn(false);
+
+        final QueryRewriteContext rewriteContext = mock(QueryRewriteContext.class);
+
+        assertSame(builder, builder.rewrite(rewriteContext));
+        verify(rewriteContext, never()).registerAsyncAction(any());
+
+    }
+
     public void testWriteReadJsonForMinimalProperties() throws IOException {
 
         final QuerqyQueryBuilder writeQuerqyQueryBuilder = new QuerqyQueryBuilder(querqyProcessor);
@@ -270,6 +314,113 @@ public class QuerqyQueryBuilderTest extends AbstractQueryTestCase<QuerqyQueryBui
 
     }
 
+    public void testWriteReadStreamInCompactAndLegacyFormat() throws IOException {
+
+        final List<String> queryFields = Arrays.asList("f1", "f2^3.0", "f3^2", "f4^0.50", "f5^1e2");
+
+        final QuerqyQueryBuilder legacyQuerqyQueryBuilder = createWireFormatTestBuilder(querqyProcessor,
+                queryFields);
+        assertEquals(QuerqyQueryBuilder.NAME, legacyQuerqyQueryBuilder.getWriteableName());
+
+        final QuerqyProcessor compactProcessor = mock(QuerqyProcessor.class);
+        when(compactProcessor.isCompactWireFormatSupported()).thenReturn(true);
+        final QuerqyQueryBuilder compactQuerqyQueryBuilder = createWireFormatTestBuilder(compactProcessor,
+                queryFields);
+        assertEquals(QuerqyQueryBuilder.COMPACT_WRITEABLE_NAME, compactQuerqyQueryBuilder.getWriteableName());
+        assertEquals(QuerqyQueryBuilder.NAME, compactQuerqyQueryBuilder.getName());
+
+        final BytesStreamOutput compactOut = new BytesStreamOutput();
+        compactQuerqyQueryBuilder.writeTo(compactOut);
+        compactOut.close();
+
+        final BytesStreamOutput legacyOut = new BytesStreamOutput();
+        legacyQuerqyQueryBuilder.writeTo(legacyOut);
+        legacyOut.close();
+
+        final QuerqyQueryBuilder readCompactQuerqyQueryBuilder = new QuerqyQueryBuilder(
+                compactOut.bytes().streamInput(), querqyProcessor, true);
+        assertEqualBuilders(compactQuerqyQueryBuilder, readCompactQuerqyQueryBuilder);
+        assertEquals(compactQuerqyQueryBuilder.getQueryFieldsAndBoostings(),
+                readCompactQuerqyQueryBuilder.getQueryFieldsAndBoostings());
+
+        assertEqualBuilders(legacyQuerqyQueryBuilder,
+                new QuerqyQueryBuilder(legacyOut.bytes().streamInput(), querqyProcessor));
+
+        assertTrue(compactOut.size() < legacyOut.size());
+    }
+
+    public void testThatTheDefaultFormatIsReadableByTheBaselineReader() throws IOException {
+
+        final List<String> queryFields = Arrays.asList("f1", "f2^3.0", "f3^2");
+        final QuerqyQueryBuilder writeQuerqyQueryBuilder = createWireFormatTestBuilder(querqyProcessor, queryFields);
+        writeQuerqyQueryBuilder.setMinimumShouldMatch("2<-25%");
+        writeQuerqyQueryBuilder.setTieBreaker(0.3f);
+
+        final BytesStreamOutput out = new BytesStreamOutput();
+        out.writeNamedWriteable(writeQuerqyQueryBuilder);
+        out.close();
+
+        // This is how QuerqyQueryBuilder was read before the compact format was introduced
+        final StreamInput in = out.bytes().streamInput();
+        assertEquals(QuerqyQueryBuilder.NAME, in.readString());
+        assertEquals(writeQuerqyQueryBuilder.boost(), in.readFloat(), 0f);
+        assertEquals(writeQuerqyQueryBuilder.queryName(), in.readOptionalString());
+        assertEquals(writeQuerqyQueryBuilder.getMatchingQuery(), new MatchingQuery(in));
+        assertEquals(writeQuerqyQueryBuilder.getBoostingQueries(), in.readOptionalWriteable(BoostingQueries::new));
+        assertNull(in.readOptionalWriteable(Generated::new));
+        assertEquals(queryFields, in.readStringList());
+        assertEquals("2<-25%", in.readOptionalString());
+        assertEquals(Float.valueOf(0.3f), in.readOptionalFloat());
+        assertNull(in.readOptionalString());
+        final int numRewriters = in.readInt();
+        final List<Rewriter> rewriters = new ArrayList<>(numRewriters);
+        for (int i = 0; i < numRewriters; i++) {
+            rewriters.add(new Rewriter(in));
+        }
+        assertEquals(writeQuerqyQueryBuilder.getRewriters(), rewriters);
+        assertNull(in.readOptionalWriteable(InfoLoggingSpec::new));
+        assertEquals(0, in.available());
+    }
+
+    public void testThatTheCompactFormatNeedsToBeSupportedByAllNodes() {
+
+        final DiscoveryNode compactNode1 = new DiscoveryNode("n1", buildNewFakeTransportAddress(),
+                Collections.singletonMap(QueryWireFormat.NODE_ATTRIBUTE, "1"), Collections.emptySet(),
+                Version.CURRENT);
+        final DiscoveryNode compactNode2 = new DiscoveryNode("n2", buildNewFakeTransportAddress(),
+                Collections.singletonMap(QueryWireFormat.NODE_ATTRIBUTE, "1"), Collections.emptySet(),
+                Version.CURRENT);
+        final DiscoveryNode legacyNode = new DiscoveryNode("n3", buildNewFakeTransportAddress(),
+                Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+
+        assertTrue(QueryWireFormat.isCompactFormatSupported(
+                DiscoveryNodes.builder().add(compactNode1).add(compactNode2).build()));
+        assertFalse(QueryWireFormat.isCompactFormatSupported(
+                DiscoveryNodes.builder().add(compactNode1).add(legacyNode).build()));
+    }
+
+    private static QuerqyQueryBuilder createWireFormatTestBuilder(final QuerqyProcessor querqyProcessor,
+                                                                 final List<String> queryFields) {
+
+        final QuerqyQueryBuilder builder = new QuerqyQueryBuilder(querqyProcessor);
+        builder.setMatchingQuery(new MatchingQuery("query string"));
+        builder.setQueryFieldsAndBoostings(queryFields);
+
+        final Map<String, Object> params1 = new HashMap<>();
+        params1.put("limit", 1);
+        params1.put("large", Long.MAX_VALUE);
+        params1.put("weight", 0.5);
+        params1.put("enabled", true);
+        params1.put("sort", "prio desc");
+        params1.put("values", Arrays.asList("prio desc", 2, null));
+        final Map<String, Object> params2 = new HashMap<>();
+        params2.put("criteria", Collections.singletonMap("sort", "prio desc"));
+
+        builder.setRewriters(Arrays.asList(new Rewriter("common1", params1),
+                new Rewriter("common2", params2), new Rewriter("wordbreak")));
+        return builder;
+    }
+
     public void testWriteReadJsonForAllProperties() throws IOException {
 
         final QuerqyQueryBuilder writeQuerqyQueryBuilder = new QuerqyQueryBuilder(querqyProcessor);
@@ -0,0 +1,138 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriter;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+import org.opensearch.test.OpenSearchTestCase;
+
+public class CommonRulesEditorTest extends OpenSearchTestCase {
+
+    private static final String RULES = "# header comment\n" +
+            "notebook =>\n" +
+            "  SYNONYM: laptop\n" +
+            "\n" +
+            "apple  iphone =>\n" +
+            "  @_id: \"r2\"\n" +
+            "  UP(100): smartphone\n" +
+            "# comment of r3\n" +
+            "tv =>\n" +
+            "  @{\n" +
+            "    \"_id\": \"r3\"\n" +
+            "  }@\n" +
+            "  FILTER: * type:tv\n";
+
+    public void testThatRuleIsDeletedByInput() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, singletonList("notebook"), null);
+        assertFalse(rules.contains("notebook"));
+        assertFalse(rules.contains("laptop"));
+        assertTrue(rules.startsWith("# header comment\n"));
+        assertTrue(rules.contains("apple  iphone =>"));
+        assertTrue(rules.contains("tv =>"));
+    }
+
+    public void testThatInputWhitespaceIsNormalisedForDeletion() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, singletonList(" apple iphone "), null);
+        assertFalse(rules.contains("smartphone"));
+        assertTrue(rules.contains("# comment of r3\ntv =>"));
+        assertTrue(rules.contains("notebook =>"));
+    }
+
+    public void testThatRulesAreDeletedById() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, asList("r2", "r3"), null);
+        assertEquals("# header comment\nnotebook =>\n  SYNONYM: laptop\n\n", rules);
+    }
+
+    public void testThatDeletingAMissingRuleFails() {
+        final IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+                () -> CommonRulesEditor.applyChanges(RULES, asList("notebook", "tablet"), null));
+        assertTrue(e.getMessage().contains("tablet"));
+    }
+
+    public void testThatRuleIsReplacedByInputInPlace() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, emptyList(),
+                "notebook =>\n  SYNONYM: netbook\n");
+        assertFalse(rules.contains("laptop"));
+        assertTrue(rules.startsWith("# header comment\nnotebook =>\n  SYNONYM: netbook\n\napple"));
+    }
+
+    public void testThatRuleIsReplacedById() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, emptyList(),
+                "iphone =>\n  @_id: \"r2\"\n  UP(50): phone\n");
+        assertFalse(rules.contains("apple  iphone"));
+        assertFalse(rules.contains("smartphone"));
+        assertTrue(rules.contains("iphone =>\n  @_id: \"r2\"\n  UP(50): phone\n# comment of r3\ntv =>"));
+    }
+
+    public void testThatNewRuleIsAppended() {
+        final String rules = CommonRulesEditor.applyChanges(RULES, emptyList(), "tablet =>\n  SYNONYM: ipad");
+        assertTrue(rules.startsWith(RULES));
+        assertTrue(rules.endsWith("tablet =>\n  SYNONYM: ipad\n"));
+    }
+
+    public void testThatDuplicateInputsAreReplacedByOneRule() {
+        final String rules = CommonRulesEditor.applyChanges(
+                "a =>\n  SYNONYM: b\na =>\n  SYNONYM: c\nd =>\n  SYNONYM: e\n", emptyList(), "a =>\n  SYNONYM: f\n");
+        assertEquals("a =>\n  SYNONYM: f\nd =>\n  SYNONYM: e\n", rules);
+    }
+
+    public void testThatCommentsBelongToTheRuleBelowThem() {
+        final String rules = CommonRulesEditor.applyChanges(
+                "a =>\n  SYNONYM: b\n# about c\nc =>\n  SYNONYM: d\n", singletonList("a"), null);
+        assertEquals("# about c\nc =>\n  SYNONYM: d\n", rules);
+
+        assertEquals("a =>\n  SYNONYM: b\n",
+                CommonRulesEditor.applyChanges("a =>\n  SYNONYM: b\n# about c\nc =>\n  SYNONYM: d\n",
+                        singletonList("c"), null));
+    }
+
+    public void testThatCommentsSeparatedByABlankLineAreKept() {
+        final String rules = CommonRulesEditor.applyChanges(
+                "a =>\n  SYNONYM: b\n\n# section\n\nc =>\n  SYNONYM: d\n", asList("a", "c"), null);
+        assertEquals("\n# section\n\n", rules);
+    }
+
+    public void testThatAnIdInDecorateJsonIsNotTheRuleId() {
+        final String rules = "a =>\n  DECORATE: {\"_id\": \"d1\"}\nb =>\n  @_id: \"d1\"\n  SYNONYM: c\n";
+        assertEquals("a =>\n  DECORATE: {\"_id\": \"d1\"}\n",
+                CommonRulesEditor.applyChanges(rules, singletonList("d1"), null));
+        assertEquals("b =>\n  @_id: \"d1\"\n  SYNONYM: c\n",
+                CommonRulesEditor.applyChanges(rules, singletonList("a"), null));
+    }
+
+    public void testThatAnInputSeparatorInDecorateJsonDoesNotStartARule() {
+        final String rules = CommonRulesEditor.applyChanges(
+                "a =>\n  DECORATE: {\"redirect\": \"x => y\"}\nb =>\n  SYNONYM: c\n", singletonList("a"), null);
+        assertEquals("b =>\n  SYNONYM: c\n", rules);
+    }
+
+    public void testThatAnIdNestedInAPropertyBlockIsNotTheRuleId() {
+        final String rules = "a =>\n  @{\n    \"meta\": {\"_id\": \"x\"}\n  }@\n  SYNONYM: b\n";
+        expectThrows(IllegalArgumentException.class,
+                () -> CommonRulesEditor.applyChanges(rules, singletonList("x"), null));
+        assertEquals("", CommonRulesEditor.applyChanges(rules, singletonList("a"), null));
+    }
+
+    public void testThatInstructionsWithoutInputAreRejected() {
+        expectThrows(IllegalArgumentException.class,
+                () -> CommonRulesEditor.applyChanges(RULES, emptyList(), "  SYNONYM: b\nc =>\n  SYNONYM: d"));
+    }
+
+}
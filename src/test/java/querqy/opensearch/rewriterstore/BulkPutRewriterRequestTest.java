@@ -0,0 +1,86 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static java.util.Arrays.asList;
+
+import org.hamcrest.Matchers;
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.test.OpenSearchTestCase;
+import querqy.opensearch.DummyOpenSearchRewriterFactory;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class BulkPutRewriterRequestTest extends OpenSearchTestCase {
+
+    public void testThatEmptyRequestIsInvalid() {
+        assertNotNull(new BulkPutRewriterRequest(Collections.emptyList()).validate());
+    }
+
+    public void testThatDuplicateRewriterIdIsInvalid() {
+        final ActionRequestValidationException validationResult = new BulkPutRewriterRequest(asList(
+                new PutRewriterRequest("r1", content("v1")), new PutRewriterRequest("r1", content("v2"))))
+                .validate();
+        assertNotNull(validationResult);
+        assertThat(validationResult.validationErrors(), Matchers.contains("Duplicate rewriter r1"));
+    }
+
+    public void testThatEmptyRewriterIdIsInvalid() {
+        assertNotNull(new BulkPutRewriterRequest(Collections.singletonList(new PutRewriterRequest(" ",
+                content("v1")))).validate());
+    }
+
+    public void testThatRewriterConfigsAreNotValidatedByRequest() {
+        // the transport action validates the configs in parallel
+        assertNull(new BulkPutRewriterRequest(asList(new PutRewriterRequest("r1", content("v1")),
+                new PutRewriterRequest("r2", Collections.emptyMap()))).validate());
+    }
+
+    public void testStreamSerialization() throws IOException {
+
+        final BulkPutRewriterRequest request1 = new BulkPutRewriterRequest(asList(
+                new PutRewriterRequest("r1", content("v1")), new PutRewriterRequest("r2", content("v2"))));
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        request1.writeTo(output);
+        output.flush();
+
+        final BulkPutRewriterRequest request2 = new BulkPutRewriterRequest(output.bytes().streamInput());
+
+        assertEquals(2, request2.getRequests().size());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(request1.getRequests().get(i).getRewriterId(),
+                    request2.getRequests().get(i).getRewriterId());
+            assertEquals(request1.getRequests().get(i).getContent(), request2.getRequests().get(i).getContent());
+        }
+
+    }
+
+    private static Map<String, Object> content(final String revision) {
+        final Map<String, Object> content = new HashMap<>();
+        content.put("class", DummyOpenSearchRewriterFactory.class.getName());
+        content.put("config", new HashMap<String, Object>());
+        content.put("revision", revision);
+        return content;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2021 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.action.ActionRequestValidationException;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.io.IOException;
+
+public class GetRewriterRequestTest extends OpenSearchTestCase {
+
+    public void testValidate() {
+        assertNull(new GetRewriterRequest().validate());
+        assertNull(new GetRewriterRequest("r1").validate());
+        assertNull(new GetRewriterRequest(null, false, 1, "r1", "some.RewriterFactory", "rev1").validate());
+        assertNull(new GetRewriterRequest(null, false, GetRewriterRequest.MAX_PAGE_SIZE, null, null, null)
+                .validate());
+    }
+
+    public void testThatSizeMustBeWithinBounds() {
+        assertNotNull(new GetRewriterRequest(null, false, 0, null, null, null).validate());
+        assertNotNull(new GetRewriterRequest(null, false, GetRewriterRequest.MAX_PAGE_SIZE + 1, null, null, null)
+                .validate());
+    }
+
+    public void testThatPagingAndFiltersCannotBeUsedWithRewriterId() {
+        final ActionRequestValidationException e = new GetRewriterRequest("r1", false, 10, "r0", null, null)
+                .validate();
+        assertNotNull(e);
+        assertEquals(1, e.validationErrors().size());
+
+        assertNotNull(new GetRewriterRequest("r1", false, 10, null, "some.RewriterFactory", null).validate());
+        assertNotNull(new GetRewriterRequest("r1", false, 10, null, null, "rev1").validate());
+    }
+
+    public void testStreamSerialization() throws IOException {
+        final GetRewriterRequest request1 = new GetRewriterRequest(null, true, 25, "r17", "some.RewriterFactory",
+                "rev1");
+        final BytesStreamOutput output = new BytesStreamOutput();
+        request1.writeTo(output);
+        output.flush();
+
+        final GetRewriterRequest request2 = new GetRewriterRequest(output.bytes().streamInput());
+        assertNull(request2.getRewriterId());
+        assertTrue(request2.isVerifyConfigHash());
+        assertEquals(25, request2.getSize());
+        assertEquals("r17", request2.getFromId());
+        assertEquals("some.RewriterFactory", request2.getRewriterClass());
+        assertEquals("rev1", request2.getRevision());
+    }
+
+}
@@ -146,6 +146,26 @@ public class GetRewriterResponseTest extends OpenSearchTestCase {
         assertFalse(rewriters.get(1).containsKey(RewriterConfigMapping.PROP_REVISION));
     }
 
+    public void testStreamSerializationOfNextFromId() throws IOException {
+
+        final GetRewriterResponse response = deserialize(new GetRewriterResponse(
+                Collections.singletonList(rewriterInfo("r1", "rev1", false)), "r1"));
+
+        assertEquals("r1", response.getNextFromId());
+        assertEquals(1, response.getRewriters().size());
+
+        assertNull(deserialize(new GetRewriterResponse(Collections.emptyList())).getNextFromId());
+    }
+
+    public void testThatNextFromIdIsWrittenToJson() throws IOException {
+
+        final Map<String, Object> parsed = toMap(new GetRewriterResponse(
+                Collections.singletonList(rewriterInfo("r1", "rev1", false)), "r1"));
+
+        assertEquals(2, parsed.size());
+        assertThat(parsed, hasEntry(GetRewriterResponse.FIELD_NEXT_FROM_ID, "r1"));
+    }
+
     private static GetRewriterResponse deserialize(final GetRewriterResponse response) throws IOException {
         final BytesStreamOutput output = new BytesStreamOutput();
         response.writeTo(output);
@@ -22,6 +22,8 @@ import org.opensearch.test.OpenSearchTestCase;
 import org.opensearch.common.io.stream.BytesStreamOutput;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 
 public class NodesReloadRewriterRequestTest extends OpenSearchTestCase {
 
@@ -33,8 +35,43 @@ public class NodesReloadRewriterRequestTest extends OpenSearchTestCase {
         output.flush();
 
         final NodesReloadRewriterRequest request2 = new NodesReloadRewriterRequest(output.bytes().streamInput());
-        assertEquals("r1", request1.getRewriterId());
-        assertEquals("r1", request2.getRewriterId());
+        assertEquals(Collections.singletonList("r1"), request1.getRewriterIds());
+        assertEquals(Collections.singletonList("r1"), request2.getRewriterIds());
+
+    }
+
+    public void testStreamSerializationOfSeveralRewriters() throws IOException {
+
+        final NodesReloadRewriterRequest request1 = new NodesReloadRewriterRequest(Arrays.asList("r1", "r2"));
+        final BytesStreamOutput output = new BytesStreamOutput();
+        request1.writeTo(output);
+        output.flush();
+
+        final NodesReloadRewriterRequest request2 = new NodesReloadRewriterRequest(output.bytes().streamInput());
+        assertEquals(Arrays.asList("r1", "r2"), request2.getRewriterIds());
+        assertEquals(Arrays.asList("r1", "r2"), request2.newNodeRequest().getRewriterIds());
+
+    }
+
+    public void testStreamSerializationOfConfigHashes() throws IOException {
+
+        final NodesReloadRewriterRequest request1 = new NodesReloadRewriterRequest(Arrays.asList("r1", "r2"),
+                Collections.singletonMap("r1", "hash1"));
+        final BytesStreamOutput output = new BytesStreamOutput();
+        request1.writeTo(output);
+        output.flush();
+
+        final NodesReloadRewriterRequest request2 = new NodesReloadRewriterRequest(output.bytes().streamInput());
+        assertEquals(Collections.singletonMap("r1", "hash1"), request2.getConfigHashes());
+
+        final BytesStreamOutput nodeOutput = new BytesStreamOutput();
+        request2.newNodeRequest().writeTo(nodeOutput);
+        nodeOutput.flush();
+
+        final NodesReloadRewriterRequest.NodeRequest nodeRequest = new NodesReloadRewriterRequest.NodeRequest(
+                nodeOutput.bytes().streamInput());
+        assertEquals(Arrays.asList("r1", "r2"), nodeRequest.getRewriterIds());
+        assertEquals(Collections.singletonMap("r1", "hash1"), nodeRequest.getConfigHashes());
 
     }
 }
\ No newline at end of file
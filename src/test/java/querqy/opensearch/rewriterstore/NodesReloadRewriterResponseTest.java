@@ -24,6 +24,9 @@ import org.opensearch.Version;
 import org.opensearch.action.FailedNodeException;
 import org.opensearch.cluster.ClusterName;
 import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
 import org.opensearch.core.common.io.stream.ByteBufferStreamInput;
 import org.opensearch.core.common.io.stream.DataOutputStreamOutput;
 import org.opensearch.core.common.transport.TransportAddress;
@@ -31,10 +34,13 @@ import org.opensearch.core.common.transport.TransportAddress;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 public class NodesReloadRewriterResponseTest extends OpenSearchTestCase {
 
@@ -71,4 +77,94 @@ public class NodesReloadRewriterResponseTest extends OpenSearchTestCase {
 
     }
 
+    @SuppressWarnings("unchecked")
+    public void testThatRewriterAndShardFailuresAreReported() throws IOException {
+
+        final NodesReloadRewriterResponse response = new NodesReloadRewriterResponse(new ClusterName("c1"),
+                Collections.singletonList(new NodesReloadRewriterResponse.NodeResponse(
+                        new DiscoveryNode("n1", new TransportAddress(TransportAddress.META_ADDRESS, 9234),
+                                Version.CURRENT),
+                        Arrays.asList(
+                                new NodesReloadRewriterResponse.ReloadFailure("r1", null,
+                                        new IllegalArgumentException("invalid rules")),
+                                new NodesReloadRewriterResponse.ReloadFailure("r2", "[idx][0]",
+                                        new IllegalStateException("shard closed"))))),
+                Collections.emptyList());
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        response.writeTo(output);
+        output.flush();
+        final NodesReloadRewriterResponse response1 = new NodesReloadRewriterResponse(output.bytes().streamInput());
+        assertEquals(response, response1);
+
+        final NodesReloadRewriterResponse.NodeResponse nodeResponse = response1.getNodes().get(0);
+        assertEquals("invalid rules", nodeResponse.reloadException().getMessage());
+        assertEquals(2, nodeResponse.getFailures().size());
+        assertEquals("r2", nodeResponse.getFailures().get(1).getRewriterId());
+        assertEquals("[idx][0]", nodeResponse.getFailures().get(1).getShard());
+
+        final Map<String, Object> parsed;
+        try (InputStream stream = XContentHelper.toXContent(response1, XContentType.JSON, true).streamInput()) {
+            parsed = XContentHelper.convertToMap(XContentType.JSON.xContent(), stream, false);
+        }
+        final Map<String, Object> node = (Map<String, Object>) ((Map<String, Object>) parsed.get("nodes"))
+                .get(nodeResponse.getNode().getId());
+        assertTrue(node.containsKey("reload_exception"));
+        final List<Map<String, Object>> failures = (List<Map<String, Object>>) node.get("failures");
+        assertEquals(2, failures.size());
+        assertEquals("r1", failures.get(0).get("rewriter_id"));
+        assertFalse(failures.get(0).containsKey("shard"));
+        assertEquals("[idx][0]", failures.get(1).get("shard"));
+
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testThatFailedNodesAreReported() throws IOException {
+
+        final NodesReloadRewriterResponse response = new NodesReloadRewriterResponse(new ClusterName("c1"),
+                Collections.emptyList(), Collections.singletonList(new FailedNodeException("n3",
+                        "No handler for action [" + NodesReloadRewriterAction.NAME + "[n]]", null)));
+
+        final Map<String, Object> parsed;
+        try (InputStream stream = XContentHelper.toXContent(response, XContentType.JSON, true).streamInput()) {
+            parsed = XContentHelper.convertToMap(XContentType.JSON.xContent(), stream, false);
+        }
+        final List<Map<String, Object>> failedNodes = (List<Map<String, Object>>) parsed.get("failed_nodes");
+        assertEquals(1, failedNodes.size());
+        assertEquals("n3", failedNodes.get(0).get("node_id"));
+        assertTrue(failedNodes.get(0).containsKey("exception"));
+
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testThatReloadedAndUnchangedRewritersAreReported() throws IOException {
+
+        final NodesReloadRewriterResponse response = new NodesReloadRewriterResponse(new ClusterName("c1"),
+                Collections.singletonList(new NodesReloadRewriterResponse.NodeResponse(
+                        new DiscoveryNode("n1", new TransportAddress(TransportAddress.META_ADDRESS, 9234),
+                                Version.CURRENT),
+                        Collections.singletonList("r1"), Arrays.asList("r2", "r3"), Collections.singletonList("r4"),
+                        Collections.emptyList())),
+                Collections.emptyList());
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        response.writeTo(output);
+        output.flush();
+        final NodesReloadRewriterResponse response1 = new NodesReloadRewriterResponse(output.bytes().streamInput());
+        assertEquals(response, response1);
+
+        final Map<String, Object> parsed;
+        try (InputStream stream = XContentHelper.toXContent(response1, XContentType.JSON, true).streamInput()) {
+            parsed = XContentHelper.convertToMap(XContentType.JSON.xContent(), stream, false);
+        }
+        final Map<String, Object> node = (Map<String, Object>) ((Map<String, Object>) parsed.get("nodes"))
+                .get(response1.getNodes().get(0).getNode().getId());
+        assertEquals(Collections.singletonList("r1"), node.get("reloaded"));
+        assertEquals(Arrays.asList("r2", "r3"), node.get("unchanged"));
+        assertEquals(Collections.singletonList("r4"), node.get("not_loaded"));
+        assertFalse(node.containsKey("reload_exception"));
+        assertFalse(parsed.containsKey("failed_nodes"));
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import static org.opensearch.core.common.transport.TransportAddress.META_ADDRESS;
+import org.opensearch.test.OpenSearchTestCase;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.transport.TransportAddress;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.hamcrest.Matchers;
+import querqy.opensearch.OpenSearchTermQueryCache;
+import querqy.opensearch.QueryPhaseStats;
+import querqy.opensearch.RewriterStats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class NodesRewriterStatsResponseTest extends OpenSearchTestCase {
+
+    private final DiscoveryNode node1 = new DiscoveryNode("name1", "d1", new TransportAddress(META_ADDRESS, 0),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+    private final DiscoveryNode node2 = new DiscoveryNode("name2", "d2", new TransportAddress(META_ADDRESS, 0),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+
+    @SuppressWarnings("unchecked")
+    public void testJsonSerialization() throws Exception {
+
+        final NodesRewriterStatsResponse response = new NodesRewriterStatsResponse(new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterStatsResponse.NodeResponse(node1, 3L, Collections.singletonMap("common1",
+                                snapshot(5)), phaseSnapshot(true),
+                                new OpenSearchTermQueryCache.Stats(10L, 6L, 4L, 2L)),
+                        new NodesRewriterStatsResponse.NodeResponse(node2, 0L, Collections.emptyMap(),
+                                phaseSnapshot(false), OpenSearchTermQueryCache.Stats.EMPTY)),
+                Collections.emptyList());
+
+        final Map<String, Object> parsed;
+        try (InputStream stream = XContentHelper.toXContent(response, XContentType.JSON, true).streamInput()) {
+            parsed = XContentHelper.convertToMap(XContentType.JSON.xContent(), stream, false);
+        }
+
+        final Map<String, Object> nodes = (Map<String, Object>) parsed.get("nodes");
+        final Map<String, Object> d1 = (Map<String, Object>) nodes.get("d1");
+        assertThat(d1, Matchers.hasEntry("name", "name1"));
+        assertThat(d1, Matchers.hasEntry("rewriter_generation", 3));
+
+        final Map<String, Object> common1 = (Map<String, Object>) ((Map<String, Object>) d1.get("rewriters"))
+                .get("common1");
+        assertThat(common1, Matchers.hasEntry("estimated_size_in_bytes", 1024));
+
+        final Map<String, Object> load = (Map<String, Object>) common1.get("load");
+        assertThat(load, Matchers.hasEntry("count", 2));
+        assertThat(load, Matchers.hasEntry("time_in_millis", 30));
+        assertThat(load, Matchers.hasEntry("last_time_in_millis", 10));
+
+        final Map<String, Object> rewrite = (Map<String, Object>) common1.get("rewrite");
+        assertThat(rewrite, Matchers.hasEntry("count", 5));
+        assertThat(rewrite, Matchers.hasEntry("changed_query_count", 3));
+        assertThat(rewrite, Matchers.hasEntry("time_in_millis", 2));
+        assertThat(rewrite, Matchers.hasEntry("max_time_in_micros", 900));
+        final Map<String, Object> percentiles = (Map<String, Object>) rewrite.get("time_percentiles_in_micros");
+        assertThat(percentiles, Matchers.hasEntry("50.0", 100));
+        assertThat(percentiles, Matchers.hasEntry("95.0", 800));
+        assertThat(percentiles, Matchers.hasEntry("99.0", 900));
+
+        final Map<String, Object> cache = (Map<String, Object>) common1.get("cache");
+        assertThat(cache, Matchers.hasEntry("hit_count", 7));
+        assertThat(cache, Matchers.hasEntry("miss_count", 1));
+
+        final Map<String, Object> queryPhases = (Map<String, Object>) d1.get("query_phases");
+        assertThat(queryPhases, Matchers.hasEntry("enabled", true));
+        final Map<String, Object> rewriteChain = (Map<String, Object>) queryPhases.get("rewrite_chain");
+        assertThat(rewriteChain, Matchers.hasEntry("count", 4));
+        assertThat(rewriteChain, Matchers.hasEntry("time_in_millis", 3));
+        assertThat(rewriteChain, Matchers.hasEntry("max_time_in_micros", 2000));
+        assertThat((Map<String, Object>) rewriteChain.get("time_percentiles_in_micros"),
+                Matchers.hasEntry("99.0", 2000));
+        for (final QueryPhaseStats.Phase phase : QueryPhaseStats.Phase.values()) {
+            assertTrue(queryPhases.containsKey(phase.getFieldName()));
+        }
+
+        final Map<String, Object> termQueryCache = (Map<String, Object>) d1.get("term_query_cache");
+        assertThat(termQueryCache, Matchers.hasEntry("size", 10));
+        assertThat(termQueryCache, Matchers.hasEntry("hit_count", 6));
+        assertThat(termQueryCache, Matchers.hasEntry("miss_count", 4));
+        assertThat(termQueryCache, Matchers.hasEntry("evictions", 2));
+
+        final Map<String, Object> d2 = (Map<String, Object>) nodes.get("d2");
+        assertEquals(Collections.emptyMap(), d2.get("rewriters"));
+        assertThat((Map<String, Object>) d2.get("query_phases"), Matchers.hasEntry("enabled", false));
+
+    }
+
+    public void testStreamSerialization() throws IOException {
+
+        final Map<String, RewriterStats.Snapshot> stats = new TreeMap<>();
+        stats.put("common1", snapshot(5));
+        stats.put("replace1", snapshot(0));
+
+        final NodesRewriterStatsResponse response1 = new NodesRewriterStatsResponse(new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterStatsResponse.NodeResponse(node1, 3L, stats, phaseSnapshot(true),
+                                new OpenSearchTermQueryCache.Stats(10L, 6L, 4L, 2L)),
+                        new NodesRewriterStatsResponse.NodeResponse(node2, 0L, Collections.emptyMap(),
+                                phaseSnapshot(false), OpenSearchTermQueryCache.Stats.EMPTY)),
+                Collections.emptyList());
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        response1.writeTo(output);
+        output.flush();
+
+        final NodesRewriterStatsResponse response2 = new NodesRewriterStatsResponse(output.bytes().streamInput());
+
+        assertEquals(response1.getNodes(), response2.getNodes());
+
+    }
+
+    private static RewriterStats.Snapshot snapshot(final long rewrites) {
+        return new RewriterStats.Snapshot(2, 30_000_000L, 10_000_000L, 1024, rewrites, 3, 2_000_000L, 900_000L,
+                new long[] {100_000L, 800_000L, 900_000L}, 7, 1);
+    }
+
+    private static QueryPhaseStats.Snapshot phaseSnapshot(final boolean enabled) {
+        final int numPhases = QueryPhaseStats.Phase.values().length;
+        final long[] counts = new long[numPhases];
+        final long[] sums = new long[numPhases];
+        final long[] maxs = new long[numPhases];
+        final long[][] percentiles = new long[numPhases][];
+        for (int i = 0; i < numPhases; i++) {
+            counts[i] = enabled ? 4 : 0;
+            sums[i] = enabled ? 3_000_000L : 0L;
+            maxs[i] = enabled ? 2_000_000L : 0L;
+            percentiles[i] = enabled
+                    ? new long[] {500_000L, 2_000_000L, 2_000_000L} : new long[] {0L, 0L, 0L};
+        }
+        return new QueryPhaseStats.Snapshot(enabled, counts, sums, maxs, percentiles);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package querqy.opensearch.rewriterstore;
+
+import static org.opensearch.core.common.transport.TransportAddress.META_ADDRESS;
+import org.opensearch.test.OpenSearchTestCase;
+
+import org.opensearch.Version;
+import org.opensearch.cluster.ClusterName;
+import org.opensearch.cluster.node.DiscoveryNode;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.core.common.transport.TransportAddress;
+import org.opensearch.core.rest.RestStatus;
+import org.opensearch.common.xcontent.XContentHelper;
+import org.opensearch.common.xcontent.XContentType;
+import org.hamcrest.Matchers;
+import querqy.opensearch.RewriterWarmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+public class NodesRewriterWarmupStatusResponseTest extends OpenSearchTestCase {
+
+    private final DiscoveryNode node1 = new DiscoveryNode("name1", "d1", new TransportAddress(META_ADDRESS, 0),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+    private final DiscoveryNode node2 = new DiscoveryNode("name2", "d2", new TransportAddress(META_ADDRESS, 0),
+            Collections.emptyMap(), Collections.emptySet(), Version.CURRENT);
+
+    @SuppressWarnings("unchecked")
+    public void testJsonSerialization() throws Exception {
+
+        final NodesRewriterWarmupStatusResponse response = new NodesRewriterWarmupStatusResponse(
+                new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node1, RewriterWarmup.State.DONE, 3, 2, 1),
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node2, RewriterWarmup.State.IN_PROGRESS,
+                                3, 1, 0)),
+                Collections.emptyList());
+
+        final Map<String, Object> parsed;
+        try (InputStream stream = XContentHelper.toXContent(response, XContentType.JSON, true).streamInput()) {
+            parsed = XContentHelper.convertToMap(XContentType.JSON.xContent(), stream, false);
+        }
+
+        assertEquals(false, parsed.get("ready"));
+
+        final Map<String, Object> nodes = (Map<String, Object>) parsed.get("nodes");
+        final Map<String, Object> d1 = (Map<String, Object>) nodes.get("d1");
+        assertThat(d1, Matchers.hasEntry("name", "name1"));
+        assertThat(d1, Matchers.hasEntry("state", "done"));
+        assertThat(d1, Matchers.hasEntry("ready", true));
+        assertThat(d1, Matchers.hasEntry("rewriters", 3));
+        assertThat(d1, Matchers.hasEntry("loaded", 2));
+        assertThat(d1, Matchers.hasEntry("failed", 1));
+
+        final Map<String, Object> d2 = (Map<String, Object>) nodes.get("d2");
+        assertThat(d2, Matchers.hasEntry("state", "in_progress"));
+        assertThat(d2, Matchers.hasEntry("ready", false));
+
+    }
+
+    public void testThatStatusIsUnavailableUntilAllNodesAreReady() {
+
+        final NodesRewriterWarmupStatusResponse notReady = new NodesRewriterWarmupStatusResponse(
+                new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node1, RewriterWarmup.State.DISABLED, 0, 0,
+                                0),
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node2, RewriterWarmup.State.PENDING, 0, 0,
+                                0)),
+                Collections.emptyList());
+
+        assertFalse(notReady.isReady());
+        assertEquals(RestStatus.SERVICE_UNAVAILABLE, notReady.status());
+
+        final NodesRewriterWarmupStatusResponse ready = new NodesRewriterWarmupStatusResponse(
+                new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node1, RewriterWarmup.State.DISABLED, 0, 0,
+                                0),
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node2, RewriterWarmup.State.DONE, 2, 2, 0)),
+                Collections.emptyList());
+
+        assertTrue(ready.isReady());
+        assertEquals(RestStatus.OK, ready.status());
+
+    }
+
+    public void testStreamSerialization() throws IOException {
+
+        final NodesRewriterWarmupStatusResponse response1 = new NodesRewriterWarmupStatusResponse(
+                new ClusterName("cluster27"),
+                Arrays.asList(
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node1, RewriterWarmup.State.DONE, 3, 2, 1),
+                        new NodesRewriterWarmupStatusResponse.NodeResponse(node2, RewriterWarmup.State.FAILED, 0, 0,
+                                0)),
+                Collections.emptyList());
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        response1.writeTo(output);
+        output.flush();
+
+        final NodesRewriterWarmupStatusResponse response2 = new NodesRewriterWarmupStatusResponse(output.bytes()
+                .streamInput());
+
+        assertEquals(response1.getNodes(), response2.getNodes());
+
+    }
+
+}
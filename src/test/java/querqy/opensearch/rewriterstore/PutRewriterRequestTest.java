@@ -25,6 +25,7 @@ import java.util.Map;
 
 import org.opensearch.action.ActionRequestValidationException;
 import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.index.seqno.SequenceNumbers;
 import org.hamcrest.Matchers;
 import org.opensearch.test.OpenSearchTestCase;
 import querqy.opensearch.DummyOpenSearchRewriterFactory;
@@ -131,4 +132,34 @@ public class PutRewriterRequestTest extends OpenSearchTestCase {
 
     }
 
+    public void testThatSequenceNumberAndPrimaryTermAreSerialized() throws IOException {
+
+        final Map<String, Object> content = new HashMap<>();
+        content.put("class", DummyOpenSearchRewriterFactory.class.getName());
+
+        final PutRewriterRequest request1 = new PutRewriterRequest("r8", content, 7L, 2L);
+
+        final BytesStreamOutput output = new BytesStreamOutput();
+        request1.writeTo(output);
+        output.flush();
+
+        final PutRewriterRequest request2 = new PutRewriterRequest(output.bytes().streamInput());
+
+        assertEquals(7L, request2.getIfSeqNo());
+        assertEquals(2L, request2.getIfPrimaryTerm());
+        assertNull(request2.validate());
+
+    }
+
+    public void testThatSequenceNumberWithoutPrimaryTermIsRejected() {
+
+        final Map<String, Object> content = new HashMap<>();
+        content.put("class", DummyOpenSearchRewriterFactory.class.getName());
+
+        final ActionRequestValidationException validationResult = new PutRewriterRequest("r8", content, 7L,
+                SequenceNumbers.UNASSIGNED_PRIMARY_TERM).validate();
+        assertNotNull(validationResult);
+
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.rest.FakeRestRequest;
+
+import java.util.List;
+
+public class RestBulkPutRewriterActionTest extends OpenSearchTestCase {
+
+    public void testThatRequestIsParsed() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withContent(new BytesArray("{\"rewriters\": {" +
+                        "\"r1\": {\"class\": \"querqy.opensearch.DummyOpenSearchRewriterFactory\", \"config\": {}}," +
+                        "\"r2\": {\"class\": \"querqy.opensearch.DummyOpenSearchRewriterFactory\"," +
+                        " \"revision\": \"v2\"}}}"), XContentType.JSON)
+                .build();
+
+        final List<PutRewriterRequest> requests = new RestBulkPutRewriterAction().createRequest(restRequest)
+                .getRequests();
+        assertEquals(2, requests.size());
+        assertEquals("r1", requests.get(0).getRewriterId());
+        assertEquals("querqy.opensearch.DummyOpenSearchRewriterFactory", requests.get(0).getContent().get("class"));
+        assertEquals("r2", requests.get(1).getRewriterId());
+        assertEquals("v2", requests.get(1).getContent().get("revision"));
+    }
+
+    public void testThatMissingRewritersAreRejected() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withContent(new BytesArray("{\"r1\": {}}"), XContentType.JSON)
+                .build();
+        expectThrows(IllegalArgumentException.class,
+                () -> new RestBulkPutRewriterAction().createRequest(restRequest));
+    }
+
+    public void testThatNonObjectDefinitionIsRejected() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withContent(new BytesArray("{\"rewriters\": {\"r1\": \"x\"}}"), XContentType.JSON)
+                .build();
+        expectThrows(IllegalArgumentException.class,
+                () -> new RestBulkPutRewriterAction().createRequest(restRequest));
+    }
+}
@@ -59,6 +59,44 @@ public class RestGetRewriterActionTest extends OpenSearchTestCase {
         assertNull(request.getRewriterId());
     }
 
+    public void testThatConfigHashIsNotVerifiedByDefault() {
+
+        assertFalse(createRequest(Collections.emptyMap()).isVerifyConfigHash());
+    }
+
+    public void testThatConfigHashVerificationIsParsed() {
+
+        final Map<String, String> params = new HashMap<>();
+        params.put(PARAM_REWRITER_ID, "rewriter1");
+        params.put(RestGetRewriterAction.PARAM_VERIFY_CONFIG_HASH, "true");
+        assertTrue(createRequest(params).isVerifyConfigHash());
+    }
+
+    public void testThatListingDefaultsToTheMaxPageSize() {
+
+        final GetRewriterRequest request = createRequest(Collections.emptyMap());
+        assertEquals(GetRewriterRequest.MAX_PAGE_SIZE, request.getSize());
+        assertNull(request.getFromId());
+        assertNull(request.getRewriterClass());
+        assertNull(request.getRevision());
+    }
+
+    public void testThatPagingAndFilterParamsAreParsed() {
+
+        final Map<String, String> params = new HashMap<>();
+        params.put(RestGetRewriterAction.PARAM_SIZE, "50");
+        params.put(RestGetRewriterAction.PARAM_FROM_ID, "rewriter1");
+        params.put(RestGetRewriterAction.PARAM_CLASS, "querqy.opensearch.rewriter.SimpleCommonRulesRewriterFactory");
+        params.put(RestGetRewriterAction.PARAM_REVISION, "rev-7");
+
+        final GetRewriterRequest request = createRequest(params);
+        assertEquals(50, request.getSize());
+        assertEquals("rewriter1", request.getFromId());
+        assertEquals("querqy.opensearch.rewriter.SimpleCommonRulesRewriterFactory", request.getRewriterClass());
+        assertEquals("rev-7", request.getRevision());
+        assertNull(request.validate());
+    }
+
     public void testRoutes() {
 
         final List<RestHandler.Route> routes = new RestGetRewriterAction().routes();
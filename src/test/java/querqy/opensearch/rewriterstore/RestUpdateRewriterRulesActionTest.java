@@ -0,0 +1,71 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static java.util.Arrays.asList;
+import static querqy.opensearch.rewriterstore.RestUpdateRewriterRulesAction.PARAM_REWRITER_ID;
+
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.test.OpenSearchTestCase;
+import org.opensearch.test.rest.FakeRestRequest;
+
+import java.util.Collections;
+
+public class RestUpdateRewriterRulesActionTest extends OpenSearchTestCase {
+
+    public void testThatEmptyRewriterIdIsRejected() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withParams(Collections.singletonMap(PARAM_REWRITER_ID, " ")).build();
+        expectThrows(IllegalArgumentException.class,
+                () -> new RestUpdateRewriterRulesAction().createRequest(restRequest));
+    }
+
+    public void testThatRequestIsParsed() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withParams(Collections.singletonMap(PARAM_REWRITER_ID, "rules1"))
+                .withContent(new BytesArray("{\"delete\": [\"a\", \"r2\"], \"upsert\": \"b =>\n SYNONYM: c\"," +
+                        " \"revision\": \"v2\"}"), XContentType.JSON)
+                .build();
+
+        final UpdateRewriterRulesRequest request = new RestUpdateRewriterRulesAction().createRequest(restRequest);
+        assertEquals("rules1", request.getRewriterId());
+        assertEquals(asList("a", "r2"), request.getDelete());
+        assertEquals("b =>\n SYNONYM: c", request.getUpsert());
+        assertEquals("v2", request.getRevision());
+        assertNull(request.validate());
+    }
+
+    public void testThatRequestWithoutChangesIsInvalid() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withParams(Collections.singletonMap(PARAM_REWRITER_ID, "rules1"))
+                .withContent(new BytesArray("{}"), XContentType.JSON)
+                .build();
+
+        assertNotNull(new RestUpdateRewriterRulesAction().createRequest(restRequest).validate());
+    }
+
+    public void testThatNonArrayDeleteIsRejected() {
+        final FakeRestRequest restRequest = new FakeRestRequest.Builder(null)
+                .withParams(Collections.singletonMap(PARAM_REWRITER_ID, "rules1"))
+                .withContent(new BytesArray("{\"delete\": \"a\"}"), XContentType.JSON)
+                .build();
+        expectThrows(IllegalArgumentException.class,
+                () -> new RestUpdateRewriterRulesAction().createRequest(restRequest));
+    }
+}
@@ -33,10 +33,12 @@ import org.hamcrest.Matchers;
 import static org.hamcrest.Matchers.everyItem;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -77,6 +79,71 @@ public class RewriterConfigMappingTest extends OpenSearchTestCase {
         expectThrows(IllegalArgumentException.class, () -> RewriterConfigMapping.stringToSourceValue("12345", 2));
     }
 
+    public void testThatStringToSourceValueRoundTripsLikeThePreviousImplementation() {
+
+        for (int i = 0; i < 500; i++) {
+            final String s = randomBoolean()
+                    ? randomRealisticUnicodeOfLengthBetween(0, 300)
+                    : randomUnicodeOfLengthBetween(0, 300);
+            final int maxUTFByteLength = randomIntBetween(4, 64);
+
+            final Object expected = legacyStringToSourceValue(s, maxUTFByteLength);
+            final Object actual = RewriterConfigMapping.stringToSourceValue(s, maxUTFByteLength);
+
+            if (expected instanceof String) {
+                assertSame(s, actual);
+            } else {
+                assertTrue(actual instanceof String[]);
+                final String[] chunks = (String[]) actual;
+                assertEquals(s, String.join("", chunks));
+                for (int j = 0; j < chunks.length; j++) {
+                    assertFalse(chunks[j].isEmpty());
+                    assertThat(new BytesRef(chunks[j]).length, Matchers.lessThanOrEqualTo(maxUTFByteLength));
+                    if (j > 0) {
+                        assertFalse("Surrogate pair was split up",
+                                Character.isHighSurrogate(chunks[j - 1].charAt(chunks[j - 1].length() - 1))
+                                        && Character.isLowSurrogate(chunks[j].charAt(0)));
+                    }
+                }
+            }
+        }
+    }
+
+    public void testThatStringToSourceValueKeepsSurrogatePairs() {
+
+        final String s = "ab\uD83D\uDE00";
+        assertArrayEquals(new String[] {"ab", "\uD83D\uDE00"},
+                (String[]) RewriterConfigMapping.stringToSourceValue(s, 4));
+        assertArrayEquals(new String[] {"ab\uD83D", "\uDE00"},
+                (String[]) RewriterConfigMapping.stringToSourceValue(s, 3));
+    }
+
+    /**
+     * The implementation of {@link RewriterConfigMapping#stringToSourceValue(String, int)} that re-encoded the
+     * remaining string for each chunk
+     */
+    private static Object legacyStringToSourceValue(final String string, final int maxUTFByteLength) {
+        final BytesRef binaryValue = new BytesRef(string);
+        if (binaryValue.length <= maxUTFByteLength) {
+            return string;
+        }
+        final List<String> splits = new ArrayList<>();
+        String s = string;
+        while (new BytesRef(s).length > maxUTFByteLength) {
+            String split = s;
+            do {
+                int length = Math.max(1, Math.min((int) Math.floor(split.length() * 0.95), maxUTFByteLength));
+                split = split.substring(0, length);
+            } while (new BytesRef(split).length > maxUTFByteLength);
+            splits.add(split);
+            s = s.substring(split.length());
+        }
+        if (s.length() > 0) {
+            splits.add(s);
+        }
+        return splits.toArray(new String[0]);
+    }
+
     public void testThatMappingIsSelectedByVersion() {
 
         assertSame(PRE3_MAPPING, getMapping(Collections.emptyMap()));
@@ -229,6 +296,84 @@ public class RewriterConfigMappingTest extends OpenSearchTestCase {
         assertEquals(CURRENT.computeConfigHash("r1", sourceFromIndex), hashOfSplitConfig);
     }
 
+    public void testThatConfigIsReadFromConfigThatHadToBeSplitUp() throws IOException {
+
+        final StringBuilder rules = new StringBuilder();
+        while (rules.length() < 40000) {
+            rules.append("k").append(rules.length()).append(" =>\n  SYNONYM: c\n");
+        }
+        final Map<String, Object> config = Collections.singletonMap("rules", rules.toString());
+
+        final Map<String, Object> source = toLuceneSource(putContent(config, null));
+        final Object configValue = source.get(CURRENT.getConfigStringProperty());
+        if (!(configValue instanceof String[])) {
+            throw new IllegalStateException("Test assumptions are wrong: config was not split up");
+        }
+        assertEquals(config, CURRENT.getConfig("r1", source));
+
+        final Map<String, Object> sourceFromIndex = new HashMap<>(source);
+        sourceFromIndex.put(CURRENT.getConfigStringProperty(), Arrays.asList((String[]) configValue));
+        assertEquals(config, CURRENT.getConfig("r1", sourceFromIndex));
+    }
+
+    public void testThatConfigHashDoesNotDependOnASplitSurrogatePair() throws IOException {
+
+        final Map<String, Object> source = toLuceneSource(
+                putContent(Collections.singletonMap("rules", "\uD83D\uDE00 =>\n  SYNONYM: smile"), null));
+        final String configString = (String) source.get(CURRENT.getConfigStringProperty());
+        final int split = configString.indexOf('\uD83D') + 1;
+
+        final Map<String, Object> splitSource = new HashMap<>(source);
+        splitSource.put(CURRENT.getConfigStringProperty(),
+                Arrays.asList(configString.substring(0, split), configString.substring(split)));
+
+        assertEquals(CURRENT.computeConfigHash("r1", source), CURRENT.computeConfigHash("r1", splitSource));
+        assertEquals(CURRENT.getConfig("r1", source), CURRENT.getConfig("r1", splitSource));
+    }
+
+    public void testThatConfigChunksAreTrimmedLikeTheJoinedString() {
+
+        assertEquals("{\"a\":1}", String.join("",
+                RewriterConfigMapping.trim(Arrays.asList(" ", "\n {\"a\"", ":", "1} ", "", "  "))));
+        assertEquals(Collections.singletonList("x"), RewriterConfigMapping.trim(Arrays.asList("  x ", " ")));
+        assertNull(RewriterConfigMapping.trim(Arrays.asList(" ", "\t", "")));
+        assertNull(RewriterConfigMapping.trim(Collections.emptyList()));
+    }
+
+    public void testThatConfigHashIsStoredWhenTheRewriterIsSaved() throws IOException {
+
+        final Map<String, Object> source = toLuceneSource(putContent(config(), "v1"));
+
+        assertEquals(CURRENT.computeConfigHash("r1", source), source.get(RewriterConfigMapping.PROP_CONFIG_HASH));
+        assertEquals(source.get(RewriterConfigMapping.PROP_CONFIG_HASH), CURRENT.getConfigHash("r1", source));
+    }
+
+    public void testThatTheRewriterIdIsStoredButNotHashed() throws IOException {
+
+        final Map<String, Object> withoutId = toLuceneSource(putContent(config(), "v1"));
+        final Map<String, Object> withId = RewriterConfigMapping.toLuceneSource("r1", putContent(config(), "v1"),
+                SAVED_AT_MILLIS);
+
+        assertFalse(withoutId.containsKey(RewriterConfigMapping.PROP_REWRITER_ID));
+        assertEquals("r1", withId.get(RewriterConfigMapping.PROP_REWRITER_ID));
+        assertEquals(withoutId.get(RewriterConfigMapping.PROP_CONFIG_HASH),
+                withId.get(RewriterConfigMapping.PROP_CONFIG_HASH));
+    }
+
+    public void testThatStoredConfigHashIsOnlyUsedIfNotVerified() throws IOException {
+
+        final Map<String, Object> source = new HashMap<>(toLuceneSource(putContent(config(), null)));
+        final String computedHash = CURRENT.computeConfigHash("r1", source);
+
+        source.put(RewriterConfigMapping.PROP_CONFIG_HASH, "stale");
+        assertEquals("stale", CURRENT.getConfigHash("r1", source));
+        assertEquals("stale", RewriterInfo.fromSource("r1", source, false).getConfigHash());
+        assertEquals(computedHash, RewriterInfo.fromSource("r1", source, false, true).getConfigHash());
+
+        source.remove(RewriterConfigMapping.PROP_CONFIG_HASH);
+        assertEquals(computedHash, CURRENT.getConfigHash("r1", source));
+    }
+
     public void testThatConfigHashIsAHexEncodedSha256() throws IOException {
 
         final String hash = configHashOf(putContent(config(), null));
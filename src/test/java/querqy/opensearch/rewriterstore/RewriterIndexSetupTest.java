@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2026 Querqy for OpenSearch Contributors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package querqy.opensearch.rewriterstore;
+
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS;
+import static querqy.opensearch.rewriterstore.Constants.SETTINGS_QUERQY_INDEX_NUM_REPLICAS;
+
+import org.opensearch.common.settings.Settings;
+import org.opensearch.index.query.BoolQueryBuilder;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.test.OpenSearchTestCase;
+
+import java.util.Collections;
+
+public class RewriterIndexSetupTest extends OpenSearchTestCase {
+
+    public void testThatTheNumberOfReplicasIsSetByDefault() {
+        final Settings indexSettings = RewriterIndexSetup.buildQuerqyIndexSettings(Settings.EMPTY);
+        assertEquals("1", indexSettings.get("number_of_replicas"));
+        assertNull(indexSettings.get("auto_expand_replicas"));
+
+        assertEquals("3", RewriterIndexSetup.buildQuerqyIndexSettings(
+                Settings.builder().put(SETTINGS_QUERQY_INDEX_NUM_REPLICAS, 3).build()).get("number_of_replicas"));
+    }
+
+    public void testThatRewritersWithoutStoredIdAreFound() {
+        final BoolQueryBuilder query = (BoolQueryBuilder) RewriterIndexSetup.withoutRewriterIdQuery();
+        assertEquals(Collections.singletonList(QueryBuilders.termQuery(RewriterConfigMapping.PROP_TYPE, "rewriter")),
+                query.filter());
+        assertEquals(Collections.singletonList(QueryBuilders.existsQuery(RewriterConfigMapping.PROP_REWRITER_ID)),
+                query.mustNot());
+    }
+
+    public void testThatAutoExpandReplicasOverridesTheNumberOfReplicas() {
+        final Settings indexSettings = RewriterIndexSetup.buildQuerqyIndexSettings(Settings.builder()
+                .put(SETTINGS_QUERQY_INDEX_NUM_REPLICAS, 3)
+                .put(SETTINGS_QUERQY_INDEX_AUTO_EXPAND_REPLICAS, "0-all")
+                .build());
+        assertEquals("0-all", indexSettings.get("auto_expand_replicas"));
+        assertNull(indexSettings.get("number_of_replicas"));
+    }
+
+}